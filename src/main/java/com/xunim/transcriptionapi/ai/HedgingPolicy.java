@@ -0,0 +1,165 @@
+package com.xunim.transcriptionapi.ai;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Política de requisições "hedged" para a cauda de latência da API Whisper
+ *
+ * Quando uma chamada passa do percentil configurado (openai.hedge.percentile) das
+ * latências recentes, o WhisperClient envia uma segunda requisição idêntica e usa a
+ * primeira resposta que chegar. O limiar é normalizado pela duração do chunk
+ * (ms por minuto de áudio), já que chunks maiores demoram mais naturalmente.
+ *
+ * Cada chamada primária rende budget-percent/100 de crédito e cada hedge gasta 1,
+ * então os hedges nunca passam dessa fração do tráfego, mesmo com a API lenta.
+ */
+@Component
+public class HedgingPolicy {
+
+    // Amostras mais curtas que isso distorcem a normalização por minuto de áudio
+    private static final double MIN_SAMPLE_AUDIO_SECONDS = 1.0;
+    private static final int WINDOW_SLICES = 10;
+    // Crédito máximo acumulado: evita rajadas de hedges depois de um período calmo
+    private static final double MAX_BUDGET = 10.0;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final double budgetPerRequest;
+    private final long minDelayMillis;
+    private final long minSamples;
+    private final LatencyHistogram histogram;
+
+    private final ReentrantLock budgetLock = new ReentrantLock();
+    private double budget;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public HedgingPolicy(
+            @Value("${openai.hedge.enabled:false}") boolean enabled,
+            @Value("${openai.hedge.percentile:95}") double percentile,
+            @Value("${openai.hedge.budget-percent:5}") double budgetPercent,
+            @Value("${openai.hedge.min-delay-ms:2000}") long minDelayMillis,
+            @Value("${openai.hedge.min-samples:50}") long minSamples,
+            @Value("${openai.hedge.window-seconds:300}") long windowSeconds) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.budgetPerRequest = Math.max(0, budgetPercent) / 100.0;
+        this.minDelayMillis = Math.max(0, minDelayMillis);
+        this.minSamples = Math.max(1, minSamples);
+        this.histogram = new LatencyHistogram(windowSeconds, WINDOW_SLICES);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra o envio de uma chamada primária e acumula crédito para hedges
+     */
+    public void onRequest() {
+        requests.increment();
+        budgetLock.lock();
+        try {
+            budget = Math.min(MAX_BUDGET, budget + budgetPerRequest);
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    /**
+     * Registra a latência de uma chamada bem-sucedida
+     */
+    public void recordLatency(long totalMillis, double audioSeconds) {
+        if (audioSeconds < MIN_SAMPLE_AUDIO_SECONDS) {
+            return;
+        }
+        histogram.record(Math.round(totalMillis * 60.0 / audioSeconds));
+    }
+
+    /**
+     * Tempo de espera pela chamada primária antes de enviar o hedge
+     *
+     * @return vazio se o hedging está desligado, a duração do chunk é desconhecida
+     *         ou ainda não há amostras suficientes na janela
+     */
+    public OptionalLong hedgeDelayMillis(double audioSeconds) {
+        if (!enabled || audioSeconds < MIN_SAMPLE_AUDIO_SECONDS || histogram.count() < minSamples) {
+            return OptionalLong.empty();
+        }
+        long perMinute = histogram.percentile(percentile);
+        if (perMinute < 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Math.max(minDelayMillis, Math.round(perMinute * audioSeconds / 60.0)));
+    }
+
+    /**
+     * Gasta o crédito de um hedge; false se o orçamento está esgotado
+     */
+    public boolean tryAcquire() {
+        budgetLock.lock();
+        try {
+            if (budget < 1.0) {
+                skipped.increment();
+                return false;
+            }
+            budget -= 1.0;
+            hedges.increment();
+            return true;
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    /**
+     * Devolve o crédito de um hedge que acabou não sendo enviado
+     */
+    public void refund() {
+        budgetLock.lock();
+        try {
+            budget = Math.min(MAX_BUDGET, budget + 1.0);
+            hedges.decrement();
+            skipped.increment();
+        } finally {
+            budgetLock.unlock();
+        }
+    }
+
+    /**
+     * Registra que a resposta do hedge chegou antes da primária
+     */
+    public void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        long requestCount = requests.sum();
+        long hedgeCount = hedges.sum();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("hedges", hedgeCount);
+        snapshot.put("hedge_wins", hedgeWins.sum());
+        snapshot.put("hedges_skipped", skipped.sum());
+        snapshot.put("hedge_rate_percent", percent(hedgeCount, requestCount));
+        snapshot.put("win_rate_percent", percent(hedgeWins.sum(), hedgeCount));
+        snapshot.put("samples", histogram.count());
+        snapshot.put("threshold_ms_per_audio_minute", histogram.percentile(percentile));
+        return snapshot;
+    }
+
+    private double percent(long part, long total) {
+        if (total == 0) return 0.0;
+        return Math.round((double) part / total * 10000.0) / 100.0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.xunim.transcriptionapi.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latências em janela deslizante
+ *
+ * Buckets em escala logarítmica (10% de resolução) e a janela dividida em
+ * fatias de tempo: fatias mais antigas que a janela são descartadas, então os
+ * percentis acompanham o comportamento recente da API sem guardar cada amostra.
+ */
+public class LatencyHistogram {
+
+    private static final double BUCKET_GROWTH = 1.1;
+    private static final int BUCKETS = 200;
+    private static final double LOG_GROWTH = Math.log(BUCKET_GROWTH);
+
+    private final long sliceNanos;
+    private final AtomicLongArray[] slices;
+    private final AtomicLongArray sliceEpochs;
+
+    public LatencyHistogram(long windowSeconds, int sliceCount) {
+        this.sliceNanos = TimeUnit.SECONDS.toNanos(Math.max(1, windowSeconds)) / Math.max(1, sliceCount);
+        this.slices = new AtomicLongArray[Math.max(1, sliceCount)];
+        this.sliceEpochs = new AtomicLongArray(slices.length);
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = new AtomicLongArray(BUCKETS);
+            sliceEpochs.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public void record(long value) {
+        long epoch = System.nanoTime() / sliceNanos;
+        int index = (int) Math.floorMod(epoch, (long) slices.length);
+
+        long seen = sliceEpochs.get(index);
+        if (seen != epoch && sliceEpochs.compareAndSet(index, seen, epoch)) {
+            // Fatia reaproveitada de uma volta anterior da janela
+            AtomicLongArray slice = slices[index];
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                slice.set(bucket, 0);
+            }
+        }
+
+        slices[index].incrementAndGet(bucketOf(value));
+    }
+
+    /**
+     * Quantidade de amostras na janela atual
+     */
+    public long count() {
+        long total = 0;
+        for (long count : merged()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Valor abaixo do qual está a fração {@code percentile} das amostras (limite superior do bucket)
+     *
+     * @param percentile entre 0 e 100
+     * @return -1 se não houver amostras na janela
+     */
+    public long percentile(double percentile) {
+        long[] counts = merged();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return -1;
+        }
+
+        long rank = (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long cumulative = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            cumulative += counts[bucket];
+            if (cumulative >= Math.max(1, rank)) {
+                return upperBound(bucket);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private long[] merged() {
+        long current = System.nanoTime() / sliceNanos;
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < slices.length; i++) {
+            long epoch = sliceEpochs.get(i);
+            if (epoch == Long.MIN_VALUE || current - epoch >= slices.length) {
+                continue;
+            }
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts[bucket] += slices[i].get(bucket);
+            }
+        }
+        return counts;
+    }
+
+    private static int bucketOf(long value) {
+        if (value <= 1) {
+            return 0;
+        }
+        int bucket = (int) Math.ceil(Math.log(value) / LOG_GROWTH);
+        return Math.min(BUCKETS - 1, bucket);
+    }
+
+    private static long upperBound(int bucket) {
+        return (long) Math.ceil(Math.pow(BUCKET_GROWTH, bucket));
+    }
+}
@@ -0,0 +1,203 @@
+package com.xunim.transcriptionapi.ai;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BodyPublisher multipart que envia o arquivo direto do disco
+ *
+ * Emite os bytes de cabeçalho do multipart, depois o conteúdo do arquivo lido
+ * via FileChannel em blocos de tamanho fixo e por fim o trailer.
+ * Cada requisição em andamento ocupa apenas alguns KB de heap,
+ * independente do tamanho do chunk.
+ *
+ * Pode ser assinado mais de uma vez (ex: reenvio da requisição):
+ * cada assinatura abre seu próprio canal para o arquivo.
+ */
+public class MultipartFileBodyPublisher implements HttpRequest.BodyPublisher {
+
+    static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+    private final byte[] header;
+    private final Path file;
+    private final byte[] trailer;
+    private final int bufferSize;
+    private final long fileSize;
+
+    public MultipartFileBodyPublisher(byte[] header, Path file, byte[] trailer) throws IOException {
+        this(header, file, trailer, DEFAULT_BUFFER_SIZE);
+    }
+
+    public MultipartFileBodyPublisher(byte[] header, Path file, byte[] trailer, int bufferSize)
+            throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Tamanho de buffer inválido: " + bufferSize);
+        }
+        this.header = header;
+        this.file = file;
+        this.trailer = trailer;
+        this.bufferSize = bufferSize;
+        this.fileSize = Files.size(file);
+    }
+
+    @Override
+    public long contentLength() {
+        return header.length + fileSize + trailer.length;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        subscriber.onSubscribe(new FileSubscription(subscriber));
+    }
+
+    private enum Stage {
+        HEADER, FILE, TRAILER, DONE
+    }
+
+    /**
+     * Subscription que respeita a demanda do HttpClient (backpressure)
+     *
+     * O buffer direto de leitura é reaproveitado; cada bloco emitido é uma cópia
+     * própria, pois o HttpClient assume a posse dos ByteBuffers recebidos.
+     */
+    private final class FileSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private ByteBuffer readBuffer;
+        private FileChannel channel;
+        private long remaining = fileSize;
+        private Stage stage = Stage.HEADER;
+        private volatile boolean cancelled;
+
+        private FileSubscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                drain();
+                subscriber.onError(new IllegalArgumentException("Demanda inválida: " + n));
+                return;
+            }
+
+            demand.getAndAccumulate(n, (current, add) -> {
+                long sum = current + add;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            do {
+                while (!cancelled && stage != Stage.DONE && demand.get() > 0) {
+                    ByteBuffer next;
+                    try {
+                        next = nextBuffer();
+                    } catch (IOException e) {
+                        cancelled = true;
+                        closeChannel();
+                        subscriber.onError(e);
+                        return;
+                    }
+
+                    if (next != null) {
+                        demand.decrementAndGet();
+                        subscriber.onNext(next);
+                    }
+                }
+
+                if (stage == Stage.DONE && !cancelled) {
+                    cancelled = true;
+                    closeChannel();
+                    subscriber.onComplete();
+                } else if (cancelled) {
+                    closeChannel();
+                }
+
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Retorna o próximo bloco a emitir, ou null quando apenas avançou de etapa
+         */
+        private ByteBuffer nextBuffer() throws IOException {
+            switch (stage) {
+                case HEADER -> {
+                    channel = FileChannel.open(file, StandardOpenOption.READ);
+                    readBuffer = ByteBuffer.allocateDirect(bufferSize);
+                    stage = Stage.FILE;
+                    return ByteBuffer.wrap(header);
+                }
+                case FILE -> {
+                    if (remaining <= 0) {
+                        closeChannel();
+                        stage = Stage.TRAILER;
+                        return null;
+                    }
+
+                    readBuffer.clear();
+                    if (remaining < readBuffer.capacity()) {
+                        readBuffer.limit((int) remaining);
+                    }
+
+                    int read = channel.read(readBuffer);
+                    if (read < 0) {
+                        throw new IOException("Arquivo encolheu durante o envio: " + file);
+                    }
+
+                    remaining -= read;
+                    readBuffer.flip();
+
+                    ByteBuffer chunk = ByteBuffer.allocate(read);
+                    chunk.put(readBuffer).flip();
+                    return chunk;
+                }
+                case TRAILER -> {
+                    stage = Stage.DONE;
+                    return ByteBuffer.wrap(trailer);
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+
+        private void closeChannel() {
+            if (channel == null) {
+                return;
+            }
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Fechamento é best effort
+            }
+            channel = null;
+            readBuffer = null;
+        }
+    }
+}
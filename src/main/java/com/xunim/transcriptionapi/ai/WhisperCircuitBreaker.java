@@ -0,0 +1,195 @@
+package com.xunim.transcriptionapi.ai;
+
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker das chamadas à API Whisper
+ *
+ * - CLOSED: chamadas passam; falhas seguidas (5xx, timeout, erro de conexão) são contadas
+ * - OPEN: após failure-threshold falhas seguidas, nenhuma chamada é feita por open-seconds;
+ *   os jobs voltam para a fila em vez de gastar tentativas e terminar em ERROR
+ * - HALF_OPEN: passado o intervalo, uma chamada de teste decide se o circuito fecha ou reabre
+ *
+ * Respostas 4xx e 429 indicam que a API está de pé e não abrem o circuito.
+ */
+@Component
+@Slf4j
+public class WhisperCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final boolean enabled;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public WhisperCircuitBreaker(
+            @Value("${openai.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${openai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${openai.circuit-breaker.open-seconds:30}") long openSeconds) {
+        this.enabled = enabled;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.SECONDS.toNanos(Math.max(1, openSeconds));
+    }
+
+    /**
+     * Autoriza uma chamada; toda chamada autorizada deve ser seguida de onSuccess, onFailure ou onIgnored
+     *
+     * @throws DependencyUnavailableException se o circuito está aberto
+     */
+    public void acquirePermission() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (state == State.OPEN && now - openedAtNanos >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+                log.info("Circuit breaker do Whisper meio aberto; enviando chamada de teste");
+            }
+
+            if (state == State.CLOSED) {
+                return;
+            }
+            if (state == State.HALF_OPEN && !probeInFlight) {
+                probeInFlight = true;
+                return;
+            }
+
+            rejected.increment();
+            throw new DependencyUnavailableException(
+                    "API Whisper indisponível (circuit breaker aberto)", remainingOpenMillis(now));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A API respondeu (inclusive 4xx/429): fecha o circuito
+     */
+    public void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (state != State.CLOSED) {
+                log.info("API Whisper voltou a responder; circuit breaker fechado");
+            }
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A API falhou (5xx, timeout ou erro de conexão)
+     */
+    public void onFailure() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                open();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A chamada terminou sem dizer nada sobre a saúde da API (ex.: interrompida)
+     */
+    public void onIgnored() {
+        if (!enabled) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            probeInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verdadeiro enquanto o circuito está aberto e o intervalo de espera não passou
+     */
+    public boolean isOpen() {
+        return remainingOpenMillis() > 0;
+    }
+
+    /**
+     * Tempo até o circuito aceitar a chamada de teste (0 se não está aberto)
+     */
+    public long remainingOpenMillis() {
+        lock.lock();
+        try {
+            return remainingOpenMillis(System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        lock.lock();
+        try {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("enabled", enabled);
+            snapshot.put("state", state.name());
+            snapshot.put("consecutive_failures", consecutiveFailures);
+            snapshot.put("open_remaining_ms", remainingOpenMillis(System.nanoTime()));
+            snapshot.put("times_opened", opened.sum());
+            snapshot.put("rejected_calls", rejected.sum());
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        probeInFlight = false;
+        opened.increment();
+        log.warn("API Whisper falhou {} vez(es) seguidas; circuit breaker aberto por {} s",
+                consecutiveFailures, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+    }
+
+    private long remainingOpenMillis(long now) {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openedAtNanos + openNanos - now));
+    }
+}
@@ -2,6 +2,7 @@ package com.xunim.transcriptionapi.ai;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xunim.transcriptionapi.cache.TranscriptionCache;
 import com.xunim.transcriptionapi.exception.WhisperApiException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,53 +12,159 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class WhisperClient {
 
+    private final HttpClient whisperHttpClient;
+    private final WhisperClientMetrics metrics;
+    private final TranscriptionCache transcriptionCache;
+    private final WhisperRateLimiter rateLimiter;
+    private final HedgingPolicy hedgingPolicy;
+    private final WhisperCircuitBreaker circuitBreaker;
+
     @Value("${openai.api.key}")
     private String apiKey;
 
     @Value("${openai.whisper.url}")
     private String whisperUrl;
 
+    @Value("${openai.whisper.model:whisper-1}")
+    private String model;
+
+    @Value("${openai.http.request-timeout-seconds:600}")
+    private long requestTimeoutSeconds;
+
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final String PROCESSING_TIME_HEADER = "openai-processing-ms";
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String RETRY_AFTER_MS_HEADER = "retry-after-ms";
+
     public String transcribe(String filePath, String language) {
+        return transcribe(filePath, language, 0);
+    }
+
+    /**
+     * @param audioSeconds duração do chunk, usada no limite de segundos de áudio por minuto (0 se desconhecida)
+     */
+    public String transcribe(String filePath, String language, double audioSeconds) {
 
         String boundary = "----JavaBoundary" + System.currentTimeMillis();
 
         try {
+            // Chunks com o mesmo conteúdo, idioma e modelo não são enviados de novo
+            String cacheKey = null;
+            if (transcriptionCache.isEnabled()) {
+                cacheKey = transcriptionCache.keyFor(Path.of(filePath), language, model);
+                Optional<String> cached = transcriptionCache.get(cacheKey);
+                if (cached.isPresent()) {
+                    log.info("Transcrição de {} obtida do cache", Path.of(filePath).getFileName());
+                    return cached.get();
+                }
+            }
+
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(whisperUrl))
+                    .timeout(Duration.ofSeconds(requestTimeoutSeconds))
                     .header("Authorization", "Bearer " + apiKey)
                     .header("Content-Type", "multipart/form-data; boundary=" + boundary)
                     .POST(buildMultipartBody(filePath, language, boundary))
                     .build();
 
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            // Com o circuito aberto o chunk nem entra na fila do limitador
+            circuitBreaker.acquirePermission();
+
+            Attempt attempt;
+            HttpResponse<String> response;
+            try {
+                // Espera a vez dentro da taxa e da concorrência permitidas pela API
+                rateLimiter.acquire(audioSeconds);
+                hedgingPolicy.onRequest();
+
+                attempt = awaitResponse(request, send(request, false), audioSeconds);
+                response = join(attempt);
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            } catch (InterruptedException | RuntimeException e) {
+                circuitBreaker.onIgnored();
+                throw e;
+            }
+
+            if (response.statusCode() >= 500) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+
+            long start = attempt.startNanos();
+            AtomicLong headersReceivedAt = attempt.headersReceivedAt();
+
+            long retryAfterMillis = parseRetryAfter(response.headers());
+
+            long end = System.nanoTime();
+            long timeToHeadersMillis = TimeUnit.NANOSECONDS.toMillis(headersReceivedAt.get() - start);
+            long totalMillis = TimeUnit.NANOSECONDS.toMillis(end - start);
+            long serverMillis = response.headers().firstValueAsLong(PROCESSING_TIME_HEADER).orElse(-1);
+
+            log.debug("Whisper respondeu {} em {} ms (headers: {} ms, servidor: {} ms)",
+                    response.statusCode(), totalMillis, timeToHeadersMillis, serverMillis);
+
+            if (response.statusCode() == 429) {
+                metrics.recordThrottled();
+                log.warn("Whisper API retornou 429 (limite de taxa); Retry-After: {} ms", retryAfterMillis);
+                throw new WhisperApiException(
+                        "Limite de taxa da API Whisper atingido: " + response.body(),
+                        response.statusCode(),
+                        retryAfterMillis
+                );
+            }
 
             if (response.statusCode() != 200) {
+                metrics.recordError();
                 log.error("Whisper API retornou erro {}: {}", response.statusCode(), response.body());
                 throw new WhisperApiException(
                         "Erro na API Whisper: " + response.body(),
-                        response.statusCode()
+                        response.statusCode(),
+                        retryAfterMillis
                 );
             }
 
+            metrics.recordCall(timeToHeadersMillis, totalMillis, serverMillis);
+            hedgingPolicy.recordLatency(totalMillis, audioSeconds);
+
             JsonNode json = MAPPER.readTree(response.body());
-            return json.get("text").asText();
+            String text = json.get("text").asText();
+
+            if (cacheKey != null) {
+                transcriptionCache.put(cacheKey, text);
+            }
+            return text;
 
         } catch (IOException e) {
+            metrics.recordError();
             log.error("Erro de I/O ao chamar Whisper API", e);
             throw new WhisperApiException("Erro ao processar arquivo de áudio", 500, e);
         } catch (InterruptedException e) {
@@ -67,35 +174,206 @@ public class WhisperClient {
         }
     }
 
+    /**
+     * Envia a requisição sem bloquear; a vaga do limitador é liberada quando ela termina
+     * (com -1 se falhou ou foi cancelada por ter perdido para o hedge)
+     */
+    private Attempt send(HttpRequest request, boolean hedge) {
+        long start = System.nanoTime();
+        AtomicLong headersReceivedAt = new AtomicLong(start);
+
+        CompletableFuture<HttpResponse<String>> future;
+        try {
+            future = whisperHttpClient.sendAsync(request, responseInfo -> {
+                headersReceivedAt.set(System.nanoTime());
+                return HttpResponse.BodyHandlers.ofString().apply(responseInfo);
+            });
+        } catch (RuntimeException e) {
+            rateLimiter.release(-1, -1);
+            throw e;
+        }
+        request.bodyPublisher().ifPresent(body -> metrics.recordBytesSent(Math.max(0, body.contentLength())));
+        future.whenComplete((response, error) -> {
+            if (response != null) {
+                rateLimiter.release(response.statusCode(), parseRetryAfter(response.headers()));
+            } else {
+                rateLimiter.release(-1, -1);
+            }
+        });
+
+        return new Attempt(future, start, headersReceivedAt, hedge);
+    }
+
+    /**
+     * Espera a chamada primária; se ela passar do limiar de latência, envia um hedge
+     * (dentro do orçamento e do limite de taxa) e fica com a primeira resposta 200
+     */
+    private Attempt awaitResponse(HttpRequest request, Attempt primary, double audioSeconds)
+            throws IOException, InterruptedException {
+
+        OptionalLong hedgeDelay = hedgingPolicy.hedgeDelayMillis(audioSeconds);
+        if (hedgeDelay.isEmpty()) {
+            return primary;
+        }
+
+        try {
+            primary.future().get(hedgeDelay.getAsLong(), TimeUnit.MILLISECONDS);
+            return primary;
+        } catch (TimeoutException e) {
+            // Primária na cauda de latência: candidata a hedge
+        } catch (ExecutionException e) {
+            return primary;
+        } catch (InterruptedException e) {
+            primary.future().cancel(true);
+            throw e;
+        }
+
+        if (!hedgingPolicy.tryAcquire()) {
+            return primary;
+        }
+        if (!rateLimiter.tryAcquire(audioSeconds)) {
+            hedgingPolicy.refund();
+            return primary;
+        }
+
+        log.debug("Chamada ao Whisper passou de {} ms; enviando hedge", hedgeDelay.getAsLong());
+        // O corpo multipart lê o arquivo de novo a cada assinatura, então a mesma requisição é reenviada
+        Attempt hedge = send(request, true);
+
+        CompletableFuture<Attempt> first = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(2);
+        for (Attempt attempt : List.of(primary, hedge)) {
+            attempt.future().whenComplete((response, error) -> {
+                boolean success = response != null && response.statusCode() == 200;
+                // Se nenhuma der certo, vale o resultado da última a terminar
+                if (pending.decrementAndGet() == 0 || success) {
+                    first.complete(attempt);
+                }
+            });
+        }
+
+        Attempt winner;
+        try {
+            winner = first.get();
+        } catch (InterruptedException e) {
+            primary.future().cancel(true);
+            hedge.future().cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+
+        (winner == primary ? hedge : primary).future().cancel(true);
+        if (winner.hedge()) {
+            hedgingPolicy.recordHedgeWin();
+            log.debug("Hedge respondeu antes da chamada primária");
+        }
+        return winner;
+    }
+
+    private static HttpResponse<String> join(Attempt attempt) throws IOException, InterruptedException {
+        try {
+            return attempt.future().get();
+        } catch (InterruptedException e) {
+            attempt.future().cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Lê a espera pedida pela API: retry-after-ms (OpenAI) ou Retry-After em segundos ou data HTTP
+     *
+     * @return espera em milissegundos, ou -1 se ausente ou inválida
+     */
+    static long parseRetryAfter(HttpHeaders headers) {
+        Optional<String> millis = headers.firstValue(RETRY_AFTER_MS_HEADER);
+        if (millis.isPresent()) {
+            try {
+                return Math.max(0, (long) Double.parseDouble(millis.get().trim()));
+            } catch (NumberFormatException e) {
+                // tenta o header padrão
+            }
+        }
+
+        Optional<String> retryAfter = headers.firstValue(RETRY_AFTER_HEADER);
+        if (retryAfter.isEmpty()) {
+            return -1;
+        }
+
+        String value = retryAfter.get().trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Content-Type do arquivo pela extensão (os chunks podem ser m4a, ogg ou mp3 conforme o perfil)
+     */
+    static String contentTypeFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return switch (extension) {
+            case "m4a", "mp4" -> "audio/mp4";
+            case "ogg", "oga", "opus" -> "audio/ogg";
+            case "wav" -> "audio/wav";
+            case "flac" -> "audio/flac";
+            case "webm" -> "audio/webm";
+            default -> "audio/mpeg";
+        };
+    }
+
     private HttpRequest.BodyPublisher buildMultipartBody(String filePath, String language, String boundary)
             throws IOException {
 
-        List<byte[]> parts = new ArrayList<>();
+        StringBuilder header = new StringBuilder();
         String separator = "--" + boundary + "\r\n";
 
         // model
-        parts.add(separator.getBytes());
-        parts.add("Content-Disposition: form-data; name=\"model\"\r\n\r\n".getBytes());
-        parts.add("whisper-1\r\n".getBytes());
+        header.append(separator);
+        header.append("Content-Disposition: form-data; name=\"model\"\r\n\r\n");
+        header.append(model).append("\r\n");
 
         // language (opcional)
         if (language != null && !language.trim().isEmpty()) {
-            parts.add(separator.getBytes());
-            parts.add("Content-Disposition: form-data; name=\"language\"\r\n\r\n".getBytes());
-            parts.add((language + "\r\n").getBytes());
+            header.append(separator);
+            header.append("Content-Disposition: form-data; name=\"language\"\r\n\r\n");
+            header.append(language).append("\r\n");
         }
 
-        // file
-        parts.add(separator.getBytes());
-        String filename = Path.of(filePath).getFileName().toString();
-        parts.add(("Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n").getBytes());
-        parts.add("Content-Type: audio/mpeg\r\n\r\n".getBytes());
-        parts.add(Files.readAllBytes(Path.of(filePath)));
-        parts.add("\r\n".getBytes());
+        // file (o conteúdo é lido do disco sob demanda, sem carregar o chunk inteiro no heap)
+        Path file = Path.of(filePath);
+        header.append(separator);
+        header.append("Content-Disposition: form-data; name=\"file\"; filename=\"")
+                .append(file.getFileName()).append("\"\r\n");
+        header.append("Content-Type: ").append(contentTypeFor(file)).append("\r\n\r\n");
 
         // end
-        parts.add(("--" + boundary + "--").getBytes());
+        String trailer = "\r\n--" + boundary + "--";
+
+        return new MultipartFileBodyPublisher(
+                header.toString().getBytes(StandardCharsets.UTF_8),
+                file,
+                trailer.getBytes(StandardCharsets.UTF_8)
+        );
+    }
 
-        return HttpRequest.BodyPublishers.ofByteArrays(parts);
+    private record Attempt(CompletableFuture<HttpResponse<String>> future, long startNanos,
+                           AtomicLong headersReceivedAt, boolean hedge) {
     }
 }
\ No newline at end of file
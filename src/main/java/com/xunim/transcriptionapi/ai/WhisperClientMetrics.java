@@ -0,0 +1,91 @@
+package com.xunim.transcriptionapi.ai;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de latência das chamadas à API Whisper
+ *
+ * O tempo total de cada chamada é separado em:
+ * - processamento no servidor (header openai-processing-ms da resposta)
+ * - transporte: conexão, handshake TLS, envio do áudio e rede (restante até os headers)
+ * - download da resposta (após os headers)
+ */
+@Component
+public class WhisperClientMetrics {
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAdder transportMillis = new LongAdder();
+    private final LongAdder serverMillis = new LongAdder();
+    private final LongAdder downloadMillis = new LongAdder();
+    private final LongAdder callsWithServerTiming = new LongAdder();
+    private final LongAccumulator maxTotalMillis = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Registra uma chamada concluída
+     *
+     * @param timeToHeadersMillis tempo desde o envio até a chegada dos headers da resposta
+     * @param totalMillis tempo total da chamada, incluindo a leitura do corpo
+     * @param serverProcessingMillis tempo informado pelo servidor, ou -1 se ausente
+     */
+    public void recordCall(long timeToHeadersMillis, long totalMillis, long serverProcessingMillis) {
+        calls.increment();
+        this.totalMillis.add(totalMillis);
+        this.downloadMillis.add(Math.max(0, totalMillis - timeToHeadersMillis));
+        maxTotalMillis.accumulate(totalMillis);
+
+        if (serverProcessingMillis >= 0) {
+            callsWithServerTiming.increment();
+            serverMillis.add(serverProcessingMillis);
+            transportMillis.add(Math.max(0, timeToHeadersMillis - serverProcessingMillis));
+        }
+    }
+
+    /**
+     * Registra o tamanho do arquivo enviado em uma chamada (inclusive hedges)
+     */
+    public void recordBytesSent(long bytes) {
+        bytesSent.add(bytes);
+    }
+
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Registra uma resposta 429 (limite de taxa da API)
+     */
+    public void recordThrottled() {
+        throttled.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        long callCount = calls.sum();
+        long timedCount = callsWithServerTiming.sum();
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("calls", callCount);
+        snapshot.put("errors", errors.sum());
+        snapshot.put("throttled", throttled.sum());
+        snapshot.put("bytes_sent", bytesSent.sum());
+        snapshot.put("avg_total_ms", average(totalMillis.sum(), callCount));
+        snapshot.put("max_total_ms", maxTotalMillis.get());
+        snapshot.put("avg_transport_ms", average(transportMillis.sum(), timedCount));
+        snapshot.put("avg_server_processing_ms", average(serverMillis.sum(), timedCount));
+        snapshot.put("avg_download_ms", average(downloadMillis.sum(), callCount));
+        return snapshot;
+    }
+
+    private double average(long sum, long count) {
+        if (count == 0) return 0.0;
+        return Math.round((double) sum / count * 100.0) / 100.0;
+    }
+}
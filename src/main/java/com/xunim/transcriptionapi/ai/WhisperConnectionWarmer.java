@@ -0,0 +1,71 @@
+package com.xunim.transcriptionapi.ai;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Abre conexões com a API Whisper na inicialização
+ *
+ * Envia requisições HEAD leves para que a resolução DNS, a conexão TCP
+ * e o handshake TLS já estejam no pool quando o primeiro chunk for enviado.
+ * Não bloqueia a inicialização e falhas são apenas registradas no log.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WhisperConnectionWarmer {
+
+    private final HttpClient whisperHttpClient;
+
+    @Value("${openai.whisper.url}")
+    private String whisperUrl;
+
+    @Value("${openai.http.warmup-connections:0}")
+    private int warmupConnections;
+
+    @Value("${openai.http.connect-timeout-seconds:10}")
+    private long connectTimeoutSeconds;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmupConnections <= 0) {
+            return;
+        }
+
+        log.info("Aquecendo {} conexão(ões) com a API Whisper", warmupConnections);
+
+        long start = System.currentTimeMillis();
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[warmupConnections];
+
+        for (int i = 0; i < warmupConnections; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(whisperUrl))
+                    .timeout(Duration.ofSeconds(connectTimeoutSeconds * 2))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .build();
+
+            requests[i] = whisperHttpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        CompletableFuture.allOf(requests).whenComplete((ignored, error) -> {
+            long elapsed = System.currentTimeMillis() - start;
+            if (error != null) {
+                log.warn("Aquecimento de conexões com a API Whisper falhou após {} ms: {}",
+                        elapsed, error.getMessage());
+            } else {
+                log.info("Conexões com a API Whisper aquecidas em {} ms", elapsed);
+            }
+        });
+    }
+}
@@ -0,0 +1,270 @@
+package com.xunim.transcriptionapi.ai;
+
+import com.xunim.transcriptionapi.exception.TranscriptionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de taxa das chamadas à API Whisper, compartilhado por todos os workers do nó
+ *
+ * - Token buckets de requisições/min e segundos de áudio/min (openai.rate-limit.*);
+ *   com vários nós, divida a cota da conta entre eles
+ * - Um 429 com Retry-After pausa todas as chamadas do nó pelo tempo pedido
+ * - Concorrência adaptativa (AIMD): cresce +1 por "janela" de sucessos e cai pela
+ *   metade quando a API responde 429/5xx, ficando logo abaixo do limite do provedor
+ */
+@Component
+@Slf4j
+public class WhisperRateLimiter {
+
+    // Reduções seguidas dentro deste intervalo contam como um único evento de sobrecarga
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final double DECREASE_FACTOR = 0.5;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotReleased = lock.newCondition();
+
+    private final Bucket requests;
+    private final Bucket audioSeconds;
+    private final boolean adaptive;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+
+    private double concurrencyLimit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private long lastDecreaseNanos;
+
+    private final LongAdder throttleWaits = new LongAdder();
+    private final LongAdder throttleWaitMillis = new LongAdder();
+    private final LongAdder decreases = new LongAdder();
+
+    public WhisperRateLimiter(
+            @Value("${openai.rate-limit.requests-per-minute:0}") double requestsPerMinute,
+            @Value("${openai.rate-limit.audio-seconds-per-minute:0}") double audioSecondsPerMinute,
+            @Value("${openai.rate-limit.adaptive-concurrency:true}") boolean adaptive,
+            @Value("${openai.rate-limit.min-concurrency:1}") int minConcurrency,
+            @Value("${transcription.parallel.global-limit:8}") int maxConcurrency) {
+        this.requests = requestsPerMinute > 0 ? new Bucket(requestsPerMinute) : null;
+        this.audioSeconds = audioSecondsPerMinute > 0 ? new Bucket(audioSecondsPerMinute) : null;
+        this.adaptive = adaptive;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.minConcurrency = Math.max(1, Math.min(minConcurrency, this.maxConcurrency));
+        this.concurrencyLimit = this.maxConcurrency;
+    }
+
+    /**
+     * Bloqueia até a chamada caber na taxa e na concorrência atuais
+     *
+     * Toda chamada a acquire deve ser seguida de release.
+     *
+     * @param audioSecondsNeeded duração do chunk em segundos (0 se desconhecida)
+     */
+    public void acquire(double audioSecondsNeeded) {
+        try {
+            acquireRate(audioSecondsNeeded);
+            acquireSlot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Processamento interrompido", e);
+        }
+    }
+
+    /**
+     * Versão não bloqueante de acquire, para chamadas opcionais (hedges)
+     *
+     * @return true se a chamada coube na taxa e na concorrência; nesse caso deve ser seguida de release
+     */
+    public boolean tryAcquire(double audioSecondsNeeded) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (pausedUntilNanos - now > 0 || inFlight >= (int) concurrencyLimit) {
+                return false;
+            }
+
+            double audioNeeded = audioSeconds != null ? audioSeconds.clamp(audioSecondsNeeded) : 0;
+            if (requests != null && requests.nanosUntil(1, now) > 0) {
+                return false;
+            }
+            if (audioSeconds != null && audioSeconds.nanosUntil(audioNeeded, now) > 0) {
+                return false;
+            }
+
+            if (requests != null) {
+                requests.take(1);
+            }
+            if (audioSeconds != null) {
+                audioSeconds.take(audioNeeded);
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera a vaga da chamada e ajusta a concorrência pelo resultado
+     *
+     * @param statusCode status HTTP da resposta, ou -1 se não houve resposta
+     * @param retryAfterMillis espera pedida pela API, ou -1 se ausente
+     */
+    public void release(int statusCode, long retryAfterMillis) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+
+            if (statusCode == 429 && retryAfterMillis > 0) {
+                pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis));
+                log.warn("API Whisper pediu {} ms de espera; chamadas do nó pausadas", retryAfterMillis);
+            }
+
+            if (adaptive) {
+                if (statusCode >= 200 && statusCode < 300) {
+                    // Aumento aditivo: +1 depois de ~limite sucessos seguidos
+                    concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+                } else if ((statusCode == 429 || statusCode >= 500) && now - lastDecreaseNanos > DECREASE_COOLDOWN_NANOS) {
+                    concurrencyLimit = Math.max(minConcurrency, concurrencyLimit * DECREASE_FACTOR);
+                    lastDecreaseNanos = now;
+                    decreases.increment();
+                    log.warn("API Whisper sobrecarregada ({}); concorrência reduzida para {}",
+                            statusCode, (int) concurrencyLimit);
+                }
+            }
+
+            slotReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        lock.lock();
+        try {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("concurrency_limit", (int) concurrencyLimit);
+            snapshot.put("in_flight", inFlight);
+            snapshot.put("throttle_waits", throttleWaits.sum());
+            snapshot.put("throttle_wait_ms", throttleWaitMillis.sum());
+            snapshot.put("concurrency_decreases", decreases.sum());
+            if (requests != null) {
+                snapshot.put("request_tokens", Math.floor(requests.available(System.nanoTime())));
+            }
+            if (audioSeconds != null) {
+                snapshot.put("audio_second_tokens", Math.floor(audioSeconds.available(System.nanoTime())));
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquireRate(double audioSecondsNeeded) throws InterruptedException {
+        boolean waited = false;
+
+        while (true) {
+            long waitNanos;
+
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                double audioNeeded = audioSeconds != null ? audioSeconds.clamp(audioSecondsNeeded) : 0;
+
+                waitNanos = Math.max(0, pausedUntilNanos - now);
+                if (requests != null) {
+                    waitNanos = Math.max(waitNanos, requests.nanosUntil(1, now));
+                }
+                if (audioSeconds != null) {
+                    waitNanos = Math.max(waitNanos, audioSeconds.nanosUntil(audioNeeded, now));
+                }
+
+                if (waitNanos == 0) {
+                    if (requests != null) {
+                        requests.take(1);
+                    }
+                    if (audioSeconds != null) {
+                        audioSeconds.take(audioNeeded);
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (!waited) {
+                throttleWaits.increment();
+                waited = true;
+            }
+            throttleWaitMillis.add(TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private void acquireSlot() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) concurrencyLimit) {
+                slotReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Token bucket com reposição contínua; capacidade igual à cota de um minuto
+     * (não é thread-safe: usado apenas sob o lock do limitador)
+     */
+    private static final class Bucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long lastRefillNanos;
+
+        Bucket(double perMinute) {
+            this.capacity = perMinute;
+            this.tokensPerNano = perMinute / TimeUnit.MINUTES.toNanos(1);
+            this.tokens = perMinute;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        double available(long now) {
+            refill(now);
+            return tokens;
+        }
+
+        // Um chunk maior que a cota inteira nunca caberia: espera o bucket encher
+        double clamp(double amount) {
+            return Math.min(Math.max(0, amount), capacity);
+        }
+
+        long nanosUntil(double amount, long now) {
+            refill(now);
+            if (tokens >= amount) {
+                return 0;
+            }
+            return (long) Math.ceil((amount - tokens) / tokensPerNano);
+        }
+
+        void take(double amount) {
+            tokens -= amount;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+            lastRefillNanos = now;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.xunim.transcriptionapi.async;
+
+import com.xunim.transcriptionapi.ai.WhisperClient;
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import com.xunim.transcriptionapi.exception.TranscriptionException;
+import com.xunim.transcriptionapi.exception.WhisperApiException;
+import com.xunim.transcriptionapi.service.AudioChunk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Distribui os chunks de um job para transcrição em paralelo
+ *
+ * A concorrência é limitada por job (transcription.parallel.per-job-limit)
+ * e globalmente entre todos os jobs (transcription.parallel.global-limit).
+ * Os resultados são devolvidos na ordem dos chunks e cada chunk que falha
+ * é retentado individualmente antes de falhar o job. Se as tentativas acabarem
+ * com a API indisponível (5xx, timeout, conexão, 429), o job é adiado em vez de
+ * falhar: o circuit breaker só abre depois de várias falhas, e até lá as
+ * tentativas do chunk já teriam acabado.
+ */
+@Component
+@Slf4j
+public class ChunkTranscriptionDispatcher {
+
+    private final WhisperClient whisperClient;
+    private final Executor chunkExecutor;
+    private final Semaphore globalPermits;
+    // Threads que esperam as vagas de chamada no lugar de quem submete os chunks
+    private final SimpleAsyncTaskExecutor submitExecutor;
+
+    @Value("${transcription.parallel.per-job-limit:4}")
+    private int perJobLimit;
+
+    @Value("${transcription.chunk.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${transcription.chunk.retry-backoff-ms:2000}")
+    private long retryBackoffMs;
+
+    @Value("${transcription.chunk.retry-backoff-max-ms:60000}")
+    private long retryBackoffMaxMs;
+
+    @Value("${transcription.chunk.max-throttled-attempts:10}")
+    private int maxThrottledAttempts;
+
+    public ChunkTranscriptionDispatcher(
+            WhisperClient whisperClient,
+            @Qualifier("chunkExecutor") Executor chunkExecutor,
+            @Value("${transcription.parallel.global-limit:8}") int globalLimit) {
+        this.whisperClient = whisperClient;
+        this.chunkExecutor = chunkExecutor;
+        this.globalPermits = new Semaphore(globalLimit, true);
+        // Virtual threads: só ficam paradas nos semáforos, uma por job com chunks na espera
+        this.submitExecutor = new SimpleAsyncTaskExecutor("chunk-submit-");
+        this.submitExecutor.setVirtualThreads(true);
+    }
+
+    /**
+     * Abre uma sessão de transcrição para um job
+     */
+    public JobTranscription open(Long jobId, String language) {
+        return open(jobId, language, null);
+    }
+
+    /**
+     * Abre uma sessão de transcrição notificando o resultado de cada chunk
+     */
+    public JobTranscription open(Long jobId, String language, ChunkListener listener) {
+        return new JobTranscription(jobId, language, listener);
+    }
+
+    /**
+     * Recebe o resultado de cada chunk assim que ele termina (na thread do chunk)
+     */
+    public interface ChunkListener {
+
+        void onChunkDone(int index, String text);
+
+        void onChunkFailed(int index, RuntimeException error);
+    }
+
+    /**
+     * Transcrição em andamento dos chunks de um job
+     *
+     * Os chunks são submetidos em ordem e a submissão não bloqueia: a posição do
+     * resultado é reservada na hora e o chunk espera a sua vez em uma fila do job,
+     * enquanto o job ou a aplicação estiverem no limite de chamadas simultâneas.
+     * Assim quem produz os chunks (a divisão pelo FFmpeg) não segura a vaga do
+     * FFmpeg esperando o Whisper.
+     */
+    public class JobTranscription {
+
+        private final Long jobId;
+        private final String language;
+        private final Semaphore jobPermits;
+        private final ChunkListener listener;
+        private final List<CompletableFuture<String>> results = new ArrayList<>();
+        // ReentrantLock em vez de synchronized: a trava é usada também por virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        // Último chunk na fila do job: cada um espera as vagas depois do anterior
+        private CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+        private volatile boolean failed;
+        // Primeira falha definitiva: os demais chunks falham só por consequência dela
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private JobTranscription(Long jobId, String language, ChunkListener listener) {
+            this.jobId = jobId;
+            this.language = language;
+            this.jobPermits = new Semaphore(perJobLimit);
+            this.listener = listener;
+        }
+
+        /**
+         * Registra, na posição do próximo chunk, um texto já transcrito anteriormente
+         */
+        public void completed(String text) {
+            lock.lock();
+            try {
+                results.add(CompletableFuture.completedFuture(text));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void submit(Path chunk) {
+            submit(chunk, 0);
+        }
+
+        /**
+         * @param audioSeconds duração do chunk, usada no limite de áudio por minuto da API
+         */
+        public void submit(Path chunk, double audioSeconds) {
+            submitParts(List.of(new AudioChunk(0, chunk, 0, audioSeconds)));
+        }
+
+        /**
+         * Submete um chunk redividido por tamanho: as partes ocupam a posição de um único
+         * chunk, são transcritas em sequência e os textos são unidos
+         */
+        public void submitParts(List<AudioChunk> parts) {
+            lock.lock();
+            try {
+                int index = results.size();
+
+                if (failed) {
+                    results.add(CompletableFuture.failedFuture(
+                            new TranscriptionException("Job " + jobId + " já falhou; chunk " + index + " ignorado")));
+                    return;
+                }
+
+                CompletableFuture<String> result = new CompletableFuture<>();
+                results.add(result);
+                pending = pending.thenRunAsync(() -> dispatch(index, parts, result), submitExecutor);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Aguarda todos os chunks submetidos e retorna os textos na ordem dos chunks
+         */
+        public List<String> awaitResults() {
+            List<CompletableFuture<String>> submitted;
+            lock.lock();
+            try {
+                submitted = new ArrayList<>(results);
+            } finally {
+                lock.unlock();
+            }
+
+            List<String> texts = new ArrayList<>(submitted.size());
+            try {
+                for (CompletableFuture<String> result : submitted) {
+                    texts.add(result.join());
+                }
+            } catch (CompletionException e) {
+                failed = true;
+                Throwable cause = failure.get() != null ? failure.get() : e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new TranscriptionException(cause.getMessage(), cause);
+            }
+            return texts;
+        }
+
+        /**
+         * Interrompe o job: chunks ainda não iniciados deixam de ser enviados
+         */
+        public void cancel() {
+            failed = true;
+        }
+
+        /**
+         * Espera as vagas do job e da aplicação e envia o chunk (na fila do job, fora de quem submeteu)
+         *
+         * Nunca lança: a falha vai para o resultado do chunk, e a fila segue para o próximo.
+         */
+        private void dispatch(int index, List<AudioChunk> parts, CompletableFuture<String> result) {
+            try {
+                acquire(jobPermits);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            try {
+                acquire(globalPermits);
+            } catch (RuntimeException e) {
+                jobPermits.release();
+                result.completeExceptionally(e);
+                return;
+            }
+
+            try {
+                if (failed) {
+                    throw new TranscriptionException("Job " + jobId + " já falhou; chunk " + index + " ignorado");
+                }
+                CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return transcribeParts(index, parts);
+                    } finally {
+                        globalPermits.release();
+                        jobPermits.release();
+                    }
+                }, chunkExecutor).whenComplete((text, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(text);
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Chunk não enviado (job já falhou ou executor recusou): devolve as vagas
+                globalPermits.release();
+                jobPermits.release();
+                result.completeExceptionally(e);
+            }
+        }
+
+        private String transcribeParts(int index, List<AudioChunk> parts) {
+            StringJoiner text = new StringJoiner(" ");
+            for (AudioChunk part : parts) {
+                text.add(transcribeWithRetry(index, part.getPath(), part.getDurationSeconds()));
+            }
+
+            notifyDone(index, text.toString());
+            return text.toString();
+        }
+
+        /**
+         * Transcreve o chunk com backoff exponencial com jitter
+         *
+         * Respostas 429 (limite de taxa) não consomem as tentativas normais:
+         * têm um limite próprio e maior, para que um pico de 429 não falhe o job.
+         */
+        private String transcribeWithRetry(int index, Path chunk, double audioSeconds) {
+            int attempt = 1;
+            int throttledAttempts = 0;
+
+            while (true) {
+                if (failed) {
+                    throw new TranscriptionException("Job " + jobId + " já falhou; chunk " + index + " cancelado");
+                }
+
+                try {
+                    log.info("Transcrevendo chunk {} do job {} (tentativa {}/{})",
+                            index + 1, jobId, attempt, maxAttempts);
+                    return whisperClient.transcribe(chunk.toString(), language, audioSeconds);
+
+                } catch (DependencyUnavailableException e) {
+                    // Circuito aberto: o chunk nem foi enviado; o job inteiro volta para a fila
+                    failed = true;
+                    failure.compareAndSet(null, e);
+                    throw e;
+
+                } catch (RuntimeException e) {
+                    notifyFailed(index, e);
+
+                    boolean throttled = e instanceof WhisperApiException whisperError && whisperError.isThrottled();
+                    int retry = throttled ? ++throttledAttempts : attempt;
+                    boolean exhausted = throttled ? throttledAttempts >= maxThrottledAttempts : attempt >= maxAttempts;
+
+                    if (exhausted || !isRetriable(e)) {
+                        failed = true;
+                        log.error("Chunk {} do job {} falhou (tentativa {}/{}, {} resposta(s) 429)",
+                                index + 1, jobId, attempt, maxAttempts, throttledAttempts);
+
+                        RuntimeException cause = isDependencyFailure(e)
+                                ? new DependencyUnavailableException("API Whisper indisponível no chunk " + (index + 1)
+                                        + ": " + e.getMessage(), deferMillis(e), e)
+                                : e;
+                        failure.compareAndSet(null, cause);
+                        throw cause;
+                    }
+
+                    long delay = backoffMillis(e, retry);
+                    log.warn("Chunk {} do job {} falhou (tentativa {}/{}): {}; nova tentativa em {} ms",
+                            index + 1, jobId, attempt, maxAttempts, e.getMessage(), delay);
+
+                    if (!throttled) {
+                        attempt++;
+                    }
+                    sleep(delay);
+                }
+            }
+        }
+
+        private void notifyDone(int index, String text) {
+            if (listener == null) {
+                return;
+            }
+            try {
+                listener.onChunkDone(index, text);
+            } catch (RuntimeException e) {
+                // O checkpoint é uma otimização: não falha o chunk por causa dele
+                log.warn("Não foi possível registrar o chunk {} do job {}: {}", index + 1, jobId, e.getMessage());
+            }
+        }
+
+        private void notifyFailed(int index, RuntimeException error) {
+            if (listener == null) {
+                return;
+            }
+            try {
+                listener.onChunkFailed(index, error);
+            } catch (RuntimeException e) {
+                log.warn("Não foi possível registrar a falha do chunk {} do job {}: {}", index + 1, jobId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Backoff exponencial com "equal jitter": entre metade e o total de base * 2^(n-1),
+     * limitado a retry-backoff-max-ms, e nunca menor que o Retry-After pedido pela API
+     */
+    private long backoffMillis(RuntimeException e, int retry) {
+        long exponential = retryBackoffMs << Math.min(retry - 1, 20);
+        long capped = Math.min(retryBackoffMaxMs, Math.max(0, exponential));
+        long half = capped / 2;
+        long delay = half + ThreadLocalRandom.current().nextLong(capped - half + 1);
+
+        if (e instanceof WhisperApiException whisperError && whisperError.getRetryAfterMillis() > 0) {
+            delay = Math.max(delay, whisperError.getRetryAfterMillis());
+        }
+        return delay;
+    }
+
+    private boolean isRetriable(RuntimeException e) {
+        if (e instanceof WhisperApiException whisperError) {
+            int status = whisperError.getStatusCode();
+            // Erros do cliente não mudam com nova tentativa, exceto timeout e limite de taxa
+            return status < 400 || status >= 500 || status == 408 || status == 429;
+        }
+        return true;
+    }
+
+    /**
+     * Falha da API e não do chunk: resposta 5xx, 408 ou 429, timeout ou erro de conexão
+     * (erros ao ler o arquivo do chunk não contam)
+     */
+    private boolean isDependencyFailure(RuntimeException e) {
+        if (!(e instanceof WhisperApiException whisperError)) {
+            return false;
+        }
+        Throwable cause = whisperError.getCause();
+        if (cause != null) {
+            return cause instanceof IOException
+                    && !(cause instanceof FileSystemException || cause instanceof FileNotFoundException);
+        }
+        int status = whisperError.getStatusCode();
+        return status >= 500 || status == 408 || status == 429;
+    }
+
+    // O job volta para a fila depois da maior espera do backoff (ou do Retry-After, se maior)
+    private long deferMillis(RuntimeException e) {
+        long retryAfter = e instanceof WhisperApiException whisperError ? whisperError.getRetryAfterMillis() : -1;
+        return Math.max(retryBackoffMaxMs, retryAfter);
+    }
+
+    private void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Processamento interrompido", e);
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TranscriptionException("Processamento interrompido", e);
+        }
+    }
+}
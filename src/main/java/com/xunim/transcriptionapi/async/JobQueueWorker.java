@@ -0,0 +1,161 @@
+package com.xunim.transcriptionapi.async;
+
+import com.xunim.transcriptionapi.ai.WhisperCircuitBreaker;
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.service.JobDeduplicationService;
+import com.xunim.transcriptionapi.service.JobQueueService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consome a fila persistente de jobs
+ *
+ * A cada intervalo retira do banco no máximo a quantidade de jobs que cabe
+ * nas threads livres deste nó. Vários nós podem rodar o worker ao mesmo tempo;
+ * o SKIP LOCKED garante que cada job é entregue a apenas um deles.
+ * Com transcription.queue.workers=0 o nó apenas recebe uploads.
+ *
+ * Enquanto processa, o nó renova o lease dos seus jobs (heartbeat); o reaper,
+ * que roda em todos os nós, devolve à fila os jobs de nós que pararam de renovar,
+ * e a varredura de duplicados libera os que ficaram aguardando um original já encerrado.
+ * Com o circuit breaker do Whisper aberto o nó para de retirar jobs da fila.
+ */
+@Component
+@Slf4j
+public class JobQueueWorker {
+
+    private final JobQueueService queueService;
+    private final JobDeduplicationService deduplicationService;
+    private final TranscriptionAsyncProcessor processor;
+    private final WhisperCircuitBreaker circuitBreaker;
+    private final Executor executor;
+    private final int workers;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    // Jobs em processamento neste nó, cujos leases devem ser renovados
+    private final Set<Long> runningJobs = ConcurrentHashMap.newKeySet();
+
+    public JobQueueWorker(JobQueueService queueService,
+                          JobDeduplicationService deduplicationService,
+                          TranscriptionAsyncProcessor processor,
+                          WhisperCircuitBreaker circuitBreaker,
+                          @Qualifier("taskExecutor") Executor executor,
+                          @Value("${transcription.queue.workers:2}") int workers) {
+        this.queueService = queueService;
+        this.deduplicationService = deduplicationService;
+        this.processor = processor;
+        this.circuitBreaker = circuitBreaker;
+        this.executor = executor;
+        this.workers = workers;
+    }
+
+    @Scheduled(fixedDelayString = "${transcription.queue.poll-interval-ms:2000}")
+    public void poll() {
+        int free = workers - active.get();
+        if (free <= 0) {
+            return;
+        }
+
+        // Jobs retirados agora só seriam devolvidos à fila
+        if (circuitBreaker.isOpen()) {
+            log.debug("Circuit breaker do Whisper aberto; fila pausada por {} ms", circuitBreaker.remainingOpenMillis());
+            return;
+        }
+
+        List<TranscriptionJob> jobs;
+        try {
+            jobs = queueService.claim(free);
+        } catch (Exception e) {
+            log.error("Erro ao consultar a fila de jobs", e);
+            return;
+        }
+
+        for (TranscriptionJob job : jobs) {
+            dispatch(job.getId());
+        }
+    }
+
+    /**
+     * Renova o lease dos jobs deste nó (deve ser bem menor que transcription.queue.lease-seconds)
+     */
+    @Scheduled(fixedDelayString = "${transcription.queue.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        if (runningJobs.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = List.copyOf(runningJobs);
+        try {
+            int renewed = queueService.renewLeases(ids);
+            if (renewed < ids.size()) {
+                log.warn("{} de {} leases não foram renovados; outro nó pode ter retomado esses jobs",
+                        ids.size() - renewed, ids.size());
+            }
+        } catch (Exception e) {
+            log.error("Erro ao renovar leases dos jobs {}", ids, e);
+        }
+    }
+
+    /**
+     * Devolve à fila os jobs de nós que pararam de renovar o lease
+     */
+    @Scheduled(fixedDelayString = "${transcription.queue.reaper-interval-ms:60000}")
+    public void reapExpiredLeases() {
+        try {
+            int recovered = queueService.reapExpiredLeases();
+            if (recovered > 0) {
+                log.info("{} job(s) com lease vencido recuperados", recovered);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao recuperar jobs com lease vencido", e);
+        }
+    }
+
+    /**
+     * Libera duplicados cujo original terminou sem propagar o resultado ou foi removido
+     */
+    @Scheduled(fixedDelayString = "${transcription.queue.follower-sweep-interval-ms:60000}")
+    public void releaseStrandedFollowers() {
+        try {
+            int released = deduplicationService.releaseStrandedFollowers();
+            if (released > 0) {
+                log.info("{} job(s) duplicado(s) liberados de um original já encerrado", released);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao liberar jobs duplicados parados", e);
+        }
+    }
+
+    private void dispatch(Long jobId) {
+        active.incrementAndGet();
+        runningJobs.add(jobId);
+        try {
+            executor.execute(() -> {
+                try {
+                    processor.process(jobId);
+                } catch (Exception e) {
+                    log.error("Falha inesperada ao processar job {}", jobId, e);
+                } finally {
+                    runningJobs.remove(jobId);
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            runningJobs.remove(jobId);
+            active.decrementAndGet();
+            // Sem heartbeat o lease vence e o reaper devolve o job para a fila
+            log.error("Executor recusou o job {}; ele voltará para a fila", jobId, e);
+        }
+    }
+}
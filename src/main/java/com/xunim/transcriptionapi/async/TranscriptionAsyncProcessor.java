@@ -1,95 +1,299 @@
 package com.xunim.transcriptionapi.async;
 
-import com.xunim.transcriptionapi.ai.WhisperClient;
+import com.xunim.transcriptionapi.exception.AudioProcessingException;
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import com.xunim.transcriptionapi.model.TranscriptionChunk;
 import com.xunim.transcriptionapi.model.TranscriptionJob;
 import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import com.xunim.transcriptionapi.service.AudioChunk;
 import com.xunim.transcriptionapi.service.AudioSplitService;
+import com.xunim.transcriptionapi.service.ChunkCheckpointService;
 import com.xunim.transcriptionapi.service.FileCleanupService;
+import com.xunim.transcriptionapi.service.JobQueueService;
+import com.xunim.transcriptionapi.service.SplitPlan;
+import com.xunim.transcriptionapi.service.SplitPlanner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Processa um job já retirado da fila pelo JobQueueWorker
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class TranscriptionAsyncProcessor {
 
+    // Diferença máxima no início de um chunk para reaproveitar o checkpoint após nova divisão
+    private static final double BOUNDARY_TOLERANCE_SECONDS = 0.5;
+
+    // Espera mínima antes de retomar um job adiado por dependência indisponível
+    private static final long MIN_DEFER_MILLIS = 5000;
+
     private final TranscriptionJobRepository repository;
-    private final WhisperClient whisperClient;
+    private final ChunkTranscriptionDispatcher chunkDispatcher;
     private final AudioSplitService audioSplitService;
     private final FileCleanupService fileCleanupService;
+    private final JobQueueService queueService;
+    private final ChunkCheckpointService checkpointService;
+    private final SplitPlanner splitPlanner;
 
-    @Async
-    public void process(Long jobId, Integer maxSegmentSeconds) {
+    public void process(Long jobId) {
 
         TranscriptionJob job = repository.findById(jobId)
                 .orElseThrow(() -> new RuntimeException("Job não encontrado: " + jobId));
 
+        ChunkTranscriptionDispatcher.JobTranscription transcription =
+                chunkDispatcher.open(jobId, job.getLanguage(), checkpointListener(jobId));
+        String text = null;
+
         try {
-            log.info("Iniciando processamento do job {}", jobId);
+            log.info("Iniciando processamento do job {} (tentativa {})", jobId, job.getAttempts());
 
-            job.markAsProcessing();
-            repository.save(job);
+            List<TranscriptionChunk> checkpoints = checkpointService.findByJob(jobId);
 
-            int segmentSeconds = maxSegmentSeconds != null ? maxSegmentSeconds : 600;
-            List<Path> chunks = audioSplitService.splitAudio(job.getFilePath(), segmentSeconds);
+            if (checkpointService.canSkipSplit(job, checkpoints)) {
+                resumeFromCheckpoints(job, checkpoints, transcription);
+            } else {
+                splitAndSubmit(job, checkpoints, transcription);
+            }
 
             StringBuilder finalText = new StringBuilder();
-
-            for (int i = 0; i < chunks.size(); i++) {
-                Path chunk = chunks.get(i);
-                log.info("Transcrevendo chunk {}/{} do job {}", i + 1, chunks.size(), jobId);
-
-                String partial = whisperClient.transcribe(chunk.toString(), job.getLanguage());
-                finalText.append(partial).append("\n");
+            for (String partial : transcription.awaitResults()) {
+                // Segmentos silenciosos descartados não geram linha vazia
+                if (!partial.isBlank()) {
+                    finalText.append(partial).append("\n");
+                }
             }
 
-            job.markAsCompleted(finalText.toString());
+            text = finalText.toString();
+            job.markAsCompleted();
             log.info("Job {} concluído com sucesso", jobId);
 
-            // IMPORTANTE: Limpa os chunks após conclusão bem-sucedida
-            cleanupChunksAfterCompletion(job);
+        } catch (DependencyUnavailableException e) {
+            transcription.cancel();
+            long delayMillis = Math.max(MIN_DEFER_MILLIS, e.getRetryAfterMillis());
+            job.markAsDeferred(LocalDateTime.now().plus(delayMillis, ChronoUnit.MILLIS));
+
+            // Não conta como falha: o job volta para a fila e retoma dos checkpoints
+            log.warn("Job {} devolvido à fila por {} ms: {}", jobId, delayMillis, e.getMessage());
 
         } catch (Exception e) {
             log.error("Erro ao processar job {}", jobId, e);
+            transcription.cancel();
             job.markAsError(e.getMessage());
 
-            // Limpa chunks mesmo em caso de erro
-            cleanupChunksAfterError(job);
+            // Chunks e checkpoints são mantidos: o reprocessamento retoma só o que falhou
 
         } finally {
-            repository.save(job);
+            finish(job, text);
         }
     }
 
     /**
-     * Limpa chunks após conclusão bem-sucedida
-     * Mantém apenas o arquivo original e a transcrição no banco
+     * Divide o áudio enviando cada chunk para transcrição assim que o FFmpeg o finaliza
+     *
+     * Chunks já transcritos em uma execução anterior (mesmo índice e início) não
+     * são enviados de novo ao Whisper.
      */
-    private void cleanupChunksAfterCompletion(TranscriptionJob job) {
+    private void splitAndSubmit(TranscriptionJob job, List<TranscriptionChunk> checkpoints,
+                                ChunkTranscriptionDispatcher.JobTranscription transcription) {
+
+        Map<Integer, TranscriptionChunk> previous = new HashMap<>();
+        for (TranscriptionChunk checkpoint : checkpoints) {
+            previous.put(checkpoint.getChunkIndex(), checkpoint);
+        }
+
+        int maxSegmentSeconds = job.getMaxSegmentSeconds() != null ? job.getMaxSegmentSeconds() : 600;
+        int segmentSeconds = splitPlanner.segmentSeconds(job.getFilePath(), maxSegmentSeconds);
+        SplitPlan plan = planSplit(job, segmentSeconds);
+        AtomicInteger silentChunks = new AtomicInteger();
+
+        Consumer<AudioChunk> handleChunk = chunk -> {
+            TranscriptionChunk done = previous.get(chunk.getIndex());
+
+            if (done != null && done.isDone() && sameBoundary(done, chunk)) {
+                transcription.completed(done.getTranscriptionText());
+                return;
+            }
+
+            checkpointService.register(job.getId(), chunk);
+
+            // Sem fala: não vale a chamada (nem o custo) do Whisper
+            if (plan != null && plan.isSilent(chunk)) {
+                checkpointService.markDone(job.getId(), chunk.getIndex(), "");
+                transcription.completed("");
+                silentChunks.incrementAndGet();
+                return;
+            }
+
+            submitChunk(transcription, chunk.getPath(), chunk.getDurationSeconds());
+        };
+
+        // Redividir um chunk grande abre outro FFmpeg, o que não pode ser feito no callback
+        // (thread que lê a divisão do job, com a vaga do bulkhead ocupada): a partir do
+        // primeiro chunk grande, os chunks esperam o fim da divisão, na mesma ordem
+        List<AudioChunk> afterSplit = new ArrayList<>();
+        Consumer<AudioChunk> onChunk = chunk -> {
+            if (afterSplit.isEmpty() && !isOversized(chunk.getPath(), chunk.getDurationSeconds())) {
+                handleChunk.accept(chunk);
+            } else {
+                afterSplit.add(chunk);
+            }
+        };
+
+        List<AudioChunk> chunks = plan != null
+                ? audioSplitService.splitAudioAt(job.getFilePath(), plan.getBoundaries(), onChunk)
+                : audioSplitService.splitAudio(job.getFilePath(), segmentSeconds, onChunk);
+
+        afterSplit.forEach(handleChunk);
+
+        if (silentChunks.get() > 0) {
+            log.info("Job {}: {} chunk(s) sem fala descartados", job.getId(), silentChunks.get());
+        }
+
+        checkpointService.markSplitComplete(job.getId(), chunks.size());
+        job.setChunkCount(chunks.size());
+        job.setChunkBytes(totalBytes(chunks));
+
+        log.info("Divisão do job {} concluída em {} chunks ({} de {} bytes); aguardando transcrições",
+                job.getId(), chunks.size(), job.getChunkBytes(), job.getFileSizeBytes());
+    }
+
+    /**
+     * Planeja cortes em silêncios, se habilitado; sem plano o corte é a cada segmentSeconds
+     */
+    private SplitPlan planSplit(TranscriptionJob job, int segmentSeconds) {
+        if (!splitPlanner.isEnabled()) {
+            return null;
+        }
         try {
-            log.info("Limpando chunks do job {} após conclusão", job.getId());
-            fileCleanupService.deleteChunksDirectory(job.getFilePath());
-        } catch (Exception e) {
-            log.error("Erro ao limpar chunks do job {}", job.getId(), e);
-            // Não falha o job se a limpeza falhar
+            return splitPlanner.plan(job.getFilePath(), segmentSeconds);
+        } catch (AudioProcessingException e) {
+            log.warn("Análise de silêncio do job {} falhou; usando cortes fixos: {}", job.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reaproveita os chunks da execução anterior sem rodar o FFmpeg
+     */
+    private void resumeFromCheckpoints(TranscriptionJob job, List<TranscriptionChunk> checkpoints,
+                                       ChunkTranscriptionDispatcher.JobTranscription transcription) {
+
+        long pending = checkpoints.stream().filter(chunk -> !chunk.isDone()).count();
+        log.info("Job {} retomado dos checkpoints: {} de {} chunks a transcrever",
+                job.getId(), pending, checkpoints.size());
+
+        for (TranscriptionChunk checkpoint : checkpoints) {
+            if (checkpoint.isDone()) {
+                transcription.completed(checkpoint.getTranscriptionText());
+            } else {
+                double duration = checkpoint.getDurationSeconds() != null ? checkpoint.getDurationSeconds() : 0;
+                submitChunk(transcription, Path.of(checkpoint.getFilePath()), duration);
+            }
+        }
+    }
+
+    /**
+     * Envia o chunk para transcrição, redividindo-o se passou do limite de bytes do Whisper
+     * (ex.: trecho de VBR mais denso que a taxa média usada no planejamento)
+     *
+     * Não pode ser chamado com a vaga do bulkhead do FFmpeg ocupada: splitOversized ocupa uma.
+     */
+    private void submitChunk(ChunkTranscriptionDispatcher.JobTranscription transcription, Path chunk, double duration) {
+        if (!isOversized(chunk, duration)) {
+            transcription.submit(chunk, duration);
+            return;
+        }
+
+        transcription.submitParts(audioSplitService.splitOversized(chunk, duration, splitPlanner.getMaxChunkBytes()));
+    }
+
+    private boolean isOversized(Path chunk, double duration) {
+        long maxBytes = splitPlanner.getMaxChunkBytes();
+        long size;
+        try {
+            size = Files.size(chunk);
+        } catch (IOException e) {
+            size = 0;
+        }
+        return maxBytes > 0 && size > maxBytes && duration > 0;
+    }
+
+    private ChunkTranscriptionDispatcher.ChunkListener checkpointListener(Long jobId) {
+        return new ChunkTranscriptionDispatcher.ChunkListener() {
+            @Override
+            public void onChunkDone(int index, String text) {
+                checkpointService.markDone(jobId, index, text);
+            }
+
+            @Override
+            public void onChunkFailed(int index, RuntimeException error) {
+                checkpointService.markFailed(jobId, index, error.getMessage());
+            }
+        };
+    }
+
+    private long totalBytes(List<AudioChunk> chunks) {
+        long total = 0;
+        for (AudioChunk chunk : chunks) {
+            try {
+                total += Files.size(chunk.getPath());
+            } catch (IOException e) {
+                log.debug("Tamanho do chunk {} indisponível: {}", chunk.getPath(), e.getMessage());
+            }
+        }
+        return total;
+    }
+
+    private boolean sameBoundary(TranscriptionChunk checkpoint, AudioChunk chunk) {
+        return checkpoint.getOffsetSeconds() != null
+                && Math.abs(checkpoint.getOffsetSeconds() - chunk.getStartSeconds()) < BOUNDARY_TOLERANCE_SECONDS;
+    }
+
+    /**
+     * Grava o resultado, desde que este nó ainda seja o dono do job
+     *
+     * Se o lease venceu (ex.: pausa longa de GC ou perda de conexão com o banco),
+     * outro nó pode ter retomado o job e o resultado deste nó é descartado.
+     */
+    private void finish(TranscriptionJob job, String text) {
+        if (!queueService.finish(job, text)) {
+            log.warn("Job {} não pertence mais a este nó; resultado descartado", job.getId());
+            return;
+        }
+
+        // IMPORTANTE: Limpa os chunks após conclusão bem-sucedida
+        if (job.isCompleted()) {
+            cleanupChunksAfterCompletion(job);
         }
     }
 
     /**
-     * Limpa chunks após erro
-     * Mantém o arquivo original para possível reprocessamento
+     * Limpa chunks após conclusão bem-sucedida
+     * Mantém apenas o arquivo original e a transcrição no banco (sem checkpoints)
      */
-    private void cleanupChunksAfterError(TranscriptionJob job) {
+    private void cleanupChunksAfterCompletion(TranscriptionJob job) {
         try {
-            log.info("Limpando chunks do job {} após erro", job.getId());
+            log.info("Limpando chunks do job {} após conclusão", job.getId());
             fileCleanupService.deleteChunksDirectory(job.getFilePath());
+            checkpointService.deleteByJob(job.getId());
         } catch (Exception e) {
-            log.error("Erro ao limpar chunks do job {} após falha", job.getId(), e);
+            log.error("Erro ao limpar chunks do job {}", job.getId(), e);
+            // Não falha o job se a limpeza falhar
         }
     }
-}
\ No newline at end of file
+}
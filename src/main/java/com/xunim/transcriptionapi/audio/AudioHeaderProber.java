@@ -0,0 +1,416 @@
+package com.xunim.transcriptionapi.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Lê duração, taxa de bits e canais direto dos cabeçalhos, sem abrir processo do FFmpeg
+ *
+ * Formatos: WAV (RIFF), FLAC (STREAMINFO), MP3 (cabeçalho de frame, Xing/Info e VBRI),
+ * Ogg (Vorbis/Opus: primeira e última página) e MP4/M4A (átomo mvhd).
+ * Só são lidos alguns KB do início e do fim do arquivo (e os cabeçalhos dos blocos
+ * de primeiro nível), então o custo não depende do tamanho do áudio.
+ */
+@Component
+@Slf4j
+public class AudioHeaderProber {
+
+    private static final int HEAD_BYTES = 16 * 1024;
+    private static final int TAIL_BYTES = 16 * 1024;
+    // Conteúdo do moov lido procurando mvhd e a entrada mp4a
+    private static final int MAX_MOOV_BYTES = 256 * 1024;
+    // Limite de blocos percorridos em RIFF e MP4 (arquivos corrompidos não entram em laço)
+    private static final int MAX_BOXES = 64;
+
+    private static final int[][] MP3_BITRATES_V1 = {
+            {0, 32, 64, 96, 128, 160, 192, 224, 256, 288, 320, 352, 384, 416, 448},   // Layer I
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 384},      // Layer II
+            {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320}        // Layer III
+    };
+    private static final int[][] MP3_BITRATES_V2 = {
+            {0, 32, 48, 56, 64, 80, 96, 112, 128, 144, 160, 176, 192, 224, 256},      // Layer I
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160},           // Layer II
+            {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160}            // Layer III
+    };
+    private static final int[][] MP3_SAMPLE_RATES = {
+            {11025, 12000, 8000},   // MPEG 2.5
+            {0, 0, 0},              // reservado
+            {22050, 24000, 16000},  // MPEG 2
+            {44100, 48000, 32000}   // MPEG 1
+    };
+
+    // Opus sempre conta a posição (granule) em amostras de 48 kHz
+    private static final int OPUS_GRANULE_RATE = 48_000;
+
+    /**
+     * @return vazio se o formato não for reconhecido ou o cabeçalho estiver incompleto
+     */
+    public Optional<AudioProbe> probe(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 12) {
+                return Optional.empty();
+            }
+
+            // Tag ID3v2 (capas, letras) antes do áudio em MP3 e às vezes em FLAC
+            long start = id3v2Length(channel);
+            ByteBuffer head = read(channel, start, HEAD_BYTES);
+
+            AudioProbe probe;
+            if (matches(head, 0, "RIFF") && matches(head, 8, "WAVE")) {
+                probe = probeWav(channel, size);
+            } else if (matches(head, 0, "fLaC")) {
+                probe = probeFlac(head, size);
+            } else if (matches(head, 0, "OggS")) {
+                probe = probeOgg(channel, head, size);
+            } else if (matches(head, 4, "ftyp")) {
+                probe = probeMp4(channel, size);
+            } else {
+                probe = probeMp3(channel, head, start, size);
+            }
+
+            return Optional.ofNullable(probe).filter(result -> result.getDurationSeconds() > 0);
+
+        } catch (IOException | RuntimeException e) {
+            log.debug("Cabeçalho de {} não reconhecido: {}", file.getFileName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private AudioProbe probeWav(FileChannel channel, long size) throws IOException {
+        long position = 12;
+        int channels = 0;
+        int sampleRate = 0;
+        long byteRate = 0;
+
+        for (int i = 0; i < MAX_BOXES && position + 8 <= size; i++) {
+            ByteBuffer header = read(channel, position, 8);
+            String id = ascii(header, 0, 4);
+            long length = u32le(header, 4);
+
+            if ("fmt ".equals(id)) {
+                ByteBuffer format = read(channel, position + 8, 16);
+                channels = u16le(format, 2);
+                sampleRate = (int) u32le(format, 4);
+                byteRate = u32le(format, 8);
+            } else if ("data".equals(id)) {
+                if (byteRate == 0) {
+                    return null;
+                }
+                // Gravações em streaming deixam o tamanho em 0 ou 0xFFFFFFFF
+                long dataBytes = length == 0 || length == 0xFFFFFFFFL || position + 8 + length > size
+                        ? size - position - 8
+                        : length;
+                return new AudioProbe("wav", (double) dataBytes / byteRate, byteRate * 8, channels, sampleRate);
+            }
+
+            // Blocos RIFF têm tamanho par
+            position += 8 + length + (length & 1);
+        }
+        return null;
+    }
+
+    private AudioProbe probeFlac(ByteBuffer head, long size) {
+        // O primeiro bloco de metadados é sempre o STREAMINFO
+        if ((u8(head, 4) & 0x7F) != 0) {
+            return null;
+        }
+
+        int info = 8;
+        int sampleRate = (u8(head, info + 10) << 12) | (u8(head, info + 11) << 4) | (u8(head, info + 12) >> 4);
+        int channels = ((u8(head, info + 12) >> 1) & 0x07) + 1;
+        long totalSamples = ((long) (u8(head, info + 13) & 0x0F) << 32) | u32be(head, info + 14);
+
+        if (sampleRate == 0 || totalSamples == 0) {
+            return null;
+        }
+        double duration = (double) totalSamples / sampleRate;
+        return new AudioProbe("flac", duration, averageBitRate(size, duration), channels, sampleRate);
+    }
+
+    private AudioProbe probeMp3(FileChannel channel, ByteBuffer head, long start, long size) throws IOException {
+        int offset = findMp3Frame(head);
+        if (offset < 0) {
+            return null;
+        }
+
+        int header = head.getInt(offset);
+        int version = (header >> 19) & 0x03;
+        int layer = 4 - ((header >> 17) & 0x03);
+        int bitRateKbps = mp3BitRate(version, layer, (header >> 12) & 0x0F);
+        int sampleRate = MP3_SAMPLE_RATES[version][(header >> 10) & 0x03];
+        boolean mono = ((header >> 6) & 0x03) == 3;
+        boolean mpeg1 = version == 3;
+
+        int samplesPerFrame = layer == 1 ? 384 : (layer == 3 && !mpeg1 ? 576 : 1152);
+
+        long audioBytes = size - start - offset;
+        if (size >= 128 && matches(read(channel, size - 128, 3), 0, "TAG")) {
+            audioBytes -= 128;
+        }
+
+        // Arquivos VBR trazem o total de frames no frame Xing/Info ou VBRI
+        long frames = 0;
+        long streamBytes = 0;
+
+        int xing = offset + 4 + (mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17));
+        int vbri = offset + 4 + 32;
+        if (matches(head, xing, "Xing") || matches(head, xing, "Info")) {
+            long flags = u32be(head, xing + 4);
+            int field = xing + 8;
+            if ((flags & 0x01) != 0) {
+                frames = u32be(head, field);
+                field += 4;
+            }
+            if ((flags & 0x02) != 0) {
+                streamBytes = u32be(head, field);
+            }
+        } else if (matches(head, vbri, "VBRI")) {
+            streamBytes = u32be(head, vbri + 10);
+            frames = u32be(head, vbri + 14);
+        }
+
+        int channels = mono ? 1 : 2;
+        if (frames > 0) {
+            double duration = (double) frames * samplesPerFrame / sampleRate;
+            long bytes = streamBytes > 0 ? streamBytes : audioBytes;
+            return new AudioProbe("mp3", duration, averageBitRate(bytes, duration), channels, sampleRate);
+        }
+
+        // CBR: duração pela taxa do primeiro frame
+        double duration = audioBytes * 8.0 / (bitRateKbps * 1000.0);
+        return new AudioProbe("mp3", duration, bitRateKbps * 1000L, channels, sampleRate);
+    }
+
+    /**
+     * Primeiro frame MPEG válido seguido de outro frame válido (evita falsos positivos em dados binários)
+     */
+    private int findMp3Frame(ByteBuffer head) {
+        for (int i = 0; i + 4 <= head.limit(); i++) {
+            int length = mp3FrameLength(head, i);
+            if (length <= 0) {
+                continue;
+            }
+            int next = i + length;
+            if (next + 4 > head.limit() || mp3FrameLength(head, next) > 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int mp3FrameLength(ByteBuffer buffer, int offset) {
+        if (offset + 4 > buffer.limit() || u8(buffer, offset) != 0xFF || (u8(buffer, offset + 1) & 0xE0) != 0xE0) {
+            return -1;
+        }
+
+        int header = buffer.getInt(offset);
+        int version = (header >> 19) & 0x03;
+        int layerBits = (header >> 17) & 0x03;
+        int bitRateIndex = (header >> 12) & 0x0F;
+        int sampleRateIndex = (header >> 10) & 0x03;
+        if (version == 1 || layerBits == 0 || bitRateIndex == 0 || bitRateIndex == 15 || sampleRateIndex == 3) {
+            return -1;
+        }
+
+        int layer = 4 - layerBits;
+        int bitRate = mp3BitRate(version, layer, bitRateIndex) * 1000;
+        int sampleRate = MP3_SAMPLE_RATES[version][sampleRateIndex];
+        int padding = (header >> 9) & 0x01;
+
+        if (layer == 1) {
+            return (12 * bitRate / sampleRate + padding) * 4;
+        }
+        int coefficient = layer == 3 && version != 3 ? 72 : 144;
+        return coefficient * bitRate / sampleRate + padding;
+    }
+
+    private int mp3BitRate(int version, int layer, int index) {
+        return (version == 3 ? MP3_BITRATES_V1 : MP3_BITRATES_V2)[layer - 1][index];
+    }
+
+    private AudioProbe probeOgg(FileChannel channel, ByteBuffer head, long size) throws IOException {
+        long serial = u32le(head, 14);
+        int packet = 27 + u8(head, 26);
+
+        int channels;
+        int sampleRate;
+        int granuleRate;
+        long preSkip = 0;
+
+        if (matches(head, packet, "OpusHead")) {
+            channels = u8(head, packet + 9);
+            preSkip = u16le(head, packet + 10);
+            sampleRate = (int) u32le(head, packet + 12);
+            granuleRate = OPUS_GRANULE_RATE;
+        } else if (u8(head, packet) == 0x01 && matches(head, packet + 1, "vorbis")) {
+            channels = u8(head, packet + 11);
+            sampleRate = (int) u32le(head, packet + 12);
+            granuleRate = sampleRate;
+        } else {
+            return null;
+        }
+
+        // A posição da última página com pacote completo é o total de amostras do fluxo
+        long tailStart = Math.max(0, size - TAIL_BYTES);
+        ByteBuffer tail = read(channel, tailStart, TAIL_BYTES);
+        for (int i = tail.limit() - 27; i >= 0; i--) {
+            if (!matches(tail, i, "OggS") || u32le(tail, i + 14) != serial) {
+                continue;
+            }
+            long granule = tail.order(java.nio.ByteOrder.LITTLE_ENDIAN).getLong(i + 6);
+            tail.order(java.nio.ByteOrder.BIG_ENDIAN);
+            if (granule <= 0) {
+                continue;
+            }
+
+            double duration = (double) (granule - preSkip) / granuleRate;
+            return new AudioProbe("ogg", duration, averageBitRate(size, duration), channels, sampleRate);
+        }
+        return null;
+    }
+
+    private AudioProbe probeMp4(FileChannel channel, long size) throws IOException {
+        long position = 0;
+
+        for (int i = 0; i < MAX_BOXES && position + 8 <= size; i++) {
+            ByteBuffer header = read(channel, position, 16);
+            long length = u32be(header, 0);
+            String type = ascii(header, 4, 4);
+            int headerLength = 8;
+
+            if (length == 1) {
+                length = header.getLong(8);
+                headerLength = 16;
+            } else if (length == 0) {
+                length = size - position;
+            }
+            if (length < headerLength) {
+                return null;
+            }
+
+            // O moov pode estar no início (faststart) ou depois do mdat
+            if ("moov".equals(type)) {
+                int moovLength = (int) Math.min(length - headerLength, MAX_MOOV_BYTES);
+                return parseMoov(read(channel, position + headerLength, moovLength), size);
+            }
+            position += length;
+        }
+        return null;
+    }
+
+    private AudioProbe parseMoov(ByteBuffer moov, long size) {
+        int mvhd = indexOf(moov, "mvhd");
+        if (mvhd < 0) {
+            return null;
+        }
+
+        int version = u8(moov, mvhd + 4);
+        long timescale;
+        long duration;
+        if (version == 1) {
+            timescale = u32be(moov, mvhd + 24);
+            duration = moov.getLong(mvhd + 28);
+        } else {
+            timescale = u32be(moov, mvhd + 16);
+            duration = u32be(moov, mvhd + 20);
+        }
+        if (timescale == 0) {
+            return null;
+        }
+
+        // Entrada de amostra AAC: canais e taxa de amostragem (16.16)
+        int channels = 0;
+        int sampleRate = 0;
+        int mp4a = indexOf(moov, "mp4a");
+        if (mp4a >= 0 && mp4a + 32 <= moov.limit()) {
+            channels = u16be(moov, mp4a + 20);
+            sampleRate = (int) (u32be(moov, mp4a + 28) >>> 16);
+        }
+
+        double seconds = (double) duration / timescale;
+        return new AudioProbe("mp4", seconds, averageBitRate(size, seconds), channels, sampleRate);
+    }
+
+    private long id3v2Length(FileChannel channel) throws IOException {
+        ByteBuffer header = read(channel, 0, 10);
+        if (!matches(header, 0, "ID3") || header.limit() < 10) {
+            return 0;
+        }
+        // Tamanho "syncsafe": 7 bits por byte
+        long length = ((long) (u8(header, 6) & 0x7F) << 21) | ((u8(header, 7) & 0x7F) << 14)
+                | ((u8(header, 8) & 0x7F) << 7) | (u8(header, 9) & 0x7F);
+        boolean footer = (u8(header, 5) & 0x10) != 0;
+        return 10 + length + (footer ? 10 : 0);
+    }
+
+    private static long averageBitRate(long bytes, double durationSeconds) {
+        return durationSeconds > 0 ? Math.round(bytes * 8 / durationSeconds) : 0;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        long available = Math.max(0, channel.size() - position);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, available));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static boolean matches(ByteBuffer buffer, int offset, String signature) {
+        if (offset < 0 || offset + signature.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (buffer.get(offset + i) != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, String signature) {
+        for (int i = 0; i + signature.length() <= buffer.limit(); i++) {
+            if (matches(buffer, i, signature)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static int u8(ByteBuffer buffer, int offset) {
+        return buffer.get(offset) & 0xFF;
+    }
+
+    private static int u16le(ByteBuffer buffer, int offset) {
+        return u8(buffer, offset) | (u8(buffer, offset + 1) << 8);
+    }
+
+    private static long u32le(ByteBuffer buffer, int offset) {
+        return u16le(buffer, offset) | ((long) u16le(buffer, offset + 2) << 16);
+    }
+
+    private static int u16be(ByteBuffer buffer, int offset) {
+        return (u8(buffer, offset) << 8) | u8(buffer, offset + 1);
+    }
+
+    private static long u32be(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+}
@@ -0,0 +1,24 @@
+package com.xunim.transcriptionapi.audio;
+
+import lombok.Value;
+
+/**
+ * Informações do cabeçalho do arquivo de áudio
+ *
+ * Campos desconhecidos ficam em 0.
+ */
+@Value
+public class AudioProbe {
+
+    // wav, flac, mp3, ogg, mp4 ou ffmpeg (lido pelo processo do FFmpeg)
+    String format;
+
+    double durationSeconds;
+
+    // Taxa de bits média em bits/s
+    long bitRate;
+
+    int channels;
+
+    int sampleRate;
+}
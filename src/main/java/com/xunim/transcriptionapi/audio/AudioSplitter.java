@@ -0,0 +1,40 @@
+package com.xunim.transcriptionapi.audio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * Divisão de áudio feita na JVM, sem processo do FFmpeg
+ *
+ * Só para formatos em que cortar é copiar bytes alinhados (quadros PCM, frames FLAC)
+ * e escrever um cabeçalho novo; os segmentos mantêm o codec do original.
+ */
+public interface AudioSplitter {
+
+    /**
+     * Recebe cada segmento assim que o arquivo dele é fechado
+     */
+    @FunctionalInterface
+    interface SegmentListener {
+        void onSegment(int index, Path path, double startSeconds, double endSeconds);
+    }
+
+    /**
+     * Verifica pelo cabeçalho se o arquivo pode ser dividido por este splitter
+     */
+    boolean supports(Path input);
+
+    /**
+     * Divide o arquivo, gravando os segmentos em outputDir como baseName_NNN.ext
+     *
+     * Os cortes caem no quadro/frame mais próximo do instante pedido, então os
+     * tempos informados ao listener podem diferir ligeiramente dos pedidos.
+     *
+     * @param boundaries recebe a duração do arquivo e devolve os instantes de corte, em ordem crescente
+     * @return número de segmentos gerados
+     */
+    int split(Path input, Path outputDir, String baseName,
+              DoubleFunction<List<Double>> boundaries, SegmentListener listener) throws IOException;
+}
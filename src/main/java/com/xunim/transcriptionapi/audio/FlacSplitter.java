@@ -0,0 +1,330 @@
+package com.xunim.transcriptionapi.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * Divide FLAC em limites de frame, sem decodificar
+ *
+ * Cada corte vai para o primeiro frame que começa no instante pedido ou depois,
+ * localizado por busca binária no arquivo mapeado em memória (o cabeçalho de cada
+ * frame traz o número da primeira amostra e um CRC-8). Cada segmento recebe um
+ * STREAMINFO com o total de amostras do segmento e MD5 zerado ("desconhecido");
+ * os demais metadados (tags, capa) não são copiados.
+ */
+@Component
+@Slf4j
+public class FlacSplitter implements AudioSplitter {
+
+    private static final int STREAMINFO_LENGTH = 34;
+    private static final int MD5_OFFSET = 18;
+
+    // Tabelas do cabeçalho de frame (RFC 9639); -1 = reservado
+    private static final int[] SAMPLE_SIZES = {0, 8, 12, -1, 16, 20, 24, 32};
+    private static final int[] SAMPLE_RATES = {0, 88200, 176400, 192000, 8000, 16000, 22050, 24000, 32000, 44100, 48000, 96000};
+
+    private record Layout(byte[] streamInfo, long audioOffset, int maxBlockSize, int sampleRate,
+                          int channels, int bitsPerSample, long totalSamples, boolean variableBlockSize) {
+    }
+
+    @Override
+    public boolean supports(Path input) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            MappedByteBuffer map = SegmentFiles.map(channel);
+            return map != null && layout(map) != null;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int split(Path input, Path outputDir, String baseName,
+                     DoubleFunction<List<Double>> boundaries, SegmentListener listener) throws IOException {
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            MappedByteBuffer map = SegmentFiles.map(in);
+            Layout layout = map == null ? null : layout(map);
+            if (layout == null) {
+                throw new IOException("FLAC sem STREAMINFO ou total de amostras: " + input.getFileName());
+            }
+
+            double duration = (double) layout.totalSamples() / layout.sampleRate();
+            List<Long> cuts = SegmentFiles.sampleCuts(boundaries.apply(duration), layout.sampleRate(), layout.totalSamples());
+
+            Files.createDirectories(outputDir);
+
+            int index = 0;
+            long startOffset = layout.audioOffset();
+            long startSample = 0;
+            for (long target : cuts) {
+                long endOffset = map.limit();
+                long endSample = layout.totalSamples();
+
+                if (target < layout.totalSamples()) {
+                    int frame = firstFrameAtOrAfter(map, layout, target);
+                    if (frame >= 0) {
+                        endOffset = frame;
+                        endSample = frameSample(map, frame, layout);
+                    }
+                }
+                // Dois cortes dentro do mesmo frame
+                if (endSample <= startSample) {
+                    continue;
+                }
+
+                Path output = SegmentFiles.segmentPath(outputDir, baseName, index, "flac");
+                writeSegment(in, layout, startOffset, endOffset, endSample - startSample, output);
+
+                listener.onSegment(index++, output,
+                        (double) startSample / layout.sampleRate(), (double) endSample / layout.sampleRate());
+
+                startOffset = endOffset;
+                startSample = endSample;
+                if (endSample >= layout.totalSamples()) {
+                    break;
+                }
+            }
+
+            log.debug("FLAC {} dividido em {} segmentos na JVM", input.getFileName(), index);
+            return index;
+        }
+    }
+
+    private void writeSegment(FileChannel in, Layout layout, long startOffset, long endOffset,
+                              long samples, Path output) throws IOException {
+
+        byte[] streamInfo = layout.streamInfo().clone();
+        streamInfo[13] = (byte) ((streamInfo[13] & 0xF0) | ((samples >>> 32) & 0x0F));
+        ByteBuffer.wrap(streamInfo).putInt(14, (int) samples);
+        for (int i = MD5_OFFSET; i < STREAMINFO_LENGTH; i++) {
+            streamInfo[i] = 0;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + STREAMINFO_LENGTH);
+        header.put("fLaC".getBytes(StandardCharsets.US_ASCII))
+                // Último bloco de metadados, tipo 0 (STREAMINFO)
+                .put((byte) 0x80).put((byte) 0).put((byte) 0).put((byte) STREAMINFO_LENGTH)
+                .put(streamInfo)
+                .flip();
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            SegmentFiles.transfer(in, startOffset, endOffset - startOffset, out);
+        }
+    }
+
+    /**
+     * Posição do primeiro frame cuja primeira amostra é >= target, ou -1
+     *
+     * A amostra do próximo frame a partir de uma posição cresce com a posição,
+     * então a busca binária lê só ~log2(tamanho) trechos do tamanho de um frame.
+     */
+    private int firstFrameAtOrAfter(ByteBuffer map, Layout layout, long target) {
+        int low = (int) layout.audioOffset();
+        int high = map.limit();
+        int found = -1;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int frame = nextFrame(map, layout, middle);
+            if (frame < 0) {
+                high = middle;
+            } else if (frameSample(map, frame, layout) >= target) {
+                found = frame;
+                high = middle;
+            } else {
+                low = frame + 1;
+            }
+        }
+        return found;
+    }
+
+    private int nextFrame(ByteBuffer map, Layout layout, int from) {
+        for (int position = from; position + 2 <= map.limit(); position++) {
+            if (u8(map, position) == 0xFF && frameSample(map, position, layout) >= 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Primeira amostra do frame que começa em position, ou -1 se não houver um cabeçalho válido
+     *
+     * Além do CRC-8, os campos precisam bater com o STREAMINFO, o que descarta
+     * sequências de sincronismo que aparecem por acaso nos dados comprimidos.
+     */
+    private long frameSample(ByteBuffer map, int position, Layout layout) {
+        int limit = map.limit();
+        if (position + 6 > limit || u8(map, position) != 0xFF || (u8(map, position + 1) & 0xFE) != 0xF8) {
+            return -1;
+        }
+
+        boolean variableBlockSize = (u8(map, position + 1) & 0x01) != 0;
+        int blockSizeCode = u8(map, position + 2) >> 4;
+        int sampleRateCode = u8(map, position + 2) & 0x0F;
+        int channelCode = u8(map, position + 3) >> 4;
+        int sampleSizeCode = (u8(map, position + 3) >> 1) & 0x07;
+
+        if (variableBlockSize != layout.variableBlockSize() || blockSizeCode == 0 || sampleRateCode == 15
+                || (u8(map, position + 3) & 0x01) != 0 || channelCode > 10) {
+            return -1;
+        }
+        if ((channelCode <= 7 ? channelCode + 1 : 2) != layout.channels()) {
+            return -1;
+        }
+        if (SAMPLE_SIZES[sampleSizeCode] < 0
+                || (sampleSizeCode != 0 && SAMPLE_SIZES[sampleSizeCode] != layout.bitsPerSample())) {
+            return -1;
+        }
+        if (sampleRateCode >= 1 && sampleRateCode <= 11 && SAMPLE_RATES[sampleRateCode] != layout.sampleRate()) {
+            return -1;
+        }
+
+        // Número do frame (blocos fixos) ou da amostra (blocos variáveis), codificado como UTF-8
+        int cursor = position + 4;
+        int first = u8(map, cursor++);
+        int leadingOnes = Integer.numberOfLeadingZeros(~first << 24);
+        if (leadingOnes == 1 || leadingOnes > 7) {
+            return -1;
+        }
+        int extraBytes = Math.max(0, leadingOnes - 1);
+        long number = first & (0xFF >> (leadingOnes + 1));
+        if (cursor + extraBytes + 5 > limit) {
+            return -1;
+        }
+        for (int i = 0; i < extraBytes; i++) {
+            int next = u8(map, cursor++);
+            if ((next & 0xC0) != 0x80) {
+                return -1;
+            }
+            number = (number << 6) | (next & 0x3F);
+        }
+
+        int blockSize;
+        if (blockSizeCode == 1) {
+            blockSize = 192;
+        } else if (blockSizeCode <= 5) {
+            blockSize = 576 << (blockSizeCode - 2);
+        } else if (blockSizeCode == 6) {
+            blockSize = u8(map, cursor++) + 1;
+        } else if (blockSizeCode == 7) {
+            blockSize = ((u8(map, cursor) << 8) | u8(map, cursor + 1)) + 1;
+            cursor += 2;
+        } else {
+            blockSize = 256 << (blockSizeCode - 8);
+        }
+
+        if (sampleRateCode == 12) {
+            cursor += 1;
+        } else if (sampleRateCode == 13 || sampleRateCode == 14) {
+            cursor += 2;
+        }
+
+        if (crc8(map, position, cursor) != u8(map, cursor)) {
+            return -1;
+        }
+
+        long sample = variableBlockSize ? number : number * layout.maxBlockSize();
+        // Com blocos fixos só o último frame pode ser menor
+        if (!variableBlockSize && blockSize != layout.maxBlockSize() && sample + blockSize != layout.totalSamples()) {
+            return -1;
+        }
+        return sample < layout.totalSamples() ? sample : -1;
+    }
+
+    /**
+     * Lê o STREAMINFO e a posição do primeiro frame; null se faltar o total de amostras
+     */
+    private Layout layout(ByteBuffer map) {
+        if (map.limit() < 8 + STREAMINFO_LENGTH || !"fLaC".equals(ascii(map, 0, 4))) {
+            return null;
+        }
+
+        long position = 4;
+        byte[] streamInfo = null;
+        while (true) {
+            if (position + 4 > map.limit()) {
+                return null;
+            }
+            int header = u8(map, (int) position);
+            int length = (u8(map, (int) position + 1) << 16) | (u8(map, (int) position + 2) << 8) | u8(map, (int) position + 3);
+
+            if ((header & 0x7F) == 0 && length == STREAMINFO_LENGTH) {
+                streamInfo = new byte[STREAMINFO_LENGTH];
+                map.get((int) position + 4, streamInfo);
+            }
+            position += 4 + length;
+            if ((header & 0x80) != 0) {
+                break;
+            }
+        }
+
+        if (streamInfo == null || position + 2 > map.limit()) {
+            return null;
+        }
+
+        ByteBuffer info = ByteBuffer.wrap(streamInfo);
+        int maxBlockSize = u16(info, 2);
+        int sampleRate = (u8(info, 10) << 12) | (u8(info, 11) << 4) | (u8(info, 12) >> 4);
+        int channels = ((u8(info, 12) >> 1) & 0x07) + 1;
+        int bitsPerSample = (((u8(info, 12) & 0x01) << 4) | (u8(info, 13) >> 4)) + 1;
+        long totalSamples = ((long) (u8(info, 13) & 0x0F) << 32) | (info.getInt(14) & 0xFFFFFFFFL);
+
+        // Sem o total não há como saber a duração sem decodificar: fica com o FFmpeg
+        if (sampleRate == 0 || totalSamples == 0 || maxBlockSize == 0) {
+            return null;
+        }
+
+        int firstFrame = (int) position;
+        if (u8(map, firstFrame) != 0xFF || (u8(map, firstFrame + 1) & 0xFE) != 0xF8) {
+            return null;
+        }
+        boolean variableBlockSize = (u8(map, firstFrame + 1) & 0x01) != 0;
+
+        return new Layout(streamInfo, position, maxBlockSize, sampleRate, channels, bitsPerSample,
+                totalSamples, variableBlockSize);
+    }
+
+    /**
+     * CRC-8 do cabeçalho de frame (polinômio x^8 + x^2 + x + 1)
+     */
+    private static int crc8(ByteBuffer buffer, int from, int to) {
+        int crc = 0;
+        for (int i = from; i < to; i++) {
+            crc ^= u8(buffer, i);
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+            }
+        }
+        return crc;
+    }
+
+    private static String ascii(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static int u8(ByteBuffer buffer, int offset) {
+        return buffer.get(offset) & 0xFF;
+    }
+
+    private static int u16(ByteBuffer buffer, int offset) {
+        return (u8(buffer, offset) << 8) | u8(buffer, offset + 1);
+    }
+}
@@ -0,0 +1,72 @@
+package com.xunim.transcriptionapi.audio;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utilitários comuns aos splitters da JVM
+ */
+final class SegmentFiles {
+
+    private SegmentFiles() {
+    }
+
+    /**
+     * Mapeia o arquivo inteiro em memória (só leitura)
+     *
+     * @return null se o arquivo passar de 2 GB (não cabe em um único mapeamento)
+     */
+    static MappedByteBuffer map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            return null;
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    /**
+     * Converte os instantes de corte em posições de amostra, terminando sempre no total
+     *
+     * Cortes fora do arquivo, repetidos ou fora de ordem são ignorados.
+     */
+    static List<Long> sampleCuts(List<Double> boundaries, int sampleRate, long totalSamples) {
+        List<Long> cuts = new ArrayList<>();
+        long previous = 0;
+        for (double boundary : boundaries) {
+            long sample = Math.round(boundary * sampleRate);
+            if (sample > previous && sample < totalSamples) {
+                cuts.add(sample);
+                previous = sample;
+            }
+        }
+        cuts.add(totalSamples);
+        return cuts;
+    }
+
+    static Path segmentPath(Path outputDir, String baseName, int index, String extension) {
+        return outputDir.resolve(String.format(Locale.ROOT, "%s_%03d.%s", baseName, index, extension));
+    }
+
+    /**
+     * Copia count bytes de in (a partir de position) para o fim de out
+     *
+     * transferTo usa cópia no kernel (sendfile/copy_file_range) quando disponível,
+     * sem passar os dados pelo heap.
+     */
+    static void transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long transferred = in.transferTo(position, remaining, out);
+            if (transferred <= 0) {
+                throw new IOException("Fim inesperado do arquivo ao copiar o segmento");
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+}
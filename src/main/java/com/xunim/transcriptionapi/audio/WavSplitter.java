@@ -0,0 +1,174 @@
+package com.xunim.transcriptionapi.audio;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Set;
+import java.util.function.DoubleFunction;
+
+/**
+ * Divide WAV com quadros de tamanho fixo (PCM, float, A-law, µ-law) sem recodificar
+ *
+ * O arquivo é mapeado em memória para localizar os blocos fmt e data; cada segmento
+ * recebe o mesmo bloco fmt do original e os bytes de áudio são copiados com
+ * FileChannel.transferTo, cortados em múltiplos do tamanho do quadro.
+ */
+@Component
+@Slf4j
+public class WavSplitter implements AudioSplitter {
+
+    // Códigos de formato com quadros de tamanho fixo (1 PCM, 3 float, 6 A-law, 7 µ-law, extensível)
+    private static final Set<Integer> FIXED_FRAME_FORMATS = Set.of(1, 3, 6, 7, 0xFFFE);
+    private static final int MAX_CHUNKS = 64;
+
+    private record Layout(byte[] fmtChunk, long dataOffset, long dataBytes, int blockAlign, int sampleRate) {
+    }
+
+    @Override
+    public boolean supports(Path input) {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            return layout(channel) != null;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public int split(Path input, Path outputDir, String baseName,
+                     DoubleFunction<List<Double>> boundaries, SegmentListener listener) throws IOException {
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            Layout layout = layout(in);
+            if (layout == null) {
+                throw new IOException("WAV sem formato PCM suportado: " + input.getFileName());
+            }
+
+            long totalFrames = layout.dataBytes() / layout.blockAlign();
+            double duration = (double) totalFrames / layout.sampleRate();
+            List<Long> cuts = SegmentFiles.sampleCuts(boundaries.apply(duration), layout.sampleRate(), totalFrames);
+
+            Files.createDirectories(outputDir);
+
+            int index = 0;
+            long startFrame = 0;
+            for (long endFrame : cuts) {
+                Path output = SegmentFiles.segmentPath(outputDir, baseName, index, "wav");
+                writeSegment(in, layout, startFrame, endFrame, output);
+
+                listener.onSegment(index++, output,
+                        (double) startFrame / layout.sampleRate(), (double) endFrame / layout.sampleRate());
+                startFrame = endFrame;
+            }
+
+            log.debug("WAV {} dividido em {} segmentos na JVM", input.getFileName(), index);
+            return index;
+        }
+    }
+
+    private void writeSegment(FileChannel in, Layout layout, long startFrame, long endFrame, Path output)
+            throws IOException {
+
+        long dataBytes = (endFrame - startFrame) * layout.blockAlign();
+        int padding = (int) (dataBytes & 1);
+
+        ByteBuffer header = ByteBuffer.allocate(12 + layout.fmtChunk().length + 8).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(ascii("RIFF"))
+                .putInt((int) (4 + layout.fmtChunk().length + 8 + dataBytes + padding))
+                .put(ascii("WAVE"))
+                .put(layout.fmtChunk())
+                .put(ascii("data"))
+                .putInt((int) dataBytes)
+                .flip();
+
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            SegmentFiles.transfer(in, layout.dataOffset() + startFrame * layout.blockAlign(), dataBytes, out);
+            if (padding == 1) {
+                out.write(ByteBuffer.allocate(1));
+            }
+        }
+    }
+
+    /**
+     * Localiza os blocos fmt e data; null se o arquivo não for um WAV com quadros fixos
+     */
+    private Layout layout(FileChannel channel) throws IOException {
+        MappedByteBuffer map = SegmentFiles.map(channel);
+        if (map == null || map.limit() < 12) {
+            return null;
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        if (!matches(map, 0, "RIFF") || !matches(map, 8, "WAVE")) {
+            return null;
+        }
+
+        long size = map.limit();
+        long position = 12;
+        byte[] fmtChunk = null;
+        int sampleRate = 0;
+        int blockAlign = 0;
+
+        for (int i = 0; i < MAX_CHUNKS && position + 8 <= size; i++) {
+            int offset = (int) position;
+            long length = map.getInt(offset + 4) & 0xFFFFFFFFL;
+
+            if (matches(map, offset, "fmt ")) {
+                if (length < 16 || offset + 8 + length > size) {
+                    return null;
+                }
+                int format = map.getShort(offset + 8) & 0xFFFF;
+                if (!FIXED_FRAME_FORMATS.contains(format)) {
+                    return null;
+                }
+                sampleRate = map.getInt(offset + 12);
+                blockAlign = map.getShort(offset + 20) & 0xFFFF;
+
+                // Copiado como está, inclusive o byte de preenchimento
+                fmtChunk = new byte[(int) (8 + length + (length & 1))];
+                map.get(offset, fmtChunk, 0, (int) Math.min(fmtChunk.length, size - offset));
+
+            } else if (matches(map, offset, "data")) {
+                if (fmtChunk == null || sampleRate <= 0 || blockAlign <= 0) {
+                    return null;
+                }
+                long dataBytes = length == 0 || length == 0xFFFFFFFFL || position + 8 + length > size
+                        ? size - position - 8
+                        : length;
+                dataBytes -= dataBytes % blockAlign;
+                return dataBytes > 0 ? new Layout(fmtChunk, position + 8, dataBytes, blockAlign, sampleRate) : null;
+            }
+
+            position += 8 + length + (length & 1);
+        }
+        return null;
+    }
+
+    private static boolean matches(ByteBuffer buffer, int offset, String signature) {
+        if (offset + signature.length() > buffer.limit()) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (buffer.get(offset + i) != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
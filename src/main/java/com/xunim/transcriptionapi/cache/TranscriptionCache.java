@@ -0,0 +1,315 @@
+package com.xunim.transcriptionapi.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cache de transcrições endereçado pelo conteúdo do chunk
+ *
+ * A chave é o SHA-256 dos bytes do chunk combinado com idioma e modelo,
+ * então reenvios do mesmo áudio e reprocessamentos de jobs não pagam
+ * novamente pela chamada à API Whisper.
+ *
+ * Dois níveis:
+ * - memória: LRU limitado por tamanho (storage.cache.memory-max-mb)
+ * - disco: arquivos em {storage.upload-dir}/.transcription-cache, removendo
+ *   os menos usados quando o limite (storage.cache.disk-max-mb) é excedido
+ */
+@Component
+@Slf4j
+public class TranscriptionCache {
+
+    private static final String CACHE_DIR_NAME = ".transcription-cache";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    @Value("${storage.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${storage.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${storage.cache.memory-max-mb:32}")
+    private long memoryMaxMb;
+
+    @Value("${storage.cache.disk-max-mb:512}")
+    private long diskMaxMb;
+
+    private Path cacheDir;
+    private long memoryMaxBytes;
+    private long diskMaxBytes;
+
+    private final LinkedHashMap<String, String> memory = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        memoryMaxBytes = memoryMaxMb * 1024 * 1024;
+        diskMaxBytes = diskMaxMb * 1024 * 1024;
+        cacheDir = Paths.get(uploadDir).resolve(CACHE_DIR_NAME);
+
+        if (!enabled) {
+            log.info("Cache de transcrições desabilitado");
+            return;
+        }
+
+        try {
+            Files.createDirectories(cacheDir);
+            diskBytes.set(listCacheFiles().stream().mapToLong(this::sizeOf).sum());
+            log.info("Cache de transcrições em {} ({} KB em disco)", cacheDir, diskBytes.get() / 1024);
+        } catch (IOException e) {
+            log.warn("Não foi possível preparar o cache em disco ({}); usando apenas memória", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Calcula a chave de cache de um chunk: SHA-256 do conteúdo + modelo + idioma
+     */
+    public String keyFor(Path chunk, String language, String model) throws IOException {
+        String lang = language == null || language.isBlank() ? "auto" : language;
+        return sha256(chunk) + "-" + model + "-" + lang;
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        synchronized (memory) {
+            String text = memory.get(key);
+            if (text != null) {
+                memoryHits.increment();
+                return Optional.of(text);
+            }
+        }
+
+        Path file = fileFor(key);
+        if (Files.exists(file)) {
+            try {
+                String text = Files.readString(file, StandardCharsets.UTF_8);
+                // Atualiza a data para a remoção por menos usado
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                putInMemory(key, text);
+                diskHits.increment();
+                return Optional.of(text);
+            } catch (IOException e) {
+                log.warn("Erro ao ler entrada do cache {}: {}", file, e.getMessage());
+            }
+        }
+
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String text) {
+        if (!enabled || text == null) {
+            return;
+        }
+
+        putInMemory(key, text);
+
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "entry", ".tmp");
+            Files.writeString(temp, text, StandardCharsets.UTF_8);
+            long previousSize = Files.exists(file) ? sizeOf(file) : 0;
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (diskBytes.addAndGet(sizeOf(file) - previousSize) > diskMaxBytes) {
+                evictFromDisk();
+            }
+        } catch (IOException e) {
+            log.warn("Erro ao gravar entrada do cache {}: {}", file, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long memoryHitCount = memoryHits.sum();
+        long diskHitCount = diskHits.sum();
+        long missCount = misses.sum();
+        long lookups = memoryHitCount + diskHitCount + missCount;
+
+        int memoryEntries;
+        long memoryUsed;
+        synchronized (memory) {
+            memoryEntries = memory.size();
+            memoryUsed = memoryBytes;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("memory_hits", memoryHitCount);
+        stats.put("disk_hits", diskHitCount);
+        stats.put("misses", missCount);
+        stats.put("hit_rate_percent", lookups == 0 ? 0.0
+                : Math.round((double) (memoryHitCount + diskHitCount) / lookups * 10000.0) / 100.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("memory_entries", memoryEntries);
+        stats.put("memory_kb", memoryUsed / 1024);
+        stats.put("disk_kb", diskBytes.get() / 1024);
+        return stats;
+    }
+
+    // ==================== Métodos Auxiliares ====================
+
+    private void putInMemory(String key, String text) {
+        long size = estimateSize(text);
+        if (size > memoryMaxBytes) {
+            return;
+        }
+
+        synchronized (memory) {
+            String previous = memory.put(key, text);
+            if (previous != null) {
+                memoryBytes -= estimateSize(previous);
+            }
+            memoryBytes += size;
+
+            Iterator<Map.Entry<String, String>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                Map.Entry<String, String> entry = eldest.next();
+                memoryBytes -= estimateSize(entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Remove do disco as entradas menos usadas até ficar em 90% do limite
+     *
+     * Se outra thread já está removendo, não espera por ela (evita prender
+     * virtual threads em um monitor durante I/O de disco).
+     */
+    private void evictFromDisk() {
+        long target = diskMaxBytes * 9 / 10;
+        if (diskBytes.get() <= target || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            evictFromDisk(target);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void evictFromDisk(long target) {
+
+        List<Path> files = listCacheFiles().stream()
+                .sorted(Comparator.comparing(this::lastModified))
+                .collect(Collectors.toList());
+
+        for (Path file : files) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            long size = sizeOf(file);
+            try {
+                if (Files.deleteIfExists(file)) {
+                    diskBytes.addAndGet(-size);
+                    evictions.increment();
+                }
+            } catch (IOException e) {
+                log.warn("Não foi possível remover entrada do cache: {}", file, e);
+            }
+        }
+
+        log.info("Cache em disco reduzido para {} KB", diskBytes.get() / 1024);
+    }
+
+    private List<Path> listCacheFiles() {
+        if (!Files.exists(cacheDir)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            return walk.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".txt"))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Erro ao listar o cache em disco", e);
+            return List.of();
+        }
+    }
+
+    private Path fileFor(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ".txt");
+    }
+
+    private long estimateSize(String text) {
+        // Strings Java usam até 2 bytes por caractere
+        return 64L + text.length() * 2L;
+    }
+
+    private long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -1,23 +1,58 @@
 package com.xunim.transcriptionapi.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${transcription.executor.mode:platform}")
+    private String executorMode;
 
+    /**
+     * Executor dos jobs de transcrição
+     *
+     * A fila é a tabela transcription_job: o JobQueueWorker só retira do banco
+     * a quantidade de jobs permitida por transcription.queue.workers.
+     */
     @Bean
-    public Executor taskExecutor() {
+    public Executor taskExecutor(@Value("${transcription.queue.workers:2}") int workers) {
+        return ExecutorMode.from(executorMode).createExecutor("job-", workers);
+    }
+
+    /**
+     * Executor das chamadas de transcrição de chunks
+     *
+     * A concorrência é limitada pelo semáforo global do ChunkTranscriptionDispatcher
+     * (transcription.parallel.global-limit, dimensionado pela cota da API); no modo
+     * PLATFORM o pool tem esse mesmo tamanho.
+     */
+    @Bean
+    public Executor chunkExecutor(@Value("${transcription.parallel.global-limit:8}") int globalLimit) {
+        return ExecutorMode.from(executorMode).createExecutor("chunk-", globalLimit);
+    }
+
+    /**
+     * Executor da remoção de arquivos na limpeza de jobs antigos (JobPurgeService)
+     *
+     * Fila limitada: quando enche, a thread da limpeza apaga o arquivo ela mesma,
+     * o que segura a leitura da próxima página e mantém a memória limitada.
+     */
+    @Bean
+    public Executor cleanupExecutor(@Value("${storage.cleanup.file-threads:4}") int threads) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(100);
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        executor.setQueueCapacity(Math.max(1, threads) * 64);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("cleanup-");
         executor.initialize();
         return executor;
     }
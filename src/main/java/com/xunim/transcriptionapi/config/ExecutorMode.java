@@ -0,0 +1,55 @@
+package com.xunim.transcriptionapi.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+
+/**
+ * Tipo de thread usado pelos jobs e pelas chamadas de transcrição (transcription.executor.mode)
+ *
+ * - PLATFORM: pool fixo de threads do sistema operacional; o tamanho do pool
+ *   limita quantas chamadas bloqueadas em I/O cabem no nó
+ * - VIRTUAL: uma virtual thread por tarefa; threads bloqueadas em rede são
+ *   baratas e o limite real fica nos semáforos (fila e cota da API)
+ */
+public enum ExecutorMode {
+
+    PLATFORM,
+    VIRTUAL;
+
+    public static ExecutorMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return PLATFORM;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "transcription.executor.mode inválido: '" + value + "'. Use 'platform' ou 'virtual'", e);
+        }
+    }
+
+    /**
+     * Cria o executor para este modo
+     *
+     * @param platformThreads tamanho do pool no modo PLATFORM (ignorado no modo VIRTUAL)
+     */
+    public Executor createExecutor(String threadNamePrefix, int platformThreads) {
+        if (this == VIRTUAL) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+
+        // Fila sem limite: quem submete já respeita o limite de concorrência,
+        // mas a thread só volta ao pool depois de liberar o semáforo
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, platformThreads));
+        executor.setMaxPoolSize(Math.max(1, platformThreads));
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.xunim.transcriptionapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HttpClient compartilhado para chamadas à API Whisper
+ *
+ * Um único cliente de longa duração reaproveita o pool de conexões,
+ * a thread de selector e as sessões TLS entre todas as chamadas,
+ * em vez de pagar um handshake novo a cada chunk.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${openai.http.connect-timeout-seconds:10}")
+    private long connectTimeoutSeconds;
+
+    @Value("${openai.http.version:HTTP_2}")
+    private HttpClient.Version httpVersion;
+
+    @Value("${openai.http.executor-threads:4}")
+    private int executorThreads;
+
+    @Value("${transcription.executor.mode:platform}")
+    private String executorMode;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService whisperHttpExecutor() {
+        if (ExecutorMode.from(executorMode) == ExecutorMode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("whisper-http-", 1).factory());
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "whisper-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(executorThreads, threadFactory);
+    }
+
+    @Bean
+    public HttpClient whisperHttpClient(ExecutorService whisperHttpExecutor) {
+        return HttpClient.newBuilder()
+                .version(httpVersion)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .executor(whisperHttpExecutor)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+}
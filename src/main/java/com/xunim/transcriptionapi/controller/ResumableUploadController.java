@@ -0,0 +1,182 @@
+package com.xunim.transcriptionapi.controller;
+
+import com.xunim.transcriptionapi.dto.TranscriptionJobResponse;
+import com.xunim.transcriptionapi.dto.UploadSessionResponse;
+import com.xunim.transcriptionapi.model.UploadSession;
+import com.xunim.transcriptionapi.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Controller para upload retomável de arquivos grandes
+ *
+ * Fluxo (inspirado no protocolo tus):
+ * 1. POST   /api/uploads                 cria a sessão (header Upload-Length)
+ * 2. PATCH  /api/uploads/{id}            envia uma parte (header Upload-Offset, corpo binário)
+ * 3. HEAD   /api/uploads/{id}            consulta o offset atual para retomar
+ * 4. POST   /api/uploads/{id}/finalize   cria o job de transcrição
+ */
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+public class ResumableUploadController {
+
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_EXPIRES = "Upload-Expires";
+
+    private final ResumableUploadService service;
+
+    /**
+     * Cria uma sessão de upload retomável
+     *
+     * Endpoint: POST /api/uploads
+     *
+     * @param uploadLength Tamanho total do arquivo em bytes
+     * @param fileName Nome original do arquivo (a extensão define o formato)
+     * @param contentType Tipo MIME do áudio (opcional)
+     * @param language Código ISO do idioma (opcional)
+     * @param maxSegmentSeconds Tamanho máximo de cada chunk em segundos (opcional)
+     * @return Sessão criada, com Location apontando para ela
+     */
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> create(
+            @RequestHeader(UPLOAD_LENGTH)
+            @Min(value = 1, message = "Upload-Length deve ser maior que zero")
+            long uploadLength,
+
+            @RequestParam("fileName")
+            @NotBlank(message = "Nome do arquivo é obrigatório")
+            String fileName,
+
+            @RequestParam(value = "contentType", required = false)
+            String contentType,
+
+            @RequestParam(value = "language", required = false)
+            String language,
+
+            @RequestParam(value = "maxSegmentSeconds", required = false)
+            @Min(value = 60, message = "Segmento deve ter no mínimo 60 segundos")
+            @Max(value = 3600, message = "Segmento deve ter no máximo 3600 segundos (1 hora)")
+            Integer maxSegmentSeconds) {
+
+        log.info("📥 Sessão de upload solicitada: arquivo='{}', tamanho={} MB",
+                fileName, String.format("%.2f", uploadLength / (1024.0 * 1024.0)));
+
+        UploadSession session = service.createSession(fileName, contentType, uploadLength, language, maxSegmentSeconds);
+
+        return ResponseEntity.created(URI.create("/api/uploads/" + session.getId()))
+                .headers(uploadHeaders(session))
+                .body(UploadSessionResponse.fromEntity(session));
+    }
+
+    /**
+     * Envia uma parte do arquivo
+     *
+     * Endpoint: PATCH /api/uploads/{id}
+     * Content-Type: application/offset+octet-stream
+     *
+     * @param id ID da sessão
+     * @param uploadOffset Offset em que a parte começa (deve ser igual ao offset atual)
+     * @return 204 com o novo offset no header Upload-Offset
+     */
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patch(
+            @PathVariable String id,
+            @RequestHeader(UPLOAD_OFFSET)
+            @Min(value = 0, message = "Upload-Offset não pode ser negativo")
+            long uploadOffset,
+            HttpServletRequest request) throws IOException {
+
+        UploadSession session = service.appendChunk(id, uploadOffset, request.getInputStream());
+
+        return ResponseEntity.noContent()
+                .headers(uploadHeaders(session))
+                .build();
+    }
+
+    /**
+     * Consulta o offset atual para retomar o envio
+     *
+     * Endpoint: HEAD /api/uploads/{id}
+     */
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> offset(@PathVariable String id) {
+        UploadSession session = service.getSession(id);
+
+        return ResponseEntity.ok()
+                .headers(uploadHeaders(session))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
+    /**
+     * Consulta os detalhes da sessão
+     *
+     * Endpoint: GET /api/uploads/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<UploadSessionResponse> status(@PathVariable String id) {
+        return ResponseEntity.ok(UploadSessionResponse.fromEntity(service.getSession(id)));
+    }
+
+    /**
+     * Finaliza o upload e cria o job de transcrição
+     *
+     * Endpoint: POST /api/uploads/{id}/finalize
+     *
+     * @param id ID da sessão
+     * @param maxSegmentSeconds (Opcional) Sobrescreve o tamanho de segmento informado na criação
+     * @return Job criado
+     */
+    @PostMapping("/{id}/finalize")
+    public ResponseEntity<TranscriptionJobResponse> finalizeUpload(
+            @PathVariable String id,
+            @RequestParam(value = "maxSegmentSeconds", required = false)
+            @Min(value = 60, message = "Segmento deve ter no mínimo 60 segundos")
+            @Max(value = 3600, message = "Segmento deve ter no máximo 3600 segundos (1 hora)")
+            Integer maxSegmentSeconds) {
+
+        log.info("📦 Finalizando sessão de upload {}", id);
+
+        TranscriptionJobResponse response = service.finalizeSession(id, maxSegmentSeconds);
+
+        log.info("✅ Job {} criado a partir da sessão de upload {}", response.getId(), id);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Cancela a sessão e remove os dados parciais
+     *
+     * Endpoint: DELETE /api/uploads/{id}
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancel(@PathVariable String id) {
+        service.cancelSession(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private HttpHeaders uploadHeaders(UploadSession session) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(UPLOAD_OFFSET, String.valueOf(session.getUploadOffset()));
+        headers.set(UPLOAD_LENGTH, String.valueOf(session.getUploadLength()));
+        if (session.getExpiresAt() != null) {
+            headers.set(UPLOAD_EXPIRES, session.getExpiresAt().toString());
+        }
+        return headers;
+    }
+}
@@ -139,7 +139,7 @@ public class TranscriptionController {
 
         TranscriptionJobResponse response = service.retryJob(id, maxSegmentSeconds);
 
-        log.info("✅ Job {} reprocessamento iniciado", id);
+        log.info("✅ Job {} devolvido à fila para reprocessamento", id);
         return ResponseEntity.ok(response);
     }
 
@@ -148,7 +148,8 @@ public class TranscriptionController {
      *
      * Endpoint: GET /api/transcriptions/stats
      *
-     * @return Estatísticas: total de jobs, jobs em processamento, concluídos, com erro e taxa de sucesso
+     * @return Estatísticas: total de jobs, jobs em processamento, concluídos, com erro, taxa de sucesso
+     *         latência das chamadas à API Whisper e taxa de acerto do cache de transcrições
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStatistics() {
@@ -158,12 +159,19 @@ public class TranscriptionController {
 
         Map<String, Object> response = new HashMap<>();
         response.put("total", stats.getTotal());
+        response.put("queued", stats.getPending());
+        response.put("waiting_duplicates", stats.getWaiting());
         response.put("processing", stats.getProcessing());
         response.put("completed", stats.getCompleted());
         response.put("errors", stats.getErrors());
         response.put("success_rate_percent", stats.getSuccessRate());
         response.put("error_rate_percent", stats.getErrorRate());
         response.put("has_jobs_processing", stats.hasJobsProcessing());
+        response.put("by_language", stats.getByLanguage());
+        response.put("by_hour", stats.getByHour());
+        response.put("reconciled_at", stats.getReconciledAt());
+        response.put("whisper", service.getWhisperMetrics());
+        response.put("cache", service.getCacheStatistics());
 
         return ResponseEntity.ok(response);
     }
@@ -5,6 +5,9 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 /**
  * DTO para estatísticas de jobs de transcrição
  *
@@ -21,6 +24,18 @@ public class JobStatistics {
     private long completed;
     private long errors;
 
+    // Duplicados aguardando o resultado do job original (UPLOADED, mas fora da fila)
+    private long waiting;
+
+    // Contagens por status para cada idioma ("auto" = detecção automática)
+    private Map<String, Map<String, Long>> byLanguage;
+
+    // Contagens por status para cada hora de criação, dentro da janela configurada
+    private Map<String, Map<String, Long>> byHour;
+
+    // Última reconciliação com o banco (nulo até a primeira)
+    private LocalDateTime reconciledAt;
+
     /**
      * Calcula taxa de sucesso em porcentagem
      */
@@ -45,9 +60,9 @@ public class JobStatistics {
     }
 
     /**
-     * Retorna jobs que estão aguardando (uploaded mas não processando)
+     * Retorna jobs que estão na fila (uploaded, sem contar duplicados aguardando o original)
      */
     public long getPending() {
-        return total - processing - completed - errors;
+        return total - processing - completed - errors - waiting;
     }
 }
\ No newline at end of file
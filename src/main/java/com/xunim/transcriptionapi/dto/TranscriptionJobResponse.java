@@ -1,6 +1,7 @@
 package com.xunim.transcriptionapi.dto;
 
 import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.JobStatusView;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -21,16 +22,65 @@ public class TranscriptionJobResponse {
     private LocalDateTime createdAt;
     private LocalDateTime completedAt;
     private String errorMessage;
+    private Long fileSizeBytes;
+
+    private Double durationSeconds;
+
+    private Long bitrate;
+
+    private Integer channels;
+    // Bytes enviados ao Whisper após a divisão (e recodificação, se configurada)
+    private Long chunkBytes;
+    // Redução do upload em relação ao arquivo original (%)
+    private Double uploadReductionPercent;
 
     public static TranscriptionJobResponse fromEntity(TranscriptionJob job) {
+        return fromEntity(job, null);
+    }
+
+    public static TranscriptionJobResponse fromEntity(TranscriptionJob job, String transcriptionText) {
         return TranscriptionJobResponse.builder()
                 .id(job.getId())
                 .fileName(job.getFileName())
                 .status(job.getStatus())
-                .transcriptionText(job.getTranscriptionText())
+                .transcriptionText(transcriptionText)
                 .createdAt(job.getCreatedAt())
                 .completedAt(job.getCompletedAt())
                 .errorMessage(job.getErrorMessage())
+                .fileSizeBytes(job.getFileSizeBytes())
+                .durationSeconds(job.getDurationSeconds())
+                .bitrate(job.getBitrate())
+                .channels(job.getChannels())
+                .chunkBytes(job.getChunkBytes())
+                .uploadReductionPercent(reductionPercent(job.getFileSizeBytes(), job.getChunkBytes()))
                 .build();
     }
+
+    /**
+     * Monta a resposta a partir da projeção de status (sem carregar a entidade)
+     */
+    public static TranscriptionJobResponse fromView(JobStatusView job, String transcriptionText) {
+        return TranscriptionJobResponse.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .status(job.getStatus())
+                .transcriptionText(transcriptionText)
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .errorMessage(job.getErrorMessage())
+                .fileSizeBytes(job.getFileSizeBytes())
+                .durationSeconds(job.getDurationSeconds())
+                .bitrate(job.getBitrate())
+                .channels(job.getChannels())
+                .chunkBytes(job.getChunkBytes())
+                .uploadReductionPercent(reductionPercent(job.getFileSizeBytes(), job.getChunkBytes()))
+                .build();
+    }
+
+    private static Double reductionPercent(Long originalBytes, Long sentBytes) {
+        if (originalBytes == null || sentBytes == null || originalBytes == 0) {
+            return null;
+        }
+        return Math.round((1.0 - (double) sentBytes / originalBytes) * 10000.0) / 100.0;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.xunim.transcriptionapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.xunim.transcriptionapi.model.UploadSession;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UploadSessionResponse {
+
+    private String id;
+    private String fileName;
+    private UploadSession.Status status;
+    private Long uploadLength;
+    private Long uploadOffset;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private Long jobId;
+
+    public static UploadSessionResponse fromEntity(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .status(session.getStatus())
+                .uploadLength(session.getUploadLength())
+                .uploadOffset(session.getUploadOffset())
+                .createdAt(session.getCreatedAt())
+                .expiresAt(session.getExpiresAt())
+                .jobId(session.getJobId())
+                .build();
+    }
+}
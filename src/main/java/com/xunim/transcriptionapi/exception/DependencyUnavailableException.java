@@ -0,0 +1,26 @@
+package com.xunim.transcriptionapi.exception;
+
+/**
+ * Dependência externa temporariamente indisponível (circuit breaker aberto, bulkhead cheio
+ * ou API que continuou com erro 5xx / timeout depois das novas tentativas do chunk)
+ *
+ * O job não falha: volta para a fila e é retomado depois de retryAfterMillis.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public DependencyUnavailableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public DependencyUnavailableException(String message, long retryAfterMillis, Throwable cause) {
+        super(message, cause);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -87,6 +87,28 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
     }
 
+    /**
+     * Tratamento para envio interrompido pelo cliente (o que chegou fica gravado)
+     */
+    @ExceptionHandler(UploadInterruptedException.class)
+    public ResponseEntity<ErrorResponse> handleUploadInterrupted(
+            UploadInterruptedException ex,
+            HttpServletRequest request) {
+
+        String traceId = generateTraceId();
+        log.warn("Envio interrompido [{}]: {}", traceId, ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.of(
+                HttpStatus.BAD_REQUEST.value(),
+                "Envio Interrompido",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        error.setTraceId(traceId);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
     /**
      * Tratamento para erros de processamento de áudio
      */
@@ -0,0 +1,10 @@
+package com.xunim.transcriptionapi.exception;
+
+/**
+ * Leitura do corpo da requisição interrompida pelo cliente durante um upload retomável
+ */
+public class UploadInterruptedException extends RuntimeException {
+    public UploadInterruptedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
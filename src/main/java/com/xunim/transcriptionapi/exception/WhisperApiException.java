@@ -3,17 +3,37 @@ package com.xunim.transcriptionapi.exception;
 public class WhisperApiException extends RuntimeException {
     private final int statusCode;
 
+    // Espera pedida pela API (header Retry-After), ou -1 se ausente
+    private final long retryAfterMillis;
+
     public WhisperApiException(String message, int statusCode) {
+        this(message, statusCode, -1L);
+    }
+
+    public WhisperApiException(String message, int statusCode, long retryAfterMillis) {
         super(message);
         this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
     }
 
     public WhisperApiException(String message, int statusCode, Throwable cause) {
         super(message, cause);
         this.statusCode = statusCode;
+        this.retryAfterMillis = -1L;
     }
 
     public int getStatusCode() {
         return statusCode;
     }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Limite de taxa da API atingido (429)
+     */
+    public boolean isThrottled() {
+        return statusCode == 429;
+    }
 }
@@ -0,0 +1,97 @@
+package com.xunim.transcriptionapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint de um chunk de um job de transcrição
+ *
+ * Gravado quando o FFmpeg gera o chunk e atualizado quando a transcrição
+ * termina. Um reprocessamento reaproveita os chunks já concluídos e chama
+ * o Whisper apenas para os que faltam.
+ */
+@Entity
+@Table(name = "transcription_chunk", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transcription_chunk_job_index", columnNames = {"job_id", "chunk_index"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptionChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    // Início do chunk no áudio original, em segundos
+    private Double offsetSeconds;
+
+    private Double durationSeconds;
+
+    // Não expor no DTO - apenas uso interno
+    private String filePath;
+
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String transcriptionText;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // Chamadas ao Whisper que falharam para este chunk (somando todos os reprocessamentos)
+    private Integer attempts;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING, DONE, ERROR
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        if (this.status == null) {
+            this.status = Status.PENDING;
+        }
+        if (this.attempts == null) {
+            this.attempts = 0;
+        }
+    }
+
+    // Métodos de negócio
+    public boolean isDone() {
+        return status == Status.DONE;
+    }
+
+    public void markAsDone(String text) {
+        this.status = Status.DONE;
+        this.transcriptionText = text;
+        this.errorMessage = null;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void markAsError(String errorMsg) {
+        this.status = Status.ERROR;
+        this.attempts = (attempts != null ? attempts : 0) + 1;
+        this.errorMessage = errorMsg;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
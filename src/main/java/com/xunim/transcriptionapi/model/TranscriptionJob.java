@@ -1,5 +1,6 @@
 package com.xunim.transcriptionapi.model;
 
+import com.xunim.transcriptionapi.service.JobStatusListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,7 +10,17 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transcription_job")
+@EntityListeners(JobStatusListener.class)
+// Esquema criado pelas migrations em db/migration; os índices aqui só documentam
+@Table(name = "transcription_job", indexes = {
+        @Index(name = "idx_transcription_job_content_hash", columnList = "content_hash, language"),
+        @Index(name = "idx_transcription_job_queue", columnList = "status, visible_after"),
+        @Index(name = "idx_transcription_job_lease", columnList = "status, lease_expires_at"),
+        @Index(name = "idx_transcription_job_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_transcription_job_created_status", columnList = "created_at, status"),
+        @Index(name = "idx_transcription_job_status_language", columnList = "status, language"),
+        @Index(name = "idx_transcription_job_duplicate_of", columnList = "duplicate_of_job_id, status")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -28,9 +39,7 @@ public class TranscriptionJob {
     @Enumerated(EnumType.STRING)
     private Status status;
 
-    @Lob
-    @Column(columnDefinition = "LONGTEXT")
-    private String transcriptionText;
+    // O texto da transcrição fica em transcription_result (TranscriptionResult)
 
     private LocalDateTime createdAt;
 
@@ -46,6 +55,55 @@ public class TranscriptionJob {
     // Tamanho original do arquivo em bytes
     private Long fileSizeBytes;
 
+    // Lidos do cabeçalho do arquivo no upload (nulos se o formato não for reconhecido)
+    private Double durationSeconds;
+
+    // Taxa de bits média em bits/s
+    private Long bitrate;
+
+    private Integer channels;
+
+    // SHA-256 do arquivo enviado, usado para deduplicação
+    @Column(length = 64)
+    private String contentHash;
+
+    // Job com o mesmo conteúdo que está sendo processado no lugar deste
+    // (a coluna gerada in_flight_key, com índice único, permite um só original em andamento)
+    private Long duplicateOfJobId;
+
+    // Tamanho máximo de cada chunk informado na criação (nulo = padrão do processador)
+    private Integer maxSegmentSeconds;
+
+    // Quantidade de chunks gerados pelo FFmpeg (nulo = divisão ainda não concluída)
+    private Integer chunkCount;
+
+    // Soma do tamanho dos chunks enviados ao Whisper (comparar com fileSizeBytes)
+    private Long chunkBytes;
+
+    // Fila: o job só pode ser pego por um worker a partir deste instante
+    private LocalDateTime visibleAfter;
+
+    // Quantas vezes o job foi retirado da fila para processamento
+    private Integer attempts;
+
+    // Nó que está processando o job
+    @Column(length = 100)
+    private String leaseOwner;
+
+    // Se o nó não renovar até aqui, o job volta para a fila
+    private LocalDateTime leaseExpiresAt;
+
+    // Última renovação do lease pelo nó
+    private LocalDateTime heartbeatAt;
+
+    // Status gravado no banco, para o JobStatusListener detectar transições
+    @Transient
+    private Status persistedStatus;
+
+    // Se a linha gravada era de um duplicado aguardando o job original
+    @Transient
+    private boolean persistedWaiting;
+
     public enum Status {
         UPLOADED, PROCESSING, DONE, ERROR
     }
@@ -56,6 +114,9 @@ public class TranscriptionJob {
         if (this.status == null) {
             this.status = Status.UPLOADED;
         }
+        if (this.attempts == null) {
+            this.attempts = 0;
+        }
     }
 
     // Métodos de negócio
@@ -71,19 +132,87 @@ public class TranscriptionJob {
         return status == Status.PROCESSING;
     }
 
+    public boolean isDuplicate() {
+        return duplicateOfJobId != null;
+    }
+
+    /**
+     * Duplicado parado até o job original terminar (não está na fila)
+     */
+    public boolean isWaitingForOriginal() {
+        return status == Status.UPLOADED && duplicateOfJobId != null;
+    }
+
+    public boolean isLeaseExpired() {
+        return isProcessing() && (leaseExpiresAt == null || leaseExpiresAt.isBefore(LocalDateTime.now()));
+    }
+
     public void markAsProcessing() {
         this.status = Status.PROCESSING;
     }
 
-    public void markAsCompleted(String transcription) {
+    /**
+     * Retira o job da fila com um lease do nó até leaseUntil
+     */
+    public void markAsClaimed(String owner, LocalDateTime leaseUntil) {
+        this.status = Status.PROCESSING;
+        this.visibleAfter = null;
+        this.leaseOwner = owner;
+        this.leaseExpiresAt = leaseUntil;
+        this.heartbeatAt = LocalDateTime.now();
+        this.attempts = (attempts != null ? attempts : 0) + 1;
+    }
+
+    /**
+     * Devolve à fila um job cujo nó parou de renovar o lease
+     * (mantém o número de tentativas)
+     */
+    public void markAsRequeued() {
+        this.status = Status.UPLOADED;
+        releaseLease();
+    }
+
+    /**
+     * Devolve à fila um job que não pôde rodar por uma dependência indisponível
+     * (não conta como tentativa)
+     */
+    public void markAsDeferred(LocalDateTime until) {
+        this.status = Status.UPLOADED;
+        releaseLease();
+        this.visibleAfter = until;
+        this.attempts = Math.max(0, (attempts != null ? attempts : 0) - 1);
+    }
+
+    /**
+     * Devolve o job à fila para ser processado novamente
+     */
+    public void markAsQueued() {
+        this.status = Status.UPLOADED;
+        releaseLease();
+        this.attempts = 0;
+        this.errorMessage = null;
+        this.completedAt = null;
+    }
+
+    /**
+     * Marca o job como concluído (o texto é gravado à parte pelo TranscriptionResultService)
+     */
+    public void markAsCompleted() {
+        releaseLease();
         this.status = Status.DONE;
-        this.transcriptionText = transcription;
         this.completedAt = LocalDateTime.now();
     }
 
     public void markAsError(String errorMsg) {
+        releaseLease();
         this.status = Status.ERROR;
         this.errorMessage = errorMsg;
         this.completedAt = LocalDateTime.now();
     }
+
+    private void releaseLease() {
+        this.visibleAfter = null;
+        this.leaseOwner = null;
+        this.leaseExpiresAt = null;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.xunim.transcriptionapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Texto final de um job de transcrição, fora da linha do job
+ *
+ * Gravado comprimido (TranscriptCodec) e descomprimido na leitura pelo
+ * TranscriptionResultService.
+ *
+ * A linha de transcription_job é lida em toda consulta de status, varredura da
+ * fila e limpeza; com o texto (até vários MB) em tabela própria, ele só é lido
+ * quando a resposta realmente precisa dele.
+ */
+@Entity
+@Table(name = "transcription_result")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TranscriptionResult {
+
+    // Mesmo id do job
+    @Id
+    @Column(name = "job_id")
+    private Long jobId;
+
+    // Texto em UTF-8, codificado conforme codec
+    @Lob
+    @Column(columnDefinition = "LONGBLOB")
+    private byte[] content;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private TranscriptCodec codec;
+
+    // Tamanho do texto em bytes UTF-8 antes da compressão
+    private Integer originalLength;
+
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+}
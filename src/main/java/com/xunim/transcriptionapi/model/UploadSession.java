@@ -0,0 +1,102 @@
+package com.xunim.transcriptionapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sessão de upload retomável
+ *
+ * O conteúdo é recebido em partes (PATCH com offset) e mantido em um arquivo
+ * parcial até a finalização, quando vira um TranscriptionJob.
+ */
+@Entity
+@Table(name = "upload_session", indexes = {
+        @Index(name = "idx_upload_session_status_expires", columnList = "status, expires_at"),
+        @Index(name = "idx_upload_session_status_updated", columnList = "status, updated_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSession {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    private String fileName;
+
+    private String contentType;
+
+    private String language;
+
+    private Integer maxSegmentSeconds;
+
+    // Tamanho total declarado na criação da sessão
+    private Long uploadLength;
+
+    // Quantidade de bytes já recebidos e gravados
+    private Long uploadOffset;
+
+    // Não expor no DTO - apenas uso interno
+    private String partialFilePath;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime expiresAt;
+
+    // Job criado na finalização
+    private Long jobId;
+
+    @Version
+    private Long version;
+
+    public enum Status {
+        ACTIVE, FINALIZED
+    }
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+        if (this.status == null) {
+            this.status = Status.ACTIVE;
+        }
+        if (this.uploadOffset == null) {
+            this.uploadOffset = 0L;
+        }
+    }
+
+    // Métodos de negócio
+    public boolean isActive() {
+        return status == Status.ACTIVE;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && expiresAt.isBefore(LocalDateTime.now());
+    }
+
+    public boolean isComplete() {
+        return uploadOffset != null && uploadOffset.equals(uploadLength);
+    }
+
+    public long getRemainingBytes() {
+        return uploadLength - uploadOffset;
+    }
+
+    public void markAsFinalized(Long jobId) {
+        this.status = Status.FINALIZED;
+        this.jobId = jobId;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
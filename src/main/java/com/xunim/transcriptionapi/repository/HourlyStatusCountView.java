@@ -0,0 +1,14 @@
+package com.xunim.transcriptionapi.repository;
+
+/**
+ * Linha do GROUP BY status, hora de criação usado na reconciliação das estatísticas
+ */
+public interface HourlyStatusCountView {
+
+    String getStatus();
+
+    // Início da hora, "yyyy-MM-dd HH:00:00"
+    String getHour();
+
+    long getTotal();
+}
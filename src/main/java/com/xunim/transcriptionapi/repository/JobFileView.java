@@ -0,0 +1,26 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colunas do job usadas pelas rotinas de limpeza (arquivo e tamanho)
+ *
+ * Status e idioma vão junto para atualizar os contadores de estatísticas,
+ * já que a limpeza remove as linhas sem carregar as entidades.
+ */
+public interface JobFileView {
+
+    Long getId();
+
+    String getFilePath();
+
+    Long getFileSizeBytes();
+
+    LocalDateTime getCreatedAt();
+
+    TranscriptionJob.Status getStatus();
+
+    String getLanguage();
+}
@@ -0,0 +1,35 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+
+import java.time.LocalDateTime;
+
+/**
+ * Colunas do job usadas na consulta de status
+ *
+ * Projeção fechada: o Spring Data seleciona só estas colunas.
+ */
+public interface JobStatusView {
+
+    Long getId();
+
+    String getFileName();
+
+    TranscriptionJob.Status getStatus();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getCompletedAt();
+
+    String getErrorMessage();
+
+    Long getFileSizeBytes();
+
+    Double getDurationSeconds();
+
+    Long getBitrate();
+
+    Integer getChannels();
+
+    Long getChunkBytes();
+}
@@ -0,0 +1,15 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+
+/**
+ * Linha do GROUP BY status, idioma usado na reconciliação das estatísticas
+ */
+public interface StatusCountView {
+
+    TranscriptionJob.Status getStatus();
+
+    String getLanguage();
+
+    long getTotal();
+}
@@ -0,0 +1,35 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.TranscriptionChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface TranscriptionChunkRepository extends JpaRepository<TranscriptionChunk, Long> {
+
+    // Busca os checkpoints de um job na ordem dos chunks
+    List<TranscriptionChunk> findByJobIdOrderByChunkIndex(Long jobId);
+
+    // Busca o checkpoint de um chunk específico
+    Optional<TranscriptionChunk> findByJobIdAndChunkIndex(Long jobId, Integer chunkIndex);
+
+    // Remove todos os checkpoints de um job
+    @Modifying
+    @Query("DELETE FROM TranscriptionChunk c WHERE c.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") Long jobId);
+
+    // Remove os checkpoints a partir de um índice (sobras de uma divisão anterior com mais chunks)
+    @Modifying
+    @Query("DELETE FROM TranscriptionChunk c WHERE c.jobId = :jobId AND c.chunkIndex >= :fromIndex")
+    int deleteByJobIdFromIndex(@Param("jobId") Long jobId, @Param("fromIndex") int fromIndex);
+
+    // Remove os checkpoints de vários jobs de uma vez
+    @Modifying
+    @Query("DELETE FROM TranscriptionChunk c WHERE c.jobId IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<Long> jobIds);
+}
@@ -1,26 +1,188 @@
 package com.xunim.transcriptionapi.repository;
 
 import com.xunim.transcriptionapi.model.TranscriptionJob;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface TranscriptionJobRepository extends JpaRepository<TranscriptionJob, Long> {
 
-    // Busca jobs criados antes de uma data
-    List<TranscriptionJob> findByCreatedAtBefore(LocalDateTime date);
+    // Status do job sem carregar a entidade
+    Optional<JobStatusView> findStatusById(Long id);
 
-    // Busca jobs por status
-    List<TranscriptionJob> findByStatus(TranscriptionJob.Status status);
-
-    // Busca jobs por status e criados antes de uma data
-    List<TranscriptionJob> findByStatusAndCreatedAtBefore(
+    // Página da limpeza: jobs no status criados antes de date com id maior que afterId (keyset, em ordem de id)
+    List<JobFileView> findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
             TranscriptionJob.Status status,
-            LocalDateTime date
+            LocalDateTime date,
+            Long afterId,
+            Limit limit
     );
 
+    // Página de jobs por status com id maior que afterId (só arquivo e tamanho)
+    List<JobFileView> findByStatusAndIdGreaterThanOrderById(TranscriptionJob.Status status, Long afterId, Limit limit);
+
+    // Remove os jobs sem carregar as entidades (não passa pelo JobStatusListener)
+    @Modifying
+    @Query("DELETE FROM TranscriptionJob j WHERE j.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
     // Conta jobs por status
     long countByStatus(TranscriptionJob.Status status);
 
+    // Arquivos dos jobs cujos chunks ainda podem ser usados: com checkpoints (retomada)
+    // ou em processamento (a divisão pode estar em andamento)
+    @Query("SELECT j.filePath FROM TranscriptionJob j " +
+            "WHERE j.status = com.xunim.transcriptionapi.model.TranscriptionJob.Status.PROCESSING " +
+            "OR EXISTS (SELECT c.id FROM TranscriptionChunk c WHERE c.jobId = j.id)")
+    List<String> findFilePathsWithChunksInUse();
+
+    // Duplicados aguardando o job original (contados à parte da fila nas estatísticas)
+    long countByStatusAndDuplicateOfJobIdIsNotNull(TranscriptionJob.Status status);
+
+    // Contagem por status e idioma em uma única varredura (reconciliação das estatísticas)
+    @Query("SELECT j.status AS status, j.language AS language, COUNT(j) AS total " +
+            "FROM TranscriptionJob j " +
+            "GROUP BY j.status, j.language")
+    List<StatusCountView> countByStatusAndLanguage();
+
+    // Contagem por status e hora de criação a partir de since
+    @Query(value = "SELECT status AS status, DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00') AS hour, COUNT(*) AS total " +
+            "FROM transcription_job " +
+            "WHERE created_at >= :since " +
+            "GROUP BY status, hour",
+            nativeQuery = true)
+    List<HourlyStatusCountView> countByStatusAndHourSince(@Param("since") LocalDateTime since);
+
+    // Busca jobs com o mesmo conteúdo e idioma (idioma nulo = detecção automática)
+    @Query("SELECT j FROM TranscriptionJob j " +
+            "WHERE j.contentHash = :contentHash " +
+            "AND ((:language IS NULL AND j.language IS NULL) OR j.language = :language) " +
+            "AND j.status IN :statuses " +
+            "AND j.duplicateOfJobId IS NULL " +
+            "ORDER BY j.id")
+    List<TranscriptionJob> findByContentHashAndLanguage(
+            @Param("contentHash") String contentHash,
+            @Param("language") String language,
+            @Param("statuses") Collection<TranscriptionJob.Status> statuses
+    );
+
+    // Trava o job original na fila ou em processamento com o mesmo conteúdo e idioma
+    @Query(value = "SELECT * FROM transcription_job " +
+            "WHERE content_hash = :contentHash " +
+            "AND ((:language IS NULL AND language IS NULL) OR language = :language) " +
+            "AND status IN ('UPLOADED', 'PROCESSING') " +
+            "AND duplicate_of_job_id IS NULL " +
+            "ORDER BY id " +
+            "FOR UPDATE",
+            nativeQuery = true)
+    List<TranscriptionJob> lockInFlightByContentHashAndLanguage(
+            @Param("contentHash") String contentHash,
+            @Param("language") String language
+    );
+
+    // Busca jobs aguardando o resultado de outro job com o mesmo conteúdo
+    List<TranscriptionJob> findByDuplicateOfJobIdAndStatus(Long duplicateOfJobId, TranscriptionJob.Status status);
+
+    // Busca os jobs aguardando algum dos jobs informados (limpeza dos originais)
+    List<TranscriptionJob> findByDuplicateOfJobIdInAndStatus(Collection<Long> duplicateOfJobIds, TranscriptionJob.Status status);
+
+    // Duplicados cujo original já terminou ou não existe mais (perdidos por queda do nó ou remoção)
+    @Query(value = "SELECT f.* FROM transcription_job f " +
+            "WHERE f.status = 'UPLOADED' " +
+            "AND f.duplicate_of_job_id IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM transcription_job o " +
+            "WHERE o.id = f.duplicate_of_job_id AND o.status IN ('UPLOADED', 'PROCESSING')) " +
+            "ORDER BY f.id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TranscriptionJob> lockStrandedFollowers(@Param("limit") int limit);
+
+    // Fila: trava os próximos jobs disponíveis, pulando os já travados por outros nós
+    @Query(value = "SELECT * FROM transcription_job " +
+            "WHERE status = 'UPLOADED' " +
+            "AND duplicate_of_job_id IS NULL " +
+            "AND (visible_after IS NULL OR visible_after <= :now) " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TranscriptionJob> lockNextAvailable(
+            @Param("now") LocalDateTime now,
+            @Param("limit") int limit
+    );
+
+    // Jobs em processamento cujo nó parou de renovar o lease
+    @Query(value = "SELECT * FROM transcription_job " +
+            "WHERE status = 'PROCESSING' " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TranscriptionJob> lockExpiredLeases(
+            @Param("now") LocalDateTime now,
+            @Param("limit") int limit
+    );
+
+    // Trava um job em processamento se o lease dele venceu (reprocessamento manual)
+    @Query(value = "SELECT * FROM transcription_job " +
+            "WHERE id = :id " +
+            "AND status = 'PROCESSING' " +
+            "AND (lease_expires_at IS NULL OR lease_expires_at < :now) " +
+            "FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<TranscriptionJob> lockExpiredLease(
+            @Param("id") Long id,
+            @Param("now") LocalDateTime now
+    );
+
+    // Renova o lease dos jobs que ainda pertencem ao nó
+    @Modifying
+    @Query("UPDATE TranscriptionJob j " +
+            "SET j.leaseExpiresAt = :leaseUntil, j.heartbeatAt = :now " +
+            "WHERE j.id IN :ids " +
+            "AND j.leaseOwner = :owner " +
+            "AND j.status = com.xunim.transcriptionapi.model.TranscriptionJob.Status.PROCESSING")
+    int renewLeases(
+            @Param("ids") Collection<Long> ids,
+            @Param("owner") String owner,
+            @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    // Registra quantos chunks a divisão do áudio gerou (nulo invalida os checkpoints)
+    @Modifying
+    @Query("UPDATE TranscriptionJob j SET j.chunkCount = :chunkCount WHERE j.id = :id")
+    int updateChunkCount(@Param("id") Long id, @Param("chunkCount") Integer chunkCount);
+
+    // Grava o fim do processamento só se o job ainda está em processamento pelo nó
+    @Modifying
+    @Query("UPDATE TranscriptionJob j " +
+            "SET j.status = :status, j.completedAt = :completedAt, j.errorMessage = :errorMessage, " +
+            "j.visibleAfter = :visibleAfter, j.attempts = :attempts, " +
+            "j.chunkCount = :chunkCount, j.chunkBytes = :chunkBytes, " +
+            "j.leaseOwner = NULL, j.leaseExpiresAt = NULL " +
+            "WHERE j.id = :id " +
+            "AND j.leaseOwner = :owner " +
+            "AND j.status = com.xunim.transcriptionapi.model.TranscriptionJob.Status.PROCESSING")
+    int finishIfOwned(
+            @Param("id") Long id,
+            @Param("owner") String owner,
+            @Param("status") TranscriptionJob.Status status,
+            @Param("completedAt") LocalDateTime completedAt,
+            @Param("errorMessage") String errorMessage,
+            @Param("visibleAfter") LocalDateTime visibleAfter,
+            @Param("attempts") Integer attempts,
+            @Param("chunkCount") Integer chunkCount,
+            @Param("chunkBytes") Long chunkBytes
+    );
+
 }
\ No newline at end of file
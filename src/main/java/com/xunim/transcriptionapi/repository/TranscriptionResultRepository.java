@@ -0,0 +1,29 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.TranscriptionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface TranscriptionResultRepository extends JpaRepository<TranscriptionResult, Long> {
+
+    // Copia o resultado de um job para outro dentro do banco (jobs duplicados)
+    @Modifying
+    @Query(value = "INSERT INTO transcription_result (job_id, content, codec, original_length, created_at) " +
+            "SELECT :toJobId, content, codec, original_length, :now " +
+            "FROM transcription_result WHERE job_id = :fromJobId",
+            nativeQuery = true)
+    int copy(
+            @Param("fromJobId") Long fromJobId,
+            @Param("toJobId") Long toJobId,
+            @Param("now") LocalDateTime now
+    );
+
+    @Modifying
+    @Query("DELETE FROM TranscriptionResult r WHERE r.jobId IN :jobIds")
+    int deleteByJobIds(@Param("jobIds") Collection<Long> jobIds);
+}
@@ -0,0 +1,23 @@
+package com.xunim.transcriptionapi.repository;
+
+import com.xunim.transcriptionapi.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Busca sessões por status que expiraram antes de uma data
+    List<UploadSession> findByStatusAndExpiresAtBefore(UploadSession.Status status, LocalDateTime date);
+
+    // Busca sessões finalizadas antes de uma data
+    List<UploadSession> findByStatusAndUpdatedAtBefore(UploadSession.Status status, LocalDateTime date);
+
+    // Trava a sessão até o fim da transação (finalização); SQL nativo pelo mesmo motivo de lockNextAvailable
+    @Query(value = "SELECT * FROM upload_session WHERE id = :id FOR UPDATE", nativeQuery = true)
+    Optional<UploadSession> lockById(@Param("id") String id);
+}
@@ -0,0 +1,23 @@
+package com.xunim.transcriptionapi.service;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Segmento de áudio já finalizado pelo FFmpeg
+ *
+ * Os tempos são relativos ao início do arquivo original, em segundos.
+ */
+@Value
+public class AudioChunk {
+
+    int index;
+    Path path;
+    double startSeconds;
+    double endSeconds;
+
+    public double getDurationSeconds() {
+        return Math.max(0, endSeconds - startSeconds);
+    }
+}
@@ -1,27 +1,347 @@
 package com.xunim.transcriptionapi.service;
 
+import com.xunim.transcriptionapi.audio.AudioProbe;
+import com.xunim.transcriptionapi.audio.AudioSplitter;
 import com.xunim.transcriptionapi.exception.AudioProcessingException;
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 public class AudioSplitService {
 
+    // Últimas linhas do stderr do FFmpeg mantidas para diagnóstico
+    private static final int STDERR_TAIL_LINES = 50;
+
+    // Segmento maior que qualquer áudio aceito: usado para gerar um único chunk
+    private static final int SINGLE_SEGMENT_SECONDS = 86_400;
+
+    // Margem sobre o limite de bytes ao redividir (partes com VBR variam de tamanho)
+    private static final double OVERSIZE_SAFETY_FACTOR = 0.9;
+    private static final long PROBE_TIMEOUT_SECONDS = 30;
+
+    private static final Pattern DURATION_PATTERN = Pattern.compile("Duration: (\\d+):(\\d+):(\\d+(?:\\.\\d+)?)");
+    private static final Pattern BITRATE_PATTERN = Pattern.compile("bitrate: (\\d+) kb/s");
+    private static final Pattern SILENCE_START_PATTERN = Pattern.compile("silence_start: (-?[\\d.]+)");
+    private static final Pattern SILENCE_END_PATTERN = Pattern.compile("silence_end: (-?[\\d.]+)");
+
     @Value("${ffmpeg.path:ffmpeg}")
     private String ffmpegPath;
 
-    public List<Path> splitAudio(String inputFilePath, int segmentSeconds) {
+    // Tempo máximo sem nenhuma saída do FFmpeg (segmento ou progresso) antes de encerrá-lo
+    @Value("${ffmpeg.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    // Espera máxima por uma vaga no bulkhead antes de devolver o job à fila
+    @Value("${ffmpeg.bulkhead-wait-seconds:30}")
+    private long bulkheadWaitSeconds;
+
+    // WAV/FLAC sem recodificação são divididos na JVM, sem processo do FFmpeg
+    @Value("${ffmpeg.in-jvm-split.enabled:true}")
+    private boolean inJvmSplitEnabled;
+
+    // Bulkhead: processos FFmpeg simultâneos no nó, separado do limite de chamadas ao Whisper
+    private final Semaphore ffmpegPermits;
+
+    private final List<AudioSplitter> inJvmSplitters;
+
+    private final TranscodeProfile transcodeProfile;
+    private final int transcodeSampleRate;
+    private final String transcodeBitrate;
+
+    public AudioSplitService(
+            @Value("${ffmpeg.max-concurrent:2}") int maxConcurrent,
+            @Value("${ffmpeg.transcode.profile:copy}") String transcodeProfile,
+            @Value("${ffmpeg.transcode.sample-rate:16000}") int transcodeSampleRate,
+            @Value("${ffmpeg.transcode.bitrate:}") String transcodeBitrate,
+            List<AudioSplitter> inJvmSplitters) {
+        this.ffmpegPermits = new Semaphore(Math.max(1, maxConcurrent), true);
+        this.transcodeProfile = TranscodeProfile.from(transcodeProfile);
+        this.transcodeSampleRate = transcodeSampleRate;
+        this.transcodeBitrate = transcodeBitrate;
+        this.inJvmSplitters = inJvmSplitters;
+    }
+
+    /**
+     * Divide o áudio em segmentos, entregando cada um assim que o FFmpeg o fecha
+     *
+     * O FFmpeg escreve a lista de segmentos (CSV) no stdout à medida que cada
+     * segmento é finalizado, então o consumidor pode começar a transcrever o
+     * primeiro chunk enquanto os seguintes ainda estão sendo gerados.
+     * O consumidor é chamado na thread que lê a saída do FFmpeg, com a vaga do
+     * FFmpeg ocupada: ele não deve bloquear (ex.: esperando vagas do Whisper).
+     * Com ffmpeg.transcode.profile diferente de copy, os chunks são recodificados
+     * em mono de baixa taxa no mesmo passo. Com copy, WAV e FLAC são divididos
+     * na JVM (ffmpeg.in-jvm-split.enabled), sem abrir processo.
+     *
+     * @param onChunk chamado, em ordem, para cada segmento finalizado
+     * @return todos os segmentos gerados, em ordem
+     * @throws DependencyUnavailableException se o limite de processos FFmpeg continuar cheio
+     */
+    public List<AudioChunk> splitAudio(String inputFilePath, int segmentSeconds, Consumer<AudioChunk> onChunk) {
+        return split(inputFilePath, List.of("-segment_time", String.valueOf(segmentSeconds)),
+                duration -> everySeconds(duration, segmentSeconds), onChunk);
+    }
+
+    /**
+     * Divide o áudio nos instantes informados (ex.: pontos de silêncio escolhidos pelo SplitPlanner)
+     *
+     * @param boundaries instantes de corte em segundos, em ordem crescente; vazio gera um único segmento
+     */
+    public List<AudioChunk> splitAudioAt(String inputFilePath, List<Double> boundaries, Consumer<AudioChunk> onChunk) {
+        if (boundaries.isEmpty()) {
+            return split(inputFilePath, List.of("-segment_time", String.valueOf(SINGLE_SEGMENT_SECONDS)),
+                    duration -> List.of(), onChunk);
+        }
+
+        StringJoiner times = new StringJoiner(",");
+        for (double boundary : boundaries) {
+            times.add(String.format(Locale.ROOT, "%.3f", boundary));
+        }
+        return split(inputFilePath, List.of("-segment_times", times.toString()), duration -> boundaries, onChunk);
+    }
+
+    /**
+     * Localiza os trechos de silêncio do áudio com o filtro silencedetect do FFmpeg
+     *
+     * Decodifica o arquivo inteiro sem gravar nada; é bem mais rápido que o tempo real,
+     * mas para arquivos longos leva alguns segundos.
+     *
+     * @param noiseDb nível abaixo do qual o áudio é considerado silêncio (ex.: -35)
+     * @param minSilenceSeconds duração mínima de um silêncio
+     */
+    public SilenceReport detectSilence(String inputFilePath, double noiseDb, double minSilenceSeconds) {
+        acquireFfmpegSlot();
+        try {
+            return runSilenceDetect(inputFilePath, noiseDb, minSilenceSeconds);
+        } finally {
+            ffmpegPermits.release();
+        }
+    }
+
+    /**
+     * Divide um chunk que passou do limite de bytes em partes menores, sem recodificar
+     *
+     * As partes ficam num subdiretório do chunk e seus tempos são relativos ao início dele.
+     * Ocupa uma vaga do bulkhead: não pode ser chamado por quem já segura uma (ex.: no
+     * callback onChunk de splitAudio, que roda durante a divisão do job).
+     */
+    public List<AudioChunk> splitOversized(Path chunk, double durationSeconds, long maxBytes) {
+        try {
+            long size = Files.size(chunk);
+            int pieces = (int) Math.ceil((double) size / (maxBytes * OVERSIZE_SAFETY_FACTOR));
+            int segmentSeconds = Math.max(1, (int) Math.ceil(durationSeconds / Math.max(2, pieces)));
+
+            log.warn("Chunk {} tem {} bytes (limite {}); dividindo em partes de {} s",
+                    chunk.getFileName(), size, maxBytes, segmentSeconds);
+
+            Optional<AudioSplitter> inJvm = inJvmSplitterFor(chunk);
+            if (inJvm.isPresent()) {
+                return splitInJvm(inJvm.get(), chunk.toString(), duration -> everySeconds(duration, segmentSeconds), part -> { });
+            }
+
+            String fileName = chunk.getFileName().toString();
+            String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+
+            acquireFfmpegSlot();
+            try {
+                return runSplit(chunk.toString(),
+                        List.of("-segment_time", String.valueOf(segmentSeconds)),
+                        TranscodeProfile.COPY.codecArguments(transcodeSampleRate, transcodeBitrate),
+                        extension, part -> { });
+            } finally {
+                ffmpegPermits.release();
+            }
+        } catch (IOException e) {
+            throw new AudioProcessingException("Erro ao dividir chunk " + chunk.getFileName(), e);
+        }
+    }
+
+    /**
+     * Lê duração e taxa de bits do arquivo no cabeçalho informado pelo FFmpeg
+     *
+     * Ocupa uma vaga do bulkhead como as divisões; um FFmpeg que não termina em
+     * PROBE_TIMEOUT_SECONDS (ou ffmpeg.timeout-seconds, se menor) é encerrado.
+     */
+    public AudioProbe probe(String inputFilePath) {
+        acquireFfmpegSlot();
+        try {
+            return runProbe(inputFilePath);
+        } finally {
+            ffmpegPermits.release();
+        }
+    }
+
+    /**
+     * Bytes por segundo dos chunks gerados a partir de um original com a taxa informada
+     *
+     * @param sourceBitRate taxa do original em bits/s (0 se desconhecida)
+     * @return 0 se não for possível estimar
+     */
+    public double chunkBytesPerSecond(long sourceBitRate) {
+        return transcodeProfile.outputBitRate(sourceBitRate, transcodeBitrate) / 8.0;
+    }
+
+    private AudioProbe runProbe(String inputFilePath) {
+        try {
+            File inputFile = new File(inputFilePath);
+            if (!inputFile.exists()) {
+                throw new AudioProcessingException("Arquivo de áudio não encontrado: " + inputFilePath);
+            }
+
+            // Sem arquivo de saída o FFmpeg só imprime as informações de entrada (e sai com código 1)
+            Process process = new ProcessBuilder(ffmpegPath, "-hide_banner", "-i", inputFile.getAbsolutePath())
+                    .redirectErrorStream(true)
+                    .start();
+            process.getOutputStream().close();
+
+            // A atividade não é renovada a cada linha: o limite vale para a leitura inteira.
+            // Se o FFmpeg travar, o watchdog o encerra e a leitura abaixo chega ao fim.
+            AtomicLong started = new AtomicLong(System.nanoTime());
+            AtomicBoolean timedOut = new AtomicBoolean();
+            long limitSeconds = timeoutSeconds > 0 ? Math.min(PROBE_TIMEOUT_SECONDS, timeoutSeconds) : PROBE_TIMEOUT_SECONDS;
+            startWatchdog(process, started, timedOut, limitSeconds);
+
+            double duration = 0;
+            long bitRate = 0;
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Matcher matcher = DURATION_PATTERN.matcher(line);
+                    if (duration == 0 && matcher.find()) {
+                        duration = parseDuration(matcher);
+                        Matcher bitRateMatcher = BITRATE_PATTERN.matcher(line);
+                        if (bitRateMatcher.find()) {
+                            bitRate = Long.parseLong(bitRateMatcher.group(1)) * 1000;
+                        }
+                    }
+                }
+            }
+
+            process.waitFor();
+            if (timedOut.get()) {
+                throw new AudioProcessingException("FFmpeg não respondeu ao ler o cabeçalho do áudio");
+            }
+            if (duration <= 0) {
+                throw new AudioProcessingException("Não foi possível obter a duração do áudio");
+            }
+            return new AudioProbe("ffmpeg", duration, bitRate, 0, 0);
+
+        } catch (AudioProcessingException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioProcessingException("Leitura do cabeçalho do áudio interrompida", e);
+        } catch (Exception e) {
+            throw new AudioProcessingException("Erro ao ler o cabeçalho do áudio", e);
+        }
+    }
+
+    private List<AudioChunk> split(String inputFilePath, List<String> segmentArguments,
+                                   DoubleFunction<List<Double>> boundaries, Consumer<AudioChunk> onChunk) {
+        if (transcodeProfile == TranscodeProfile.COPY) {
+            Optional<AudioSplitter> inJvm = inJvmSplitterFor(Path.of(inputFilePath));
+            if (inJvm.isPresent()) {
+                return splitInJvm(inJvm.get(), inputFilePath, boundaries, onChunk);
+            }
+        }
+
+        acquireFfmpegSlot();
+        try {
+            return runSplit(inputFilePath, segmentArguments,
+                    transcodeProfile.codecArguments(transcodeSampleRate, transcodeBitrate),
+                    transcodeProfile.getExtension(), onChunk);
+        } finally {
+            ffmpegPermits.release();
+        }
+    }
+
+    private Optional<AudioSplitter> inJvmSplitterFor(Path input) {
+        if (!inJvmSplitEnabled) {
+            return Optional.empty();
+        }
+        return inJvmSplitters.stream().filter(splitter -> splitter.supports(input)).findFirst();
+    }
+
+    /**
+     * Divide na JVM: só E/S de arquivo, sem vaga do bulkhead do FFmpeg
+     */
+    private List<AudioChunk> splitInJvm(AudioSplitter splitter, String inputFilePath,
+                                        DoubleFunction<List<Double>> boundaries, Consumer<AudioChunk> onChunk) {
+        File inputFile = new File(inputFilePath);
+        String baseName = baseName(inputFile);
+        List<AudioChunk> chunks = new ArrayList<>();
+
+        try {
+            splitter.split(inputFile.toPath(), chunksDirectory(inputFile, baseName), baseName, boundaries,
+                    (index, path, start, end) -> {
+                        AudioChunk chunk = new AudioChunk(index, path, start, end);
+                        chunks.add(chunk);
+                        onChunk.accept(chunk);
+                    });
+        } catch (IOException e) {
+            log.error("Erro ao dividir {} na JVM", inputFile.getName(), e);
+            throw new AudioProcessingException("Erro ao processar arquivo de áudio", e);
+        }
+
+        if (chunks.isEmpty()) {
+            throw new AudioProcessingException(
+                    "Nenhum chunk gerado. O arquivo pode estar corrompido ou muito curto."
+            );
+        }
+
+        log.info("Áudio dividido em {} partes na JVM ({})", chunks.size(), splitter.getClass().getSimpleName());
+        return chunks;
+    }
+
+    /**
+     * Cortes a cada segmentSeconds, como o -segment_time do FFmpeg
+     */
+    private static List<Double> everySeconds(double duration, int segmentSeconds) {
+        List<Double> boundaries = new ArrayList<>();
+        for (double cut = segmentSeconds; cut < duration; cut += segmentSeconds) {
+            boundaries.add(cut);
+        }
+        return boundaries;
+    }
+
+    private static String baseName(File inputFile) {
+        return inputFile.getName().replaceFirst("\\.[^.]+$", "");
+    }
+
+    private static Path chunksDirectory(File inputFile, String baseName) {
+        return inputFile.toPath().getParent().resolve(baseName + "_chunks");
+    }
+
+    private List<AudioChunk> runSplit(String inputFilePath, List<String> segmentArguments,
+                                      List<String> codecArguments, String extension, Consumer<AudioChunk> onChunk) {
 
         try {
             File inputFile = new File(inputFilePath);
@@ -30,72 +350,277 @@ public class AudioSplitService {
                 throw new AudioProcessingException("Arquivo de áudio não encontrado: " + inputFilePath);
             }
 
-            String baseName = inputFile.getName().replaceFirst("\\.[^.]+$", "");
-            Path outputDir = inputFile.toPath().getParent()
-                    .resolve(baseName + "_chunks");
+            String baseName = baseName(inputFile);
+            Path outputDir = chunksDirectory(inputFile, baseName);
 
             Files.createDirectories(outputDir);
 
-            Path outputPattern = outputDir.resolve(baseName + "_%03d.m4a");
+            Path outputPattern = outputDir.resolve(baseName + "_%03d." + extension);
 
-            List<String> command = List.of(
+            List<String> command = new ArrayList<>(List.of(
                     ffmpegPath,
                     "-y",
                     "-i", inputFile.getAbsolutePath(),
-                    "-f", "segment",
-                    "-segment_time", String.valueOf(segmentSeconds),
-                    "-c", "copy",
-                    outputPattern.toAbsolutePath().toString()
-            );
+                    "-f", "segment"
+            ));
+            command.addAll(segmentArguments);
+            command.addAll(List.of(
+                    "-segment_list", "pipe:1",
+                    "-segment_list_type", "csv"
+            ));
+            command.addAll(codecArguments);
+            command.add(outputPattern.toAbsolutePath().toString());
 
             log.info("Executando FFmpeg: {}", String.join(" ", command));
 
             ProcessBuilder processBuilder = new ProcessBuilder(command);
-            processBuilder.redirectErrorStream(true);
-
             Process process = processBuilder.start();
 
-            // Captura saída do FFmpeg para debugging
-            String output = captureProcessOutput(process);
+            // Qualquer linha no stdout ou stderr conta como progresso para o watchdog
+            AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+            AtomicBoolean timedOut = new AtomicBoolean();
+            startWatchdog(process, lastActivity, timedOut, timeoutSeconds);
+
+            // stderr é drenado em paralelo para o FFmpeg nunca bloquear escrevendo logs
+            Deque<String> stderrTail = new ArrayDeque<>();
+            Thread stderrReader = startStderrReader(process.getErrorStream(), stderrTail, lastActivity);
+
+            List<AudioChunk> chunks = new ArrayList<>();
+            try {
+                readSegmentList(process, outputDir, chunk -> {
+                    lastActivity.set(System.nanoTime());
+                    chunks.add(chunk);
+                    log.debug("Chunk {} pronto: {} ({}s - {}s)",
+                            chunk.getIndex(), chunk.getPath().getFileName(),
+                            chunk.getStartSeconds(), chunk.getEndSeconds());
+                    onChunk.accept(chunk);
+                });
+            } catch (RuntimeException e) {
+                process.destroyForcibly();
+                throw e;
+            }
 
             int exitCode = process.waitFor();
+            stderrReader.join();
+
+            if (timedOut.get()) {
+                throw new AudioProcessingException(
+                        "FFmpeg ficou " + timeoutSeconds + " s sem progresso e foi encerrado"
+                );
+            }
 
             if (exitCode != 0) {
+                String output;
+                synchronized (stderrTail) {
+                    output = String.join("\n", stderrTail);
+                }
                 log.error("FFmpeg falhou com código {}: {}", exitCode, output);
                 throw new AudioProcessingException(
                         "Falha ao processar áudio. Verifique se o arquivo está corrompido."
                 );
             }
 
-            List<Path> chunks = new ArrayList<>();
-            Files.list(outputDir)
-                    .filter(p -> p.toString().endsWith(".m4a"))
-                    .sorted()
-                    .forEach(chunks::add);
-
             if (chunks.isEmpty()) {
                 throw new AudioProcessingException(
                         "Nenhum chunk gerado. O arquivo pode estar corrompido ou muito curto."
                 );
             }
 
-            log.info("Áudio dividido em {} partes", chunks.size());
+            log.info("Áudio dividido em {} partes (perfil {})", chunks.size(), transcodeProfile);
             return chunks;
 
         } catch (AudioProcessingException e) {
             throw e; // Re-lança exceções já tratadas
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioProcessingException("Divisão do áudio interrompida", e);
         } catch (Exception e) {
             log.error("Erro inesperado ao dividir áudio", e);
             throw new AudioProcessingException("Erro ao processar arquivo de áudio", e);
         }
     }
 
-    private String captureProcessOutput(Process process) {
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream()))) {
-            return reader.lines().collect(Collectors.joining("\n"));
+    private SilenceReport runSilenceDetect(String inputFilePath, double noiseDb, double minSilenceSeconds) {
+        try {
+            File inputFile = new File(inputFilePath);
+            if (!inputFile.exists()) {
+                throw new AudioProcessingException("Arquivo de áudio não encontrado: " + inputFilePath);
+            }
+
+            List<String> command = List.of(
+                    ffmpegPath,
+                    "-hide_banner",
+                    "-i", inputFile.getAbsolutePath(),
+                    "-vn",
+                    "-af", String.format(Locale.ROOT, "silencedetect=noise=%.1fdB:d=%.2f", noiseDb, minSilenceSeconds),
+                    "-f", "null",
+                    "-"
+            );
+
+            log.info("Executando FFmpeg: {}", String.join(" ", command));
+
+            Process process = new ProcessBuilder(command).start();
+            process.getOutputStream().close();
+
+            AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+            AtomicBoolean timedOut = new AtomicBoolean();
+            startWatchdog(process, lastActivity, timedOut, timeoutSeconds);
+
+            double duration = 0;
+            Double openSilence = null;
+            List<SilenceReport.Silence> silences = new ArrayList<>();
+
+            // O resultado do silencedetect vem no stderr, junto com o log do FFmpeg
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lastActivity.set(System.nanoTime());
+
+                    Matcher matcher = DURATION_PATTERN.matcher(line);
+                    if (duration == 0 && matcher.find()) {
+                        duration = parseDuration(matcher);
+                        continue;
+                    }
+
+                    matcher = SILENCE_START_PATTERN.matcher(line);
+                    if (matcher.find()) {
+                        openSilence = Math.max(0, Double.parseDouble(matcher.group(1)));
+                        continue;
+                    }
+
+                    matcher = SILENCE_END_PATTERN.matcher(line);
+                    if (matcher.find() && openSilence != null) {
+                        silences.add(new SilenceReport.Silence(openSilence, Double.parseDouble(matcher.group(1))));
+                        openSilence = null;
+                    }
+                }
+            }
+
+            int exitCode = process.waitFor();
+            if (timedOut.get()) {
+                throw new AudioProcessingException(
+                        "FFmpeg ficou " + timeoutSeconds + " s sem progresso e foi encerrado");
+            }
+            if (exitCode != 0) {
+                throw new AudioProcessingException("Falha ao analisar silêncio do áudio (código " + exitCode + ")");
+            }
+
+            // Silêncio até o fim do arquivo não tem silence_end
+            if (openSilence != null && duration > openSilence) {
+                silences.add(new SilenceReport.Silence(openSilence, duration));
+            }
+
+            log.info("{} trecho(s) de silêncio encontrados em {} s de áudio", silences.size(), duration);
+            return new SilenceReport(duration, silences);
+
+        } catch (AudioProcessingException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioProcessingException("Análise de silêncio interrompida", e);
         } catch (Exception e) {
-            return "";
+            throw new AudioProcessingException("Erro ao analisar silêncio do áudio", e);
         }
     }
-}
\ No newline at end of file
+
+    private static double parseDuration(Matcher matcher) {
+        return Integer.parseInt(matcher.group(1)) * 3600
+                + Integer.parseInt(matcher.group(2)) * 60
+                + Double.parseDouble(matcher.group(3));
+    }
+
+    /**
+     * Lê a lista de segmentos em CSV (arquivo,início,fim) escrita pelo FFmpeg no stdout
+     */
+    private void readSegmentList(Process process, Path outputDir, Consumer<AudioChunk> onChunk)
+            throws Exception {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+
+            String line;
+            int index = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] fields = line.split(",");
+                if (fields.length < 3) {
+                    log.warn("Linha inesperada na lista de segmentos do FFmpeg: {}", line);
+                    continue;
+                }
+
+                Path chunkPath = outputDir.resolve(Path.of(fields[0].trim()).getFileName());
+                double start = Double.parseDouble(fields[fields.length - 2].trim());
+                double end = Double.parseDouble(fields[fields.length - 1].trim());
+
+                onChunk.accept(new AudioChunk(index++, chunkPath, start, end));
+            }
+        }
+    }
+
+    /**
+     * Encerra o FFmpeg se ele passar limitSeconds sem produzir saída (processo travado)
+     *
+     * O limite é de inatividade, não de duração total: a divisão de áudios longos
+     * pode demorar mais que isso enquanto o FFmpeg continua reportando progresso.
+     */
+    private void startWatchdog(Process process, AtomicLong lastActivity, AtomicBoolean timedOut, long limitSeconds) {
+        if (limitSeconds <= 0) {
+            return;
+        }
+
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(limitSeconds);
+        Thread thread = new Thread(() -> {
+            try {
+                while (!process.waitFor(1, TimeUnit.SECONDS)) {
+                    if (System.nanoTime() - lastActivity.get() > timeoutNanos) {
+                        timedOut.set(true);
+                        log.error("FFmpeg sem progresso há {} s; encerrando o processo {}", limitSeconds, process.pid());
+                        process.destroyForcibly();
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "ffmpeg-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void acquireFfmpegSlot() {
+        try {
+            if (!ffmpegPermits.tryAcquire(bulkheadWaitSeconds, TimeUnit.SECONDS)) {
+                throw new DependencyUnavailableException(
+                        "Limite de processos FFmpeg simultâneos atingido", 0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AudioProcessingException("Divisão do áudio interrompida", e);
+        }
+    }
+
+    private Thread startStderrReader(InputStream stderr, Deque<String> tail, AtomicLong lastActivity) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stderr))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lastActivity.set(System.nanoTime());
+                    synchronized (tail) {
+                        if (tail.size() == STDERR_TAIL_LINES) {
+                            tail.removeFirst();
+                        }
+                        tail.addLast(line);
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Leitura do stderr do FFmpeg encerrada: {}", e.getMessage());
+            }
+        }, "ffmpeg-stderr");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,128 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionChunk;
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.TranscriptionChunkRepository;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Checkpoints por chunk dos jobs de transcrição
+ *
+ * - Cada chunk gerado pelo FFmpeg é registrado como PENDING
+ * - Cada transcrição concluída é gravada assim que termina
+ * - No reprocessamento, o FFmpeg só roda de novo se os chunks não estiverem
+ *   mais em disco, e o Whisper só é chamado para chunks que não estão DONE
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkCheckpointService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final TranscriptionChunkRepository repository;
+    private final TranscriptionJobRepository jobRepository;
+    private final FileCleanupService fileCleanupService;
+
+    @Transactional(readOnly = true)
+    public List<TranscriptionChunk> findByJob(Long jobId) {
+        return repository.findByJobIdOrderByChunkIndex(jobId);
+    }
+
+    /**
+     * Verifica se a divisão anterior pode ser reaproveitada sem rodar o FFmpeg
+     *
+     * Exige que a divisão tenha terminado e que os arquivos dos chunks
+     * ainda não transcritos continuem em disco.
+     */
+    public boolean canSkipSplit(TranscriptionJob job, List<TranscriptionChunk> checkpoints) {
+        if (job.getChunkCount() == null || checkpoints.size() != job.getChunkCount()) {
+            return false;
+        }
+
+        return checkpoints.stream()
+                .filter(chunk -> !chunk.isDone())
+                .allMatch(chunk -> chunk.getFilePath() != null && Files.exists(Path.of(chunk.getFilePath())));
+    }
+
+    /**
+     * Registra (ou atualiza) um chunk recém-gerado pelo FFmpeg
+     */
+    @Transactional
+    public void register(Long jobId, AudioChunk chunk) {
+        TranscriptionChunk checkpoint = repository.findByJobIdAndChunkIndex(jobId, chunk.getIndex())
+                .orElseGet(() -> TranscriptionChunk.builder()
+                        .jobId(jobId)
+                        .chunkIndex(chunk.getIndex())
+                        .build());
+
+        checkpoint.setFilePath(chunk.getPath().toString());
+        checkpoint.setOffsetSeconds(chunk.getStartSeconds());
+        checkpoint.setDurationSeconds(chunk.getDurationSeconds());
+
+        repository.save(checkpoint);
+    }
+
+    @Transactional
+    public void markDone(Long jobId, int index, String text) {
+        repository.findByJobIdAndChunkIndex(jobId, index).ifPresent(checkpoint -> {
+            checkpoint.markAsDone(text);
+            repository.save(checkpoint);
+        });
+    }
+
+    @Transactional
+    public void markFailed(Long jobId, int index, String errorMessage) {
+        repository.findByJobIdAndChunkIndex(jobId, index).ifPresent(checkpoint -> {
+            checkpoint.markAsError(truncate(errorMessage));
+            repository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Registra que a divisão terminou: a partir daqui os chunks podem ser reaproveitados
+     *
+     * Checkpoints além do último chunk sobraram de uma divisão anterior com mais chunks
+     * e são removidos; sem isso a contagem nunca bate e o canSkipSplit falha sempre.
+     */
+    @Transactional
+    public void markSplitComplete(Long jobId, int chunkCount) {
+        int stale = repository.deleteByJobIdFromIndex(jobId, chunkCount);
+        if (stale > 0) {
+            log.info("Job {}: {} checkpoint(s) da divisão anterior descartados", jobId, stale);
+        }
+        jobRepository.updateChunkCount(jobId, chunkCount);
+    }
+
+    /**
+     * Descarta os checkpoints e os arquivos de chunks de um job (ex.: mudou o tamanho do segmento)
+     */
+    @Transactional
+    public void reset(TranscriptionJob job) {
+        int deleted = repository.deleteByJobId(job.getId());
+        job.setChunkCount(null);
+        fileCleanupService.deleteChunksDirectory(job.getFilePath());
+
+        log.info("Checkpoints do job {} descartados ({} chunks)", job.getId(), deleted);
+    }
+
+    @Transactional
+    public void deleteByJob(Long jobId) {
+        repository.deleteByJobId(jobId);
+    }
+
+    private String truncate(String message) {
+        if (message == null || message.length() <= MAX_ERROR_LENGTH) {
+            return message;
+        }
+        return message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -9,6 +9,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
@@ -84,7 +88,18 @@ public class FileCleanupService {
         }
     }
 
-    public void cleanOrphanedFiles() {
+    /**
+     * Remove os diretórios de chunks que não pertencem a nenhum job em uso
+     *
+     * @param filePathsInUse arquivos dos jobs cujos chunks devem ser mantidos
+     *                       (checkpoints para retomada ou divisão em andamento)
+     */
+    public void cleanOrphanedFiles(Collection<String> filePathsInUse) {
+        Set<Path> inUse = filePathsInUse.stream()
+                .filter(Objects::nonNull)
+                .map(filePath -> getChunksDirectory(filePath).toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
+
         try {
             Path uploadsPath = Paths.get(uploadDir);
 
@@ -96,6 +111,7 @@ public class FileCleanupService {
             try (Stream<Path> stream = Files.list(uploadsPath)) {
                 stream.filter(Files::isDirectory)
                         .filter(dir -> dir.getFileName().toString().endsWith("_chunks"))
+                        .filter(dir -> !inUse.contains(dir.toAbsolutePath().normalize()))
                         .forEach(chunksDir -> {
                             try {
                                 deleteDirectoryRecursively(chunksDir);
@@ -0,0 +1,236 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Deduplicação de jobs pelo conteúdo do arquivo enviado
+ *
+ * - Se já existe um job concluído com o mesmo hash e idioma, o novo job
+ *   é concluído na hora com a transcrição existente.
+ * - Se um job com o mesmo conteúdo ainda está em andamento, o novo job
+ *   aguarda o resultado dele (coalescência) em vez de processar de novo.
+ *
+ * O índice único uk_transcription_job_in_flight garante um só job original por
+ * conteúdo e idioma na fila ou em processamento, mesmo com uploads simultâneos.
+ *
+ * Se o original é removido antes de terminar, o duplicado mais antigo vira o
+ * novo original e volta para a fila; os demais passam a aguardar por ele.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JobDeduplicationService {
+
+    // Índice único dos originais na fila ou em processamento (migration V4)
+    static final String IN_FLIGHT_INDEX = "uk_transcription_job_in_flight";
+
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final TranscriptionJobRepository repository;
+    private final TranscriptionResultService transcriptionResultService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Cria ou devolve à fila um job em uma transação, repetindo-a se outro job com o
+     * mesmo conteúdo se tornou o original ao mesmo tempo
+     *
+     * Quem perde a corrida recebe a violação de uk_transcription_job_in_flight (ou um
+     * deadlock nas travas do FOR UPDATE) e, na nova tentativa, encontra o vencedor em
+     * findInFlightOriginal e vira duplicado dele.
+     */
+    public <T> T retryOnConcurrentOriginal(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (DataIntegrityViolationException | PessimisticLockingFailureException e) {
+                if (attempt >= MAX_CREATE_ATTEMPTS || !isInFlightConflict(e)) {
+                    throw e;
+                }
+                log.info("Job com o mesmo conteúdo criado ao mesmo tempo por outra requisição; " +
+                        "nova tentativa ({}/{})", attempt + 1, MAX_CREATE_ATTEMPTS);
+            }
+        }
+    }
+
+    /**
+     * Procura um job já concluído com o mesmo conteúdo e idioma
+     */
+    @Transactional(readOnly = true)
+    public Optional<TranscriptionJob> findCompletedDuplicate(String contentHash, String language) {
+        return repository.findByContentHashAndLanguage(
+                contentHash, language, EnumSet.of(TranscriptionJob.Status.DONE)
+        ).stream().findFirst();
+    }
+
+    /**
+     * Procura o job na fila ou em processamento (em qualquer nó) com o mesmo conteúdo e idioma
+     *
+     * Roda na transação que cria o job e trava a linha do job original: ele só termina
+     * depois do commit do duplicado, e o onJobFinished já encontra o duplicado gravado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<TranscriptionJob> findInFlightOriginal(String contentHash, String language) {
+        return repository.lockInFlightByContentHashAndLanguage(contentHash, language).stream().findFirst();
+    }
+
+    /**
+     * Propaga o resultado de um job para os jobs que aguardavam o mesmo conteúdo
+     */
+    @Transactional
+    public void onJobFinished(TranscriptionJob job) {
+        if (job.getContentHash() == null) {
+            return;
+        }
+
+        List<TranscriptionJob> followers = repository.findByDuplicateOfJobIdAndStatus(
+                job.getId(), TranscriptionJob.Status.UPLOADED);
+
+        for (TranscriptionJob follower : followers) {
+            resolveFollower(follower, job);
+        }
+
+        if (!followers.isEmpty()) {
+            log.info("Resultado do job {} propagado para {} job(s) duplicado(s)", job.getId(), followers.size());
+        }
+    }
+
+    /**
+     * Promove os duplicados de um job original removido antes de terminar
+     *
+     * Roda na transação que remove o original, depois do flush do DELETE: o índice
+     * único só aceita o novo original quando o antigo já saiu da tabela.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOriginalDeleted(Long originalId) {
+        List<TranscriptionJob> followers = repository.findByDuplicateOfJobIdAndStatus(
+                originalId, TranscriptionJob.Status.UPLOADED);
+
+        if (!followers.isEmpty()) {
+            promote(originalId, followers);
+        }
+    }
+
+    /**
+     * Resolve os duplicados que ficaram aguardando um original que já terminou
+     * ou não existe mais (queda do nó entre o fim do original e a propagação,
+     * remoção do original, limpeza por retenção)
+     *
+     * @return quantidade de duplicados concluídos, marcados com erro ou promovidos
+     */
+    @Transactional
+    public int releaseStrandedFollowers() {
+        return release(repository.lockStrandedFollowers(SWEEP_BATCH_SIZE));
+    }
+
+    /**
+     * Resolve os duplicados de jobs encerrados que a limpeza vai remover
+     *
+     * Roda na transação da limpeza, antes do DELETE dos originais e dos seus resultados.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onOriginalsPurged(Collection<Long> originalIds) {
+        int released = release(repository.findByDuplicateOfJobIdInAndStatus(
+                originalIds, TranscriptionJob.Status.UPLOADED));
+
+        if (released > 0) {
+            log.info("{} job(s) duplicado(s) resolvidos antes da remoção dos originais", released);
+        }
+    }
+
+    /**
+     * Resolve um job duplicado a partir do job original, se este já terminou
+     *
+     * @return true se o job foi concluído ou marcado com erro
+     */
+    public boolean resolveFollower(TranscriptionJob follower, TranscriptionJob leader) {
+        if (leader.isCompleted()) {
+            follower.markAsCompleted();
+            transcriptionResultService.copy(leader.getId(), follower.getId());
+        } else if (leader.hasError()) {
+            follower.markAsError("Job original " + leader.getId() + " falhou: " + leader.getErrorMessage());
+        } else {
+            return false;
+        }
+
+        repository.save(follower);
+        return true;
+    }
+
+    private int release(List<TranscriptionJob> followers) {
+        Map<Long, List<TranscriptionJob>> byOriginal = followers.stream().collect(Collectors.groupingBy(
+                TranscriptionJob::getDuplicateOfJobId, LinkedHashMap::new, Collectors.toList()));
+
+        int released = 0;
+        for (Map.Entry<Long, List<TranscriptionJob>> entry : byOriginal.entrySet()) {
+            Optional<TranscriptionJob> original = repository.findById(entry.getKey());
+            if (original.isEmpty()) {
+                promote(entry.getKey(), entry.getValue());
+                released += entry.getValue().size();
+                continue;
+            }
+
+            for (TranscriptionJob follower : entry.getValue()) {
+                if (resolveFollower(follower, original.get())) {
+                    released++;
+                }
+            }
+        }
+
+        return released;
+    }
+
+    /**
+     * Passa os duplicados de um original removido para o original em andamento com o
+     * mesmo conteúdo, se houver, ou promove o mais antigo deles a original
+     */
+    private void promote(Long originalId, List<TranscriptionJob> followers) {
+        TranscriptionJob first = followers.stream().min(Comparator.comparing(TranscriptionJob::getId)).orElseThrow();
+
+        TranscriptionJob leader = repository.lockInFlightByContentHashAndLanguage(
+                first.getContentHash(), first.getLanguage()).stream().findFirst().orElse(null);
+        if (leader == null) {
+            leader = first;
+            leader.setDuplicateOfJobId(null);
+            repository.save(leader);
+            log.info("Job {} promovido a original no lugar do job {}, removido antes de terminar",
+                    leader.getId(), originalId);
+        }
+
+        for (TranscriptionJob follower : followers) {
+            if (follower != leader) {
+                follower.setDuplicateOfJobId(leader.getId());
+                repository.save(follower);
+            }
+        }
+    }
+
+    private boolean isInFlightConflict(RuntimeException e) {
+        if (e instanceof PessimisticLockingFailureException) {
+            return true;
+        }
+        String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.contains(IN_FLIGHT_INDEX);
+    }
+}
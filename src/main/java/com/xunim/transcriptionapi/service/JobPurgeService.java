@@ -0,0 +1,187 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.JobFileView;
+import com.xunim.transcriptionapi.repository.TranscriptionChunkRepository;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import com.xunim.transcriptionapi.repository.TranscriptionResultRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Remoção em massa de jobs antigos (retenção)
+ *
+ * Percorre os jobs em páginas por id (keyset), lendo só id, arquivo e tamanho. Cada
+ * página é removida do banco em uma transação curta (checkpoints, resultado e job,
+ * um DELETE ... IN por tabela) e os arquivos são apagados em paralelo no
+ * cleanupExecutor enquanto a próxima página é lida. A memória fica limitada ao
+ * tamanho da página, seja qual for o acúmulo.
+ *
+ * As linhas saem do banco antes dos arquivos: se a remoção de um arquivo falhar,
+ * sobra um arquivo órfão (removido depois pelo cleanOrphanedFiles), nunca um job
+ * apontando para um arquivo apagado.
+ *
+ * Só jobs encerrados (DONE ou ERROR) são removidos: um job na fila ou em processamento
+ * teria o arquivo apagado sob o worker. Duplicados que ainda aguardam um original
+ * removido são resolvidos na mesma transação da página.
+ */
+@Slf4j
+@Service
+public class JobPurgeService {
+
+    // Status que a limpeza pode remover
+    public static final Set<TranscriptionJob.Status> FINISHED =
+            EnumSet.of(TranscriptionJob.Status.DONE, TranscriptionJob.Status.ERROR);
+
+    private final TranscriptionJobRepository repository;
+    private final TranscriptionChunkRepository chunkRepository;
+    private final TranscriptionResultRepository resultRepository;
+    private final FileCleanupService fileCleanupService;
+    private final JobStatusCounters jobStatusCounters;
+    private final JobDeduplicationService deduplicationService;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor cleanupExecutor;
+    private final int pageSize;
+
+    public JobPurgeService(
+            TranscriptionJobRepository repository,
+            TranscriptionChunkRepository chunkRepository,
+            TranscriptionResultRepository resultRepository,
+            FileCleanupService fileCleanupService,
+            JobStatusCounters jobStatusCounters,
+            JobDeduplicationService deduplicationService,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("cleanupExecutor") Executor cleanupExecutor,
+            @Value("${storage.cleanup.page-size:500}") int pageSize) {
+        this.repository = repository;
+        this.chunkRepository = chunkRepository;
+        this.resultRepository = resultRepository;
+        this.fileCleanupService = fileCleanupService;
+        this.jobStatusCounters = jobStatusCounters;
+        this.deduplicationService = deduplicationService;
+        this.transactionTemplate = transactionTemplate;
+        this.cleanupExecutor = cleanupExecutor;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Remove os jobs nos status informados criados antes de cutoff, com arquivos,
+     * checkpoints e resultado
+     *
+     * @param statuses status encerrados (ver {@link #FINISHED})
+     * @throws IllegalArgumentException se algum status é de job na fila ou em processamento
+     */
+    public PurgeResult purgeCreatedBefore(Collection<TranscriptionJob.Status> statuses, LocalDateTime cutoff) {
+        if (!FINISHED.containsAll(statuses)) {
+            throw new IllegalArgumentException("A limpeza só remove jobs encerrados (DONE ou ERROR): " + statuses);
+        }
+
+        int deleted = 0;
+        int failed = 0;
+        long freedBytes = 0;
+        for (TranscriptionJob.Status status : EnumSet.copyOf(statuses)) {
+            PurgeResult result = purgeCreatedBefore(status, cutoff);
+            deleted += result.getDeleted();
+            failed += result.getFailed();
+            freedBytes += result.getFreedBytes();
+        }
+        return new PurgeResult(deleted, failed, freedBytes);
+    }
+
+    private PurgeResult purgeCreatedBefore(TranscriptionJob.Status status, LocalDateTime cutoff) {
+        int deleted = 0;
+        int failed = 0;
+        long freedBytes = 0;
+        long afterId = 0;
+        CompletableFuture<Void> pendingFiles = CompletableFuture.completedFuture(null);
+
+        while (true) {
+            List<JobFileView> page = repository.findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                    status, cutoff, afterId, Limit.of(pageSize));
+            if (page.isEmpty()) {
+                break;
+            }
+            afterId = page.get(page.size() - 1).getId();
+
+            try {
+                deleteRows(page);
+            } catch (RuntimeException e) {
+                // A página fica para a próxima execução; os arquivos não são tocados
+                log.error("Erro ao remover {} job(s) a partir do id {}", page.size(), page.get(0).getId(), e);
+                failed += page.size();
+                continue;
+            }
+
+            // Espera os arquivos da página anterior antes de enfileirar os desta
+            pendingFiles.join();
+            pendingFiles = deleteFiles(page);
+
+            deleted += page.size();
+            for (JobFileView job : page) {
+                freedBytes += job.getFileSizeBytes() != null ? job.getFileSizeBytes() : 0;
+            }
+            log.debug("{} job(s) removido(s) até o id {}", deleted, afterId);
+        }
+
+        pendingFiles.join();
+        return new PurgeResult(deleted, failed, freedBytes);
+    }
+
+    private void deleteRows(List<JobFileView> page) {
+        List<Long> ids = page.stream().map(JobFileView::getId).toList();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Antes do DELETE: os duplicados ainda copiam o resultado dos originais
+            deduplicationService.onOriginalsPurged(ids);
+            chunkRepository.deleteByJobIds(ids);
+            resultRepository.deleteByJobIds(ids);
+            repository.deleteByIds(ids);
+        });
+
+        // DELETE em massa não passa pelo JobStatusListener
+        for (JobFileView job : page) {
+            jobStatusCounters.onTransition(job.getStatus(), null, job.getLanguage(), job.getCreatedAt());
+        }
+    }
+
+    private CompletableFuture<Void> deleteFiles(List<JobFileView> page) {
+        CompletableFuture<?>[] deletions = page.stream()
+                .map(job -> CompletableFuture
+                        .runAsync(() -> fileCleanupService.deleteFileAndChunks(job.getFilePath()), cleanupExecutor)
+                        .exceptionally(e -> {
+                            log.error("Erro ao apagar arquivos do job {}", job.getId(), e);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(deletions);
+    }
+
+    /**
+     * Resultado de uma limpeza
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PurgeResult {
+
+        private final int deleted;
+
+        // Jobs que ficaram no banco por erro na remoção
+        private final int failed;
+
+        private final long freedBytes;
+    }
+}
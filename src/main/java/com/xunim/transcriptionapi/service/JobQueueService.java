@@ -0,0 +1,197 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Fila persistente de jobs sobre a tabela transcription_job
+ *
+ * Jobs em UPLOADED são a fila. Cada worker trava os próximos jobs com
+ * SELECT ... FOR UPDATE SKIP LOCKED e os marca como PROCESSING com um lease
+ * em nome do nó. O nó renova o lease enquanto processa; se ele cair, o lease
+ * vence e o reaper devolve o job à fila para qualquer nó, até o limite de tentativas.
+ */
+@Service
+@Slf4j
+public class JobQueueService {
+
+    private static final int REAPER_BATCH_SIZE = 100;
+
+    private final TranscriptionJobRepository repository;
+    private final JobDeduplicationService deduplicationService;
+    private final TranscriptionResultService transcriptionResultService;
+    private final JobStatusCounters jobStatusCounters;
+    private final String nodeId;
+
+    @Value("${transcription.queue.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${transcription.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    public JobQueueService(TranscriptionJobRepository repository,
+                           JobDeduplicationService deduplicationService,
+                           TranscriptionResultService transcriptionResultService,
+                           JobStatusCounters jobStatusCounters,
+                           @Value("${transcription.queue.node-id:}") String nodeId) {
+        this.repository = repository;
+        this.deduplicationService = deduplicationService;
+        this.transcriptionResultService = transcriptionResultService;
+        this.jobStatusCounters = jobStatusCounters;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Retira até {@code limit} jobs da fila para processamento neste nó
+     *
+     * @return jobs já marcados como PROCESSING com lease deste nó
+     */
+    @Transactional
+    public List<TranscriptionJob> claim(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TranscriptionJob> available = repository.lockNextAvailable(now, limit);
+
+        List<TranscriptionJob> claimed = new ArrayList<>(available.size());
+        for (TranscriptionJob job : available) {
+            job.markAsClaimed(nodeId, now.plusSeconds(leaseSeconds));
+            claimed.add(repository.save(job));
+        }
+
+        return claimed;
+    }
+
+    /**
+     * Renova o lease dos jobs em processamento neste nó
+     *
+     * @return quantidade de leases renovados (menor que ids.size() se algum foi perdido)
+     */
+    @Transactional
+    public int renewLeases(Collection<Long> jobIds) {
+        if (jobIds.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return repository.renewLeases(jobIds, nodeId, now, now.plusSeconds(leaseSeconds));
+    }
+
+    /**
+     * Grava o fim do processamento (concluído, com erro ou adiado) se o job ainda é deste nó
+     *
+     * O UPDATE só altera a linha com lease deste nó e status PROCESSING, então não há
+     * janela entre conferir o lease e gravar: se o reaper ou outro nó retomou o job,
+     * nada é gravado, nem o texto. Os duplicados que aguardavam o job recebem o
+     * resultado no mesmo commit.
+     *
+     * @return false se o job não pertence mais a este nó
+     */
+    @Transactional
+    public boolean finish(TranscriptionJob job, String text) {
+        int updated = repository.finishIfOwned(job.getId(), nodeId, job.getStatus(), job.getCompletedAt(),
+                job.getErrorMessage(), job.getVisibleAfter(), job.getAttempts(), job.getChunkCount(),
+                job.getChunkBytes());
+        if (updated == 0) {
+            return false;
+        }
+
+        // Mesma transação do status: um job DONE sempre tem resultado
+        if (job.isCompleted()) {
+            transcriptionResultService.save(job.getId(), text);
+        }
+
+        // Também na mesma transação: uma queda depois do commit não deixa duplicados aguardando
+        if (job.isCompleted() || job.hasError()) {
+            deduplicationService.onJobFinished(job);
+        }
+
+        // UPDATE em massa não passa pelo JobStatusListener
+        TranscriptionJob.Status status = job.getStatus();
+        jobStatusCounters.afterCommit(() -> jobStatusCounters.onTransition(
+                TranscriptionJob.Status.PROCESSING, status, job.getLanguage(), job.getCreatedAt()));
+        return true;
+    }
+
+    /**
+     * Devolve à fila os jobs cujo lease venceu (nó caiu ou travou)
+     *
+     * Os chunks já transcritos continuam no cache, então o próximo nó
+     * retoma o job sem chamar o Whisper de novo para eles.
+     *
+     * @return quantidade de jobs recuperados
+     */
+    @Transactional
+    public int reapExpiredLeases() {
+        List<TranscriptionJob> expired = repository.lockExpiredLeases(LocalDateTime.now(), REAPER_BATCH_SIZE);
+
+        for (TranscriptionJob job : expired) {
+            reclaim(job);
+        }
+
+        return expired.size();
+    }
+
+    /**
+     * Retoma na hora um job cujo lease venceu, pelo mesmo caminho do reaper
+     * (reprocessamento pedido pelo usuário)
+     *
+     * @return o job devolvido à fila ou marcado com erro; vazio se o job não está em
+     *         processamento com lease vencido ou se outro nó o está retomando
+     */
+    @Transactional
+    public Optional<TranscriptionJob> reclaimExpiredLease(Long jobId) {
+        Optional<TranscriptionJob> expired = repository.lockExpiredLease(jobId, LocalDateTime.now());
+        expired.ifPresent(this::reclaim);
+        return expired;
+    }
+
+    private void reclaim(TranscriptionJob job) {
+        int attempts = job.getAttempts() != null ? job.getAttempts() : 0;
+        String owner = job.getLeaseOwner();
+
+        if (attempts >= maxAttempts) {
+            job.markAsError("Job abandonado após " + attempts + " tentativas de processamento");
+            repository.save(job);
+            deduplicationService.onJobFinished(job);
+
+            log.warn("Job {} marcado com erro: lease de {} vencido e limite de {} tentativas atingido",
+                    job.getId(), owner, maxAttempts);
+            return;
+        }
+
+        log.warn("Job {} devolvido à fila: lease do nó {} vencido (último heartbeat: {})",
+                job.getId(), owner, job.getHeartbeatAt());
+
+        job.markAsRequeued();
+        repository.save(job);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid();
+    }
+}
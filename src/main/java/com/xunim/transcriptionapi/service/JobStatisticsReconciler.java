@@ -0,0 +1,42 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.HourlyStatusCountView;
+import com.xunim.transcriptionapi.repository.StatusCountView;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Recalcula os contadores de status a partir do banco
+ *
+ * Roda na subida (o agendamento começa sem atraso) e depois a cada intervalo, corrigindo
+ * transições que não passaram pelo JobStatusListener (updates em massa, outros nós).
+ * Separado do JobStatusCounters para o listener não depender do repositório.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JobStatisticsReconciler {
+
+    private final TranscriptionJobRepository repository;
+    private final JobStatusCounters counters;
+
+    @Scheduled(fixedDelayString = "${transcription.stats.reconcile-interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        long start = System.nanoTime();
+
+        List<StatusCountView> byLanguage = repository.countByStatusAndLanguage();
+        List<HourlyStatusCountView> byHour = repository.countByStatusAndHourSince(counters.hourWindowStart());
+        long waiting = repository.countByStatusAndDuplicateOfJobIdIsNotNull(TranscriptionJob.Status.UPLOADED);
+        counters.reconcile(byLanguage, byHour, waiting);
+
+        log.debug("Contadores de status reconciliados em {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+}
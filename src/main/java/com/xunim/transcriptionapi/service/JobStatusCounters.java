@@ -0,0 +1,221 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.dto.JobStatistics;
+import com.xunim.transcriptionapi.model.TranscriptionJob.Status;
+import com.xunim.transcriptionapi.repository.HourlyStatusCountView;
+import com.xunim.transcriptionapi.repository.StatusCountView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores em memória dos jobs por status, idioma e hora de criação
+ *
+ * Atualizados a cada transição de status pelo JobStatusListener e substituídos
+ * periodicamente pelo resultado do GROUP BY no banco (JobStatisticsReconciler).
+ * Cada contador é um LongAdder, então transições concorrentes não disputam a mesma
+ * célula e o /stats não consulta o banco.
+ *
+ * Duplicados aguardando o job original (UPLOADED com duplicateOfJobId) continuam
+ * contados como UPLOADED e também em "waiting", para não aparecerem como fila.
+ */
+@Slf4j
+@Component
+public class JobStatusCounters {
+
+    // Chave dos jobs sem idioma (detecção automática)
+    static final String AUTO_LANGUAGE = "auto";
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Value("${transcription.stats.hour-window:48}")
+    private int hourWindow;
+
+    private final AtomicReference<Counters> current = new AtomicReference<>(new Counters(null));
+
+    /**
+     * Aplica uma transição de status: from nulo = job criado, to nulo = job removido
+     */
+    public void onTransition(Status from, Status to, String language, LocalDateTime createdAt) {
+        Counters counters = current.get();
+        counters.add(from, language, createdAt, -1);
+        counters.add(to, language, createdAt, 1);
+    }
+
+    /**
+     * Aplica a atualização dos contadores depois do commit da transação atual (ou já, fora de
+     * uma transação), para um rollback não deixar os contadores à frente do banco
+     */
+    public void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Um duplicado passou a aguardar o job original (+1) ou deixou de aguardar (-1)
+     */
+    public void onWaitingChanged(long delta) {
+        if (delta != 0) {
+            current.get().waiting.add(delta);
+        }
+    }
+
+    /**
+     * Substitui os contadores pelas contagens lidas do banco
+     *
+     * Transições aplicadas durante a consulta podem ser perdidas ou contadas duas vezes;
+     * a próxima reconciliação corrige.
+     */
+    public void reconcile(List<StatusCountView> byLanguage, List<HourlyStatusCountView> byHour, long waiting) {
+        Counters fresh = new Counters(LocalDateTime.now());
+        fresh.waiting.add(waiting);
+        for (StatusCountView row : byLanguage) {
+            fresh.total.add(row.getStatus(), row.getTotal());
+            fresh.language(row.getLanguage()).add(row.getStatus(), row.getTotal());
+        }
+        for (HourlyStatusCountView row : byHour) {
+            LocalDateTime hour = LocalDateTime.parse(row.getHour(), HOUR_FORMAT);
+            fresh.byHour.computeIfAbsent(hour, key -> new StatusCounts())
+                    .add(Status.valueOf(row.getStatus()), row.getTotal());
+        }
+
+        Counters previous = current.getAndSet(fresh);
+        if (previous.reconciledAt != null && !previous.total.toMap().equals(fresh.total.toMap())) {
+            log.info("Contadores de status corrigidos na reconciliação: {} -> {}",
+                    previous.total.toMap(), fresh.total.toMap());
+        }
+    }
+
+    /**
+     * Início da janela do detalhamento por hora
+     */
+    public LocalDateTime hourWindowStart() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(hourWindow - 1L);
+    }
+
+    /**
+     * Estatísticas atuais, sem acesso ao banco
+     */
+    public JobStatistics snapshot() {
+        Counters counters = current.get();
+        LocalDateTime windowStart = hourWindowStart();
+        counters.byHour.headMap(windowStart).clear();
+
+        Map<String, Map<String, Long>> byLanguage = new TreeMap<>();
+        counters.byLanguage.forEach((language, counts) -> byLanguage.put(language, counts.toMap()));
+
+        Map<String, Map<String, Long>> byHour = new LinkedHashMap<>();
+        counters.byHour.forEach((hour, counts) -> byHour.put(hour.format(HOUR_FORMAT), counts.toMap()));
+
+        StatusCounts total = counters.total;
+        return JobStatistics.builder()
+                .total(total.total())
+                .processing(total.get(Status.PROCESSING))
+                .completed(total.get(Status.DONE))
+                .errors(total.get(Status.ERROR))
+                .waiting(Math.max(0, counters.waiting.sum()))
+                .byLanguage(byLanguage)
+                .byHour(byHour)
+                .reconciledAt(counters.reconciledAt)
+                .build();
+    }
+
+    private static String languageKey(String language) {
+        return language == null || language.isBlank() ? AUTO_LANGUAGE : language;
+    }
+
+    /**
+     * Conjunto de contadores trocado inteiro a cada reconciliação
+     */
+    private static final class Counters {
+
+        private final StatusCounts total = new StatusCounts();
+        private final LongAdder waiting = new LongAdder();
+        private final Map<String, StatusCounts> byLanguage = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<LocalDateTime, StatusCounts> byHour = new ConcurrentSkipListMap<>();
+        private final LocalDateTime reconciledAt;
+
+        private Counters(LocalDateTime reconciledAt) {
+            this.reconciledAt = reconciledAt;
+        }
+
+        private StatusCounts language(String language) {
+            return byLanguage.computeIfAbsent(languageKey(language), key -> new StatusCounts());
+        }
+
+        private void add(Status status, String language, LocalDateTime createdAt, long delta) {
+            if (status == null) {
+                return;
+            }
+            total.add(status, delta);
+            language(language).add(status, delta);
+            if (createdAt != null) {
+                byHour.computeIfAbsent(createdAt.truncatedTo(ChronoUnit.HOURS), key -> new StatusCounts())
+                        .add(status, delta);
+            }
+        }
+    }
+
+    /**
+     * Um LongAdder por status; o mapa não muda depois de construído
+     */
+    private static final class StatusCounts {
+
+        private final Map<Status, LongAdder> counts = new EnumMap<>(Status.class);
+
+        private StatusCounts() {
+            for (Status status : Status.values()) {
+                counts.put(status, new LongAdder());
+            }
+        }
+
+        private void add(Status status, long delta) {
+            counts.get(status).add(delta);
+        }
+
+        private long get(Status status) {
+            // Uma remoção aplicada antes da criação correspondente pode deixar o valor negativo por instantes
+            return Math.max(0, counts.get(status).sum());
+        }
+
+        private long total() {
+            long total = 0;
+            for (Status status : Status.values()) {
+                total += get(status);
+            }
+            return total;
+        }
+
+        private Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (Status status : Status.values()) {
+                map.put(status.name().toLowerCase(), get(status));
+            }
+            map.put("total", total());
+            return map;
+        }
+    }
+}
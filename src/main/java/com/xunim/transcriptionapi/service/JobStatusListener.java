@@ -0,0 +1,65 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.model.TranscriptionJob.Status;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listener JPA do TranscriptionJob que repassa as transições de status para os contadores
+ *
+ * Duplicados aguardando o job original são contados à parte (não estão na fila).
+ *
+ * Instanciado pelo Hibernate através do contêiner do Spring. Dentro de uma transação,
+ * a transição só é contada depois do commit, para um rollback não deixar os contadores
+ * à frente do banco.
+ */
+@Component
+@RequiredArgsConstructor
+public class JobStatusListener {
+
+    private final JobStatusCounters counters;
+
+    @PostLoad
+    public void onLoad(TranscriptionJob job) {
+        job.setPersistedStatus(job.getStatus());
+        job.setPersistedWaiting(job.isWaitingForOriginal());
+    }
+
+    @PostPersist
+    public void onPersist(TranscriptionJob job) {
+        record(job, null, job.getStatus(), false, job.isWaitingForOriginal());
+    }
+
+    @PostUpdate
+    public void onUpdate(TranscriptionJob job) {
+        boolean waiting = job.isWaitingForOriginal();
+        if (job.getPersistedStatus() != job.getStatus() || job.isPersistedWaiting() != waiting) {
+            record(job, job.getPersistedStatus(), job.getStatus(), job.isPersistedWaiting(), waiting);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(TranscriptionJob job) {
+        record(job, job.getPersistedStatus(), null, job.isPersistedWaiting(), false);
+    }
+
+    private void record(TranscriptionJob job, Status from, Status to, boolean wasWaiting, boolean waiting) {
+        job.setPersistedStatus(to);
+        job.setPersistedWaiting(waiting);
+        String language = job.getLanguage();
+        LocalDateTime createdAt = job.getCreatedAt();
+        counters.afterCommit(() -> {
+            if (from != to) {
+                counters.onTransition(from, to, language, createdAt);
+            }
+            counters.onWaitingChanged(Boolean.compare(waiting, wasWaiting));
+        });
+    }
+}
@@ -0,0 +1,363 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.dto.TranscriptionJobResponse;
+import com.xunim.transcriptionapi.exception.FileStorageException;
+import com.xunim.transcriptionapi.exception.InvalidFileException;
+import com.xunim.transcriptionapi.exception.ResourceNotFoundException;
+import com.xunim.transcriptionapi.exception.UploadInterruptedException;
+import com.xunim.transcriptionapi.model.UploadSession;
+import com.xunim.transcriptionapi.repository.UploadSessionRepository;
+import com.xunim.transcriptionapi.validator.AudioFileValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Upload retomável em partes (no estilo do protocolo tus)
+ *
+ * 1. Cria a sessão informando nome e tamanho total do arquivo
+ * 2. Envia partes com o offset atual; cada parte é gravada e sincronizada em disco
+ * 3. Se a conexão cair, consulta o offset e continua de onde parou
+ * 4. Finaliza: o arquivo completo é validado e vira um TranscriptionJob; a sessão
+ *    é travada no banco e o job, a sessão e o arquivo mudam juntos ou nada muda
+ *
+ * Sessões não finalizadas expiram após storage.upload-session.expiry-hours
+ * sem receber dados e são removidas pelo ScheduledCleanupService.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private static final String PARTIAL_DIR_NAME = ".partial";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository repository;
+    private final AudioFileValidator audioFileValidator;
+    private final UploadStorageService uploadStorageService;
+    private final TranscriptionService transcriptionService;
+    private final JobDeduplicationService deduplicationService;
+
+    @Value("${storage.upload-dir:uploads}")
+    private String uploadDir;
+
+    @Value("${storage.upload-session.expiry-hours:24}")
+    private long expiryHours;
+
+    // Evita duas partes gravando na mesma sessão ao mesmo tempo neste nó
+    private final ConcurrentHashMap<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public UploadSession createSession(String fileName, String contentType, long uploadLength,
+                                       String language, Integer maxSegmentSeconds) {
+
+        audioFileValidator.validateMetadata(fileName, contentType, uploadLength);
+
+        String id = UUID.randomUUID().toString();
+        Path partialFile = Paths.get(uploadDir, PARTIAL_DIR_NAME, id + ".part");
+
+        try {
+            Files.createDirectories(partialFile.getParent());
+            Files.createFile(partialFile);
+        } catch (IOException e) {
+            log.error("Erro ao criar arquivo parcial: {}", partialFile, e);
+            throw new FileStorageException("Não foi possível iniciar o upload", e);
+        }
+
+        UploadSession session = UploadSession.builder()
+                .id(id)
+                .fileName(audioFileValidator.sanitizeFilename(fileName))
+                .contentType(contentType)
+                .language(language)
+                .maxSegmentSeconds(maxSegmentSeconds)
+                .uploadLength(uploadLength)
+                .uploadOffset(0L)
+                .partialFilePath(partialFile.toString())
+                .expiresAt(LocalDateTime.now().plusHours(expiryHours))
+                .build();
+
+        session = repository.save(session);
+
+        log.info("Sessão de upload {} criada: arquivo='{}', tamanho={} MB",
+                id, session.getFileName(), uploadLength / (1024 * 1024));
+
+        return session;
+    }
+
+    public UploadSession getSession(String id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Sessão de upload não encontrada com ID: " + id
+                ));
+    }
+
+    /**
+     * Grava uma parte do arquivo a partir do offset informado
+     *
+     * O offset precisa ser exatamente a quantidade de bytes já recebida.
+     * Se a conexão cair no meio da parte, os bytes recebidos até ali são mantidos
+     * (UploadInterruptedException). Se a gravação falhar (disco cheio, etc.) a parte
+     * é descartada e o offset não muda (FileStorageException).
+     */
+    public UploadSession appendChunk(String id, long offset, InputStream body) {
+        ReentrantLock lock = locks.computeIfAbsent(id, key -> new ReentrantLock());
+
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("Já existe um envio em andamento para a sessão " + id);
+        }
+
+        try {
+            UploadSession session = getActiveSession(id);
+
+            if (offset != session.getUploadOffset()) {
+                throw new IllegalStateException(String.format(
+                        "Offset %d não corresponde ao offset atual da sessão (%d)", offset, session.getUploadOffset()));
+            }
+
+            Path partialFile = Paths.get(session.getPartialFilePath());
+            long written;
+            UploadInterruptedException readFailure = null;
+
+            try (FileChannel channel = FileChannel.open(partialFile, StandardOpenOption.WRITE)) {
+                try {
+                    written = copyAt(body, channel, offset, session.getRemainingBytes());
+                } catch (UploadInterruptedException e) {
+                    // Conexão do cliente interrompida: mantém o que foi gravado
+                    readFailure = e;
+                    written = Math.max(0, channel.size() - offset);
+                } catch (IOException | InvalidFileException e) {
+                    // Falha de gravação ou parte maior que o declarado: descarta a parte inteira
+                    channel.truncate(offset);
+                    throw e;
+                }
+
+                channel.truncate(offset + written);
+                channel.force(false);
+
+            } catch (IOException e) {
+                log.error("Erro ao gravar parte da sessão {}", id, e);
+                throw new FileStorageException("Não foi possível gravar a parte enviada", e);
+            }
+
+            session.setUploadOffset(offset + written);
+            session.setUpdatedAt(LocalDateTime.now());
+            session.setExpiresAt(LocalDateTime.now().plusHours(expiryHours));
+            session = repository.save(session);
+
+            log.debug("Sessão {}: {} bytes recebidos ({}/{})",
+                    id, written, session.getUploadOffset(), session.getUploadLength());
+
+            if (readFailure != null) {
+                throw new UploadInterruptedException(
+                        "Envio interrompido no offset " + session.getUploadOffset(), readFailure.getCause());
+            }
+
+            return session;
+
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Finaliza o upload completo e cria o job de transcrição
+     *
+     * O arquivo é validado e tem o hash calculado antes da transação (depois de completo
+     * ele não muda mais). Na transação a sessão é travada com SELECT ... FOR UPDATE:
+     * uma finalização concorrente espera e encontra a sessão já finalizada.
+     */
+    public TranscriptionJobResponse finalizeSession(String id, Integer maxSegmentSeconds) {
+        UploadSession session = getActiveSession(id);
+
+        if (!session.isComplete()) {
+            throw new IllegalStateException(String.format(
+                    "Upload incompleto: %d de %d bytes recebidos", session.getUploadOffset(), session.getUploadLength()));
+        }
+
+        Path partialFile = Paths.get(session.getPartialFilePath());
+        Path target = uploadStorageService.newUploadPath(session.getFileName());
+
+        StoredUpload stored;
+        try {
+            stored = uploadStorageService.inspect(partialFile, target);
+        } catch (InvalidFileException e) {
+            discard(session);
+            throw e;
+        } catch (IOException e) {
+            log.error("Erro ao finalizar sessão de upload {}", id, e);
+            throw new FileStorageException("Não foi possível finalizar o upload", e);
+        }
+
+        TranscriptionJobResponse job = deduplicationService.retryOnConcurrentOriginal(
+                () -> finalizeLocked(id, stored, maxSegmentSeconds));
+        locks.remove(id);
+
+        log.info("Sessão de upload {} finalizada no job {}", id, job.getId());
+        return job;
+    }
+
+    public void cancelSession(String id) {
+        UploadSession session = getSession(id);
+        discard(session);
+        log.info("Sessão de upload {} cancelada", id);
+    }
+
+    /**
+     * Remove sessões ativas expiradas e registros de sessões finalizadas antigas
+     *
+     * @return quantidade de sessões removidas
+     */
+    public int cleanExpiredSessions(LocalDateTime finalizedCutoff) {
+        List<UploadSession> expired = repository.findByStatusAndExpiresAtBefore(
+                UploadSession.Status.ACTIVE, LocalDateTime.now());
+        List<UploadSession> finalized = repository.findByStatusAndUpdatedAtBefore(
+                UploadSession.Status.FINALIZED, finalizedCutoff);
+
+        int removed = 0;
+        for (UploadSession session : expired) {
+            try {
+                discard(session);
+                removed++;
+            } catch (Exception e) {
+                log.error("Erro ao remover sessão de upload expirada {}", session.getId(), e);
+            }
+        }
+
+        repository.deleteAll(finalized);
+        return removed + finalized.size();
+    }
+
+    // ==================== Métodos Auxiliares ====================
+
+    /**
+     * Cria o job e marca a sessão como finalizada com a sessão travada
+     *
+     * Roda dentro da transação de retryOnConcurrentOriginal. O arquivo vai para o
+     * destino antes do job ser criado (o job lê o cabeçalho dele), mas o job só fica
+     * visível no commit; se a transação for desfeita, o arquivo volta para a sessão.
+     */
+    private TranscriptionJobResponse finalizeLocked(String id, StoredUpload stored, Integer maxSegmentSeconds) {
+        UploadSession session = repository.lockById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "Sessão de upload não encontrada com ID: " + id
+                ));
+
+        if (!session.isActive()) {
+            throw new IllegalStateException("Sessão de upload já finalizada no job " + session.getJobId());
+        }
+
+        moveIntoStorage(Paths.get(session.getPartialFilePath()), stored.getPath());
+
+        Integer segmentSeconds = maxSegmentSeconds != null ? maxSegmentSeconds : session.getMaxSegmentSeconds();
+        TranscriptionJobResponse job = transcriptionService.createJobFromUpload(
+                stored, session.getFileName(), session.getLanguage(), segmentSeconds);
+
+        session.markAsFinalized(job.getId());
+        repository.save(session);
+        return job;
+    }
+
+    private void moveIntoStorage(Path partialFile, Path target) {
+        try {
+            uploadStorageService.move(partialFile, target);
+        } catch (IOException e) {
+            log.error("Erro ao mover o upload {} para {}", partialFile, target, e);
+            throw new FileStorageException("Não foi possível finalizar o upload", e);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        restorePartialFile(target, partialFile);
+                    }
+                }
+            });
+        }
+    }
+
+    // Compensação: sem o job, o arquivo volta para a sessão, que continua ativa
+    private void restorePartialFile(Path target, Path partialFile) {
+        try {
+            uploadStorageService.move(target, partialFile);
+        } catch (IOException e) {
+            log.error("Não foi possível devolver {} para a sessão de upload ({})", target, partialFile, e);
+        }
+    }
+
+    private UploadSession getActiveSession(String id) {
+        UploadSession session = getSession(id);
+
+        if (!session.isActive()) {
+            throw new IllegalStateException("Sessão de upload já finalizada no job " + session.getJobId());
+        }
+
+        if (session.isExpired()) {
+            throw new ResourceNotFoundException("Sessão de upload expirada: " + id);
+        }
+
+        return session;
+    }
+
+    private long copyAt(InputStream body, FileChannel channel, long offset, long maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long position = offset;
+        long written = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(body)) {
+            while (read(source, buffer) != -1) {
+                buffer.flip();
+
+                written += buffer.remaining();
+                if (written > maxBytes) {
+                    throw new InvalidFileException(
+                            "A parte enviada excede o tamanho total declarado para o upload");
+                }
+
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+        }
+        return written;
+    }
+
+    // Separa as falhas de leitura do cliente das falhas de gravação em disco
+    private int read(ReadableByteChannel source, ByteBuffer buffer) {
+        try {
+            return source.read(buffer);
+        } catch (IOException e) {
+            throw new UploadInterruptedException("Envio interrompido pelo cliente", e);
+        }
+    }
+
+    private void discard(UploadSession session) {
+        try {
+            Files.deleteIfExists(Paths.get(session.getPartialFilePath()));
+        } catch (IOException e) {
+            log.warn("Não foi possível remover o arquivo parcial {}", session.getPartialFilePath(), e);
+        }
+        repository.delete(session);
+        locks.remove(session.getId());
+    }
+}
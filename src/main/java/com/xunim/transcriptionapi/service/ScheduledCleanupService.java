@@ -1,15 +1,19 @@
 package com.xunim.transcriptionapi.service;
 
+import com.xunim.transcriptionapi.dto.JobStatistics;
 import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.JobFileView;
 import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 
 @Service
@@ -19,6 +23,9 @@ public class ScheduledCleanupService {
 
     private final TranscriptionJobRepository repository;
     private final FileCleanupService fileCleanupService;
+    private final ResumableUploadService resumableUploadService;
+    private final JobPurgeService jobPurgeService;
+    private final JobStatusCounters jobStatusCounters;
 
     @Value("${storage.retention-days:7}")
     private int retentionDays;
@@ -26,11 +33,16 @@ public class ScheduledCleanupService {
     @Value("${storage.cleanup.enabled:true}")
     private boolean cleanupEnabled;
 
+    @Value("${storage.cleanup.page-size:500}")
+    private int pageSize;
+
     /**
      * Executa limpeza automática diariamente às 3h da manhã
+     *
+     * Em páginas, com transações curtas por página (JobPurgeService). Jobs na fila
+     * ou em processamento ficam, mesmo antigos.
      */
     @Scheduled(cron = "${storage.cleanup.cron:0 0 3 * * ?}")
-    @Transactional
     public void cleanOldJobs() {
         if (!cleanupEnabled) {
             log.info("Limpeza automática está desabilitada");
@@ -40,37 +52,20 @@ public class ScheduledCleanupService {
         log.info("Iniciando limpeza automática de jobs antigos (retenção: {} dias)", retentionDays);
 
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
-        List<TranscriptionJob> oldJobs = repository.findByCreatedAtBefore(cutoffDate);
-
-        int deletedCount = 0;
-        long freedSpace = 0;
-
-        for (TranscriptionJob job : oldJobs) {
-            try {
-                // Calcula espaço antes de deletar
-                long fileSize = job.getFileSizeBytes() != null ? job.getFileSizeBytes() : 0;
-
-                // Deleta arquivos físicos
-                fileCleanupService.deleteFileAndChunks(job.getFilePath());
-
-                // Deleta do banco
-                repository.delete(job);
-
-                deletedCount++;
-                freedSpace += fileSize;
-
-                log.debug("Job {} deletado (criado em: {})", job.getId(), job.getCreatedAt());
-            } catch (Exception e) {
-                log.error("Erro ao deletar job {}", job.getId(), e);
-            }
-        }
+        JobPurgeService.PurgeResult result = jobPurgeService.purgeCreatedBefore(JobPurgeService.FINISHED, cutoffDate);
 
         log.info("Limpeza concluída: {} jobs deletados, ~{} MB liberados",
-                deletedCount, freedSpace / (1024 * 1024));
+                result.getDeleted(), result.getFreedBytes() / (1024 * 1024));
+        if (result.getFailed() > 0) {
+            log.warn("{} job(s) não puderam ser deletados e ficam para a próxima execução", result.getFailed());
+        }
     }
 
     /**
      * Limpa chunks órfãos a cada 6 horas
+     *
+     * Mantém os chunks de jobs com checkpoints (o reprocessamento retoma deles sem
+     * rodar o FFmpeg) e de jobs em processamento.
      */
     @Scheduled(cron = "${storage.cleanup.orphans-cron:0 0 */6 * * ?}")
     public void cleanOrphanedChunks() {
@@ -79,7 +74,7 @@ public class ScheduledCleanupService {
         }
 
         log.info("Iniciando limpeza de chunks órfãos");
-        fileCleanupService.cleanOrphanedFiles();
+        fileCleanupService.cleanOrphanedFiles(repository.findFilePathsWithChunksInUse());
     }
 
     /**
@@ -87,7 +82,6 @@ public class ScheduledCleanupService {
      * (mantém apenas o arquivo original e a transcrição)
      */
     @Scheduled(cron = "${storage.cleanup.completed-chunks-cron:0 0 * * * ?}")
-    @Transactional(readOnly = true)
     public void cleanCompletedJobChunks() {
         if (!cleanupEnabled) {
             return;
@@ -95,21 +89,45 @@ public class ScheduledCleanupService {
 
         log.info("Iniciando limpeza de chunks de jobs concluídos");
 
-        List<TranscriptionJob> completedJobs = repository.findByStatus(TranscriptionJob.Status.DONE);
-
         int cleanedCount = 0;
-        for (TranscriptionJob job : completedJobs) {
-            try {
-                fileCleanupService.deleteChunksDirectory(job.getFilePath());
-                cleanedCount++;
-            } catch (Exception e) {
-                log.error("Erro ao limpar chunks do job {}", job.getId(), e);
+        long afterId = 0;
+        List<JobFileView> page;
+        do {
+            page = repository.findByStatusAndIdGreaterThanOrderById(
+                    TranscriptionJob.Status.DONE, afterId, Limit.of(pageSize));
+            for (JobFileView job : page) {
+                try {
+                    fileCleanupService.deleteChunksDirectory(job.getFilePath());
+                    cleanedCount++;
+                } catch (Exception e) {
+                    log.error("Erro ao limpar chunks do job {}", job.getId(), e);
+                }
+                afterId = job.getId();
             }
-        }
+        } while (page.size() == pageSize);
 
         log.info("Chunks de {} jobs concluídos foram limpos", cleanedCount);
     }
 
+    /**
+     * Remove sessões de upload retomável expiradas a cada 15 minutos
+     * (e registros de sessões já finalizadas após o período de retenção)
+     */
+    @Scheduled(cron = "${storage.cleanup.upload-sessions-cron:0 */15 * * * ?}")
+    @Transactional
+    public void cleanExpiredUploadSessions() {
+        if (!cleanupEnabled) {
+            return;
+        }
+
+        LocalDateTime finalizedCutoff = LocalDateTime.now().minusDays(retentionDays);
+        int removed = resumableUploadService.cleanExpiredSessions(finalizedCutoff);
+
+        if (removed > 0) {
+            log.info("Sessões de upload expiradas removidas: {}", removed);
+        }
+    }
+
     /**
      * Gera relatório de uso de espaço (executa diariamente às 8h)
      */
@@ -120,17 +138,15 @@ public class ScheduledCleanupService {
         }
 
         long totalSize = fileCleanupService.calculateUploadsDirSize();
-        long totalJobs = repository.count();
-        long processingJobs = repository.countByStatus(TranscriptionJob.Status.PROCESSING);
-        long completedJobs = repository.countByStatus(TranscriptionJob.Status.DONE);
-        long errorJobs = repository.countByStatus(TranscriptionJob.Status.ERROR);
+        JobStatistics stats = jobStatusCounters.snapshot();
 
         log.info("=== RELATÓRIO DE ARMAZENAMENTO ===");
         log.info("Espaço total usado: {} MB", totalSize / (1024 * 1024));
-        log.info("Total de jobs: {}", totalJobs);
-        log.info("Jobs em processamento: {}", processingJobs);
-        log.info("Jobs concluídos: {}", completedJobs);
-        log.info("Jobs com erro: {}", errorJobs);
+        log.info("Total de jobs: {}", stats.getTotal());
+        log.info("Jobs em processamento: {}", stats.getProcessing());
+        log.info("Jobs concluídos: {}", stats.getCompleted());
+        log.info("Jobs com erro: {}", stats.getErrors());
+        log.info("Jobs por idioma: {}", stats.getByLanguage());
         log.info("==================================");
     }
 
@@ -138,7 +154,6 @@ public class ScheduledCleanupService {
      * Limpa jobs com erro há mais de N dias
      */
     @Scheduled(cron = "${storage.cleanup.error-jobs-cron:0 0 2 * * ?}")
-    @Transactional
     public void cleanOldErrorJobs() {
         if (!cleanupEnabled) {
             return;
@@ -147,21 +162,13 @@ public class ScheduledCleanupService {
         int errorRetentionDays = 3; // Jobs com erro mantidos por menos tempo
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(errorRetentionDays);
 
-        List<TranscriptionJob> errorJobs = repository.findByStatusAndCreatedAtBefore(
-                TranscriptionJob.Status.ERROR, cutoffDate
+        JobPurgeService.PurgeResult result = jobPurgeService.purgeCreatedBefore(
+                EnumSet.of(TranscriptionJob.Status.ERROR), cutoffDate
         );
 
-        int deletedCount = 0;
-        for (TranscriptionJob job : errorJobs) {
-            try {
-                fileCleanupService.deleteFileAndChunks(job.getFilePath());
-                repository.delete(job);
-                deletedCount++;
-            } catch (Exception e) {
-                log.error("Erro ao deletar job com erro {}", job.getId(), e);
-            }
+        log.info("Jobs com erro antigos deletados: {}", result.getDeleted());
+        if (result.getFailed() > 0) {
+            log.warn("{} job(s) com erro não puderam ser deletados e ficam para a próxima execução", result.getFailed());
         }
-
-        log.info("Jobs com erro antigos deletados: {}", deletedCount);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package com.xunim.transcriptionapi.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Resultado do silencedetect do FFmpeg: duração total e trechos de silêncio, em segundos
+ */
+@Value
+public class SilenceReport {
+
+    double durationSeconds;
+    List<Silence> silences;
+
+    @Value
+    public static class Silence {
+
+        double startSeconds;
+        double endSeconds;
+
+        public double getDurationSeconds() {
+            return Math.max(0, endSeconds - startSeconds);
+        }
+    }
+}
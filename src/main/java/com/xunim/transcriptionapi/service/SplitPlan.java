@@ -0,0 +1,43 @@
+package com.xunim.transcriptionapi.service;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Pontos de corte escolhidos pelo SplitPlanner e os silêncios usados para escolhê-los
+ */
+@Value
+public class SplitPlan {
+
+    List<Double> boundaries;
+    List<SilenceReport.Silence> silences;
+    double minSpeechRatio;
+
+    /**
+     * Fração do trecho que não é silêncio (1.0 = fala o tempo todo)
+     */
+    public double speechRatio(double startSeconds, double endSeconds) {
+        double length = endSeconds - startSeconds;
+        if (length <= 0) {
+            return 0;
+        }
+
+        double silent = 0;
+        for (SilenceReport.Silence silence : silences) {
+            double overlap = Math.min(endSeconds, silence.getEndSeconds())
+                    - Math.max(startSeconds, silence.getStartSeconds());
+            if (overlap > 0) {
+                silent += overlap;
+            }
+        }
+        return Math.max(0, 1.0 - silent / length);
+    }
+
+    /**
+     * Segmento sem fala suficiente para valer a chamada ao Whisper
+     */
+    public boolean isSilent(AudioChunk chunk) {
+        return speechRatio(chunk.getStartSeconds(), chunk.getEndSeconds()) < minSpeechRatio;
+    }
+}
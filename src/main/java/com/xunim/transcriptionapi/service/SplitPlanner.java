@@ -0,0 +1,199 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.audio.AudioHeaderProber;
+import com.xunim.transcriptionapi.audio.AudioProbe;
+import com.xunim.transcriptionapi.exception.AudioProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Escolhe os pontos de corte dos chunks em silêncios (transcription.split.silence-aware)
+ *
+ * Em vez de cortar a cada N segundos exatos (o que parte palavras ao meio), o corte
+ * vai para o silêncio mais próximo antes do tamanho alvo, dentro de uma janela.
+ * Silêncios longos (dead air) viram segmentos próprios, que são descartados sem
+ * chamar o Whisper, junto com qualquer segmento com pouca fala.
+ *
+ * O tamanho alvo também é limitado pelo orçamento de bytes por chunk (limite de
+ * upload do Whisper) e reduzido para que arquivos longos gerem chunks suficientes
+ * para ocupar o paralelismo por job.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SplitPlanner {
+
+    // Folga mantida nas bordas de um silêncio longo, para não cortar o fim/início da fala
+    private static final double EDGE_PADDING_SECONDS = 0.2;
+    // Segmentos menores que isso não valem um corte
+    private static final double MIN_SEGMENT_SECONDS = 1.0;
+    // Margem para a variação de taxa (VBR) e o overhead do contêiner
+    private static final double BYTE_BUDGET_SAFETY_FACTOR = 0.9;
+
+    private final AudioSplitService audioSplitService;
+    private final AudioHeaderProber audioHeaderProber;
+
+    @Value("${transcription.split.silence-aware:false}")
+    private boolean enabled;
+
+    @Value("${transcription.split.silence-noise-db:-35}")
+    private double noiseDb;
+
+    @Value("${transcription.split.silence-min-seconds:0.5}")
+    private double minSilenceSeconds;
+
+    @Value("${transcription.split.boundary-window-seconds:30}")
+    private double boundaryWindowSeconds;
+
+    @Value("${transcription.split.dead-air-min-seconds:5}")
+    private double deadAirMinSeconds;
+
+    @Value("${transcription.split.min-speech-ratio:0.05}")
+    private double minSpeechRatio;
+
+    @Value("${transcription.split.max-chunk-bytes:24000000}")
+    private long maxChunkBytes;
+
+    @Value("${transcription.split.min-segment-seconds:60}")
+    private int minSegmentSeconds;
+
+    @Value("${transcription.split.fill-parallelism:true}")
+    private boolean fillParallelism;
+
+    @Value("${transcription.parallel.per-job-limit:4}")
+    private int perJobLimit;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getMaxChunkBytes() {
+        return maxChunkBytes;
+    }
+
+    /**
+     * Tamanho do segmento para o arquivo: até maxSegmentSeconds, dentro do orçamento de bytes
+     *
+     * O cabeçalho é lido em Java e, para formatos não reconhecidos, pelo FFmpeg.
+     * Se nenhum dos dois conseguir, usa maxSegmentSeconds; chunks que ainda
+     * assim passarem do limite são redivididos depois.
+     */
+    public int segmentSeconds(String inputFilePath, int maxSegmentSeconds) {
+        AudioProbe probe = audioHeaderProber.probe(Path.of(inputFilePath)).orElse(null);
+        if (probe == null) {
+            try {
+                probe = audioSplitService.probe(inputFilePath);
+            } catch (AudioProcessingException e) {
+                log.warn("Não foi possível ler o cabeçalho de {}: {}; segmentos de {} s",
+                        inputFilePath, e.getMessage(), maxSegmentSeconds);
+                return maxSegmentSeconds;
+            }
+        }
+
+        int seconds = segmentSeconds(probe, audioSplitService.chunkBytesPerSecond(probe.getBitRate()), maxSegmentSeconds);
+        if (seconds != maxSegmentSeconds) {
+            log.info("Segmentos de {} s para {} ({} s de áudio, {} kb/s)",
+                    seconds, inputFilePath, Math.round(probe.getDurationSeconds()), probe.getBitRate() / 1000);
+        }
+        return seconds;
+    }
+
+    /**
+     * Calcula o tamanho do segmento a partir da duração e dos bytes por segundo dos chunks
+     */
+    int segmentSeconds(AudioProbe probe, double chunkBytesPerSecond, int maxSegmentSeconds) {
+        int seconds = maxSegmentSeconds;
+
+        // Arquivos longos: ao menos um chunk por vaga de paralelismo do job, sem chunks minúsculos
+        if (fillParallelism && perJobLimit > 1 && probe.getDurationSeconds() > 0) {
+            int forParallelism = (int) Math.ceil(probe.getDurationSeconds() / perJobLimit);
+            seconds = Math.min(seconds, Math.max(minSegmentSeconds, forParallelism));
+        }
+
+        // O limite de bytes prevalece sobre o tamanho mínimo
+        if (chunkBytesPerSecond > 0) {
+            int forBudget = (int) Math.floor(maxChunkBytes * BYTE_BUDGET_SAFETY_FACTOR / chunkBytesPerSecond);
+            seconds = Math.min(seconds, forBudget);
+        }
+
+        return Math.max(1, seconds);
+    }
+
+    /**
+     * Analisa o silêncio do arquivo e planeja os cortes para segmentos de até targetSeconds
+     */
+    public SplitPlan plan(String inputFilePath, int targetSeconds) {
+        SilenceReport report = audioSplitService.detectSilence(inputFilePath, noiseDb, minSilenceSeconds);
+        SplitPlan plan = plan(report, targetSeconds);
+
+        log.info("Plano de divisão: {} corte(s) em {} s de áudio, {} silêncio(s)",
+                plan.getBoundaries().size(), report.getDurationSeconds(), report.getSilences().size());
+        return plan;
+    }
+
+    /**
+     * Calcula os cortes a partir dos silêncios já detectados
+     */
+    SplitPlan plan(SilenceReport report, int targetSeconds) {
+        double duration = report.getDurationSeconds();
+        List<SilenceReport.Silence> silences = new ArrayList<>(report.getSilences());
+        silences.sort(Comparator.comparingDouble(SilenceReport.Silence::getStartSeconds));
+
+        // 1. Silêncios longos são isolados: cortes nas duas bordas
+        List<Double> deadAirCuts = new ArrayList<>();
+        for (SilenceReport.Silence silence : silences) {
+            if (silence.getDurationSeconds() >= deadAirMinSeconds) {
+                deadAirCuts.add(silence.getStartSeconds() + EDGE_PADDING_SECONDS);
+                deadAirCuts.add(silence.getEndSeconds() - EDGE_PADDING_SECONDS);
+            }
+        }
+        deadAirCuts.add(duration);
+
+        // 2. Regiões entre eles maiores que o alvo são cortadas no silêncio mais próximo do alvo
+        double window = Math.min(boundaryWindowSeconds, targetSeconds / 2.0);
+        List<Double> boundaries = new ArrayList<>();
+        double regionStart = 0;
+
+        for (double regionEnd : deadAirCuts) {
+            double position = regionStart;
+            while (regionEnd - position > targetSeconds) {
+                double cut = silenceNear(silences, position, position + targetSeconds, window);
+                addBoundary(boundaries, cut, duration);
+                position = cut;
+            }
+            addBoundary(boundaries, regionEnd, duration);
+            regionStart = Math.max(regionStart, regionEnd);
+        }
+
+        return new SplitPlan(List.copyOf(boundaries), List.copyOf(silences), minSpeechRatio);
+    }
+
+    /**
+     * Meio do silêncio mais próximo de ideal dentro de [ideal - window, ideal], ou o próprio ideal
+     */
+    private double silenceNear(List<SilenceReport.Silence> silences, double position, double ideal, double window) {
+        double best = -1;
+        for (SilenceReport.Silence silence : silences) {
+            double middle = (silence.getStartSeconds() + silence.getEndSeconds()) / 2;
+            if (middle > ideal - window && middle <= ideal && middle - position >= MIN_SEGMENT_SECONDS) {
+                best = Math.max(best, middle);
+            }
+        }
+        return best > 0 ? best : ideal;
+    }
+
+    private void addBoundary(List<Double> boundaries, double cut, double duration) {
+        double previous = boundaries.isEmpty() ? 0 : boundaries.get(boundaries.size() - 1);
+        if (cut - previous < MIN_SEGMENT_SECONDS || duration - cut < MIN_SEGMENT_SECONDS) {
+            return;
+        }
+        boundaries.add(cut);
+    }
+}
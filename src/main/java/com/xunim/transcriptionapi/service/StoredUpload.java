@@ -0,0 +1,16 @@
+package com.xunim.transcriptionapi.service;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * Arquivo de áudio gravado no armazenamento, com tamanho e SHA-256 calculados na gravação
+ */
+@Value
+public class StoredUpload {
+
+    Path path;
+    long sizeBytes;
+    String contentHash;
+}
@@ -0,0 +1,101 @@
+package com.xunim.transcriptionapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Formato dos chunks gerados pelo FFmpeg (ffmpeg.transcode.profile)
+ *
+ * - COPY: mantém o codec original (sem recodificar; chunks do tamanho do original)
+ * - OPUS: Opus em OGG, mono, na taxa de amostragem configurada (padrão 16 kHz, o que o Whisper usa)
+ * - MP3: MP3 mono de baixa taxa, para quando o Opus não estiver disponível no FFmpeg
+ *
+ * Fala em 16 kHz mono a 24-32 kbps reduz o upload em uma ordem de grandeza em
+ * relação a WAV/FLAC ou MP3 estéreo, e cabe bem mais áudio no limite de 25 MB por arquivo.
+ */
+public enum TranscodeProfile {
+
+    COPY("m4a", null, null),
+    OPUS("ogg", "libopus", "24k"),
+    MP3("mp3", "libmp3lame", "32k");
+
+    private final String extension;
+    private final String codec;
+    private final String defaultBitrate;
+
+    TranscodeProfile(String extension, String codec, String defaultBitrate) {
+        this.extension = extension;
+        this.codec = codec;
+        this.defaultBitrate = defaultBitrate;
+    }
+
+    public static TranscodeProfile from(String value) {
+        if (value == null || value.isBlank()) {
+            return COPY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "ffmpeg.transcode.profile inválido: '" + value + "'. Use 'copy', 'opus' ou 'mp3'", e);
+        }
+    }
+
+    /**
+     * Extensão dos arquivos de chunk gerados
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Taxa de bits dos chunks gerados, em bits/s
+     *
+     * @param sourceBitRate taxa do arquivo original (usada em COPY; 0 se desconhecida)
+     * @param bitrate taxa configurada (ex.: "24k"); vazio usa o padrão do perfil
+     */
+    public long outputBitRate(long sourceBitRate, String bitrate) {
+        if (this == COPY) {
+            return Math.max(0, sourceBitRate);
+        }
+
+        String value = (bitrate == null || bitrate.isBlank() ? defaultBitrate : bitrate.trim()).toLowerCase(Locale.ROOT);
+        try {
+            if (value.endsWith("k")) {
+                return (long) (Double.parseDouble(value.substring(0, value.length() - 1)) * 1000);
+            }
+            if (value.endsWith("m")) {
+                return (long) (Double.parseDouble(value.substring(0, value.length() - 1)) * 1_000_000);
+            }
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Argumentos de codec do FFmpeg para este perfil
+     *
+     * @param sampleRate taxa de amostragem em Hz (ignorada em COPY)
+     * @param bitrate taxa de bits do FFmpeg (ex.: "24k"); vazio usa o padrão do perfil
+     */
+    public List<String> codecArguments(int sampleRate, String bitrate) {
+        if (this == COPY) {
+            return List.of("-c", "copy");
+        }
+
+        List<String> arguments = new ArrayList<>();
+        // Só o áudio: capas e faixas de vídeo não vão para o chunk
+        arguments.add("-vn");
+        arguments.addAll(List.of("-ac", "1"));
+        arguments.addAll(List.of("-ar", String.valueOf(sampleRate)));
+        arguments.addAll(List.of("-c:a", codec));
+        arguments.addAll(List.of("-b:a", bitrate == null || bitrate.isBlank() ? defaultBitrate : bitrate.trim()));
+        if (this == OPUS) {
+            // Modo otimizado para voz
+            arguments.addAll(List.of("-application", "voip"));
+        }
+        return arguments;
+    }
+}
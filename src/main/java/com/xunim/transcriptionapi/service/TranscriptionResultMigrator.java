@@ -0,0 +1,137 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Migra textos gravados por versões anteriores para o formato atual de transcription_result
+ *
+ * 1. Coluna transcription_job.transcription_text (texto dentro da linha do job)
+ * 2. Coluna transcription_result.text (texto sem compressão)
+ *
+ * Roda na inicialização, em lotes, comprimindo com o codec configurado. É
+ * idempotente: a coluna antiga é zerada depois da cópia de cada lote. Sem as
+ * colunas antigas (banco novo), não faz nada.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TranscriptionResultMigrator {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TranscriptionResultService transcriptionResultService;
+
+    @Value("${transcription.result.migrate-on-startup:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        if (columnExists("transcription_job", "transcription_text")) {
+            int moved = moveFromJobRows();
+            if (moved > 0) {
+                log.info("{} transcrição(ões) movida(s) para transcription_result", moved);
+            }
+            log.info("Coluna transcription_job.transcription_text não é mais usada e pode ser removida");
+        }
+
+        if (columnExists("transcription_result", "text")) {
+            int compressed = compressResultRows();
+            if (compressed > 0) {
+                log.info("{} transcrição(ões) comprimida(s) em transcription_result", compressed);
+            }
+            log.info("Coluna transcription_result.text não é mais usada e pode ser removida");
+        }
+    }
+
+    private int moveFromJobRows() {
+        int migrated = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, transcription_text, COALESCE(completed_at, created_at) AS created_at " +
+                            "FROM transcription_job WHERE transcription_text IS NOT NULL ORDER BY id LIMIT :limit",
+                    Map.of("limit", BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+
+            List<Long> ids = new ArrayList<>();
+            List<SqlParameterSource> batch = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                Long id = ((Number) row.get("id")).longValue();
+                ids.add(id);
+                batch.add(parameters(id, (String) row.get("transcription_text")).addValue("createdAt", row.get("created_at")));
+            }
+
+            jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO transcription_result (job_id, content, codec, original_length, created_at) " +
+                            "VALUES (:jobId, :content, :codec, :originalLength, :createdAt)",
+                    batch.toArray(SqlParameterSource[]::new));
+            jdbcTemplate.update(
+                    "UPDATE transcription_job SET transcription_text = NULL WHERE id IN (:ids)", Map.of("ids", ids));
+
+            migrated += ids.size();
+        }
+    }
+
+    private int compressResultRows() {
+        int migrated = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT job_id, text FROM transcription_result WHERE text IS NOT NULL ORDER BY job_id LIMIT :limit",
+                    Map.of("limit", BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return migrated;
+            }
+
+            List<SqlParameterSource> batch = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                batch.add(parameters(((Number) row.get("job_id")).longValue(), (String) row.get("text")));
+            }
+
+            jdbcTemplate.batchUpdate(
+                    "UPDATE transcription_result " +
+                            "SET content = :content, codec = :codec, original_length = :originalLength, text = NULL " +
+                            "WHERE job_id = :jobId",
+                    batch.toArray(SqlParameterSource[]::new));
+
+            migrated += rows.size();
+        }
+    }
+
+    private MapSqlParameterSource parameters(Long jobId, String text) {
+        TranscriptionResult encoded = transcriptionResultService.encode(jobId, text, null);
+        return new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("content", encoded.getContent())
+                .addValue("codec", encoded.getCodec().name())
+                .addValue("originalLength", encoded.getOriginalLength());
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = DATABASE() " +
+                        "AND table_name = :table " +
+                        "AND column_name = :column",
+                Map.of("table", table, "column", column), Integer.class);
+        return count != null && count > 0;
+    }
+}
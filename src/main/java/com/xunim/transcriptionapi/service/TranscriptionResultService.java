@@ -0,0 +1,103 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptCodec;
+import com.xunim.transcriptionapi.model.TranscriptionResult;
+import com.xunim.transcriptionapi.repository.TranscriptionResultRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leitura e gravação do texto das transcrições (tabela transcription_result)
+ *
+ * O texto é comprimido na gravação com o codec configurado e descomprimido
+ * na leitura com o codec registrado na própria linha.
+ */
+@Service
+@Slf4j
+public class TranscriptionResultService {
+
+    private final TranscriptionResultRepository repository;
+    private final TranscriptCodec codec;
+    private final int compressionLevel;
+    private final int minCompressBytes;
+
+    public TranscriptionResultService(
+            TranscriptionResultRepository repository,
+            @Value("${transcription.result.codec:deflate}") String codec,
+            @Value("${transcription.result.compression-level:6}") int compressionLevel,
+            @Value("${transcription.result.min-compress-bytes:256}") int minCompressBytes) {
+        this.repository = repository;
+        this.codec = TranscriptCodec.from(codec);
+        this.compressionLevel = compressionLevel;
+        this.minCompressBytes = minCompressBytes;
+    }
+
+    /**
+     * Grava (ou substitui) o texto final do job
+     */
+    @Transactional
+    public void save(Long jobId, String text) {
+        repository.save(encode(jobId, text, LocalDateTime.now()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<String> findText(Long jobId) {
+        return repository.findById(jobId).map(this::decode);
+    }
+
+    /**
+     * Reaproveita o resultado de um job concluído para um job com o mesmo conteúdo
+     *
+     * A cópia é feita no banco, sem trazer o texto para a aplicação.
+     */
+    @Transactional
+    public void copy(Long fromJobId, Long toJobId) {
+        if (repository.copy(fromJobId, toJobId, LocalDateTime.now()) == 0) {
+            log.warn("Job {} concluído sem texto para copiar para o job {}", fromJobId, toJobId);
+        }
+    }
+
+    @Transactional
+    public void delete(Long jobId) {
+        deleteAll(List.of(jobId));
+    }
+
+    @Transactional
+    public int deleteAll(Collection<Long> jobIds) {
+        return jobIds.isEmpty() ? 0 : repository.deleteByJobIds(jobIds);
+    }
+
+    /**
+     * Monta a linha com o texto codificado (textos curtos não compensam a compressão)
+     */
+    public TranscriptionResult encode(Long jobId, String text, LocalDateTime createdAt) {
+        String value = text != null ? text : "";
+        int originalLength = value.getBytes(StandardCharsets.UTF_8).length;
+        TranscriptCodec rowCodec = originalLength < minCompressBytes ? TranscriptCodec.NONE : codec;
+
+        return TranscriptionResult.builder()
+                .jobId(jobId)
+                .content(rowCodec.encode(value, compressionLevel))
+                .codec(rowCodec)
+                .originalLength(originalLength)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private String decode(TranscriptionResult result) {
+        if (result.getContent() == null) {
+            return null;
+        }
+        TranscriptCodec rowCodec = result.getCodec() != null ? result.getCodec() : TranscriptCodec.NONE;
+        int originalLength = result.getOriginalLength() != null ? result.getOriginalLength() : 0;
+        return rowCodec.decode(result.getContent(), originalLength);
+    }
+}
@@ -1,25 +1,32 @@
 package com.xunim.transcriptionapi.service;
 
-import com.xunim.transcriptionapi.async.TranscriptionAsyncProcessor;
+import com.xunim.transcriptionapi.ai.HedgingPolicy;
+import com.xunim.transcriptionapi.ai.WhisperCircuitBreaker;
+import com.xunim.transcriptionapi.ai.WhisperClientMetrics;
+import com.xunim.transcriptionapi.ai.WhisperRateLimiter;
+import com.xunim.transcriptionapi.audio.AudioHeaderProber;
+import com.xunim.transcriptionapi.audio.AudioProbe;
+import com.xunim.transcriptionapi.cache.TranscriptionCache;
 import com.xunim.transcriptionapi.dto.JobStatistics;
 import com.xunim.transcriptionapi.dto.TranscriptionJobResponse;
 import com.xunim.transcriptionapi.exception.FileStorageException;
 import com.xunim.transcriptionapi.exception.ResourceNotFoundException;
 import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.JobStatusView;
 import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
 import com.xunim.transcriptionapi.validator.AudioFileValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.UUID;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Serviço responsável pela lógica de negócio das transcrições
@@ -32,67 +39,129 @@ import java.util.UUID;
 public class TranscriptionService {
 
     private final TranscriptionJobRepository repository;
-    private final TranscriptionAsyncProcessor processor;
     private final FileCleanupService fileCleanupService;
     private final AudioFileValidator audioFileValidator;
+    private final WhisperClientMetrics whisperClientMetrics;
+    private final WhisperRateLimiter whisperRateLimiter;
+    private final HedgingPolicy hedgingPolicy;
+    private final WhisperCircuitBreaker whisperCircuitBreaker;
+    private final TranscriptionCache transcriptionCache;
+    private final JobDeduplicationService deduplicationService;
+    private final UploadStorageService uploadStorageService;
+    private final ChunkCheckpointService checkpointService;
+    private final AudioHeaderProber audioHeaderProber;
+    private final TranscriptionResultService transcriptionResultService;
+    private final JobStatusCounters jobStatusCounters;
+    private final JobQueueService queueService;
 
-    @Value("${storage.upload-dir:uploads}")
-    private String uploadDir;
-
-    @Transactional
     public TranscriptionJobResponse createJob(MultipartFile file, String language, Integer maxSegmentSeconds) {
 
-        audioFileValidator.validate(file);
+        // Magic numbers, tamanho real e hash são verificados durante a gravação
+        audioFileValidator.validateMetadata(file);
 
         String originalFilename = file.getOriginalFilename();
         String sanitizedFilename = audioFileValidator.sanitizeFilename(originalFilename);
-        String fileExtension = getExtension(sanitizedFilename);
-
-        String uniqueFilename = System.currentTimeMillis() + "_" +
-                UUID.randomUUID().toString().substring(0, 8) +
-                fileExtension;
-        Path path = Paths.get(uploadDir, uniqueFilename);
+        Path path = uploadStorageService.newUploadPath(sanitizedFilename);
 
-        try {
-            Files.createDirectories(path.getParent());
-            Files.write(path, file.getBytes());
+        StoredUpload stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = uploadStorageService.store(in, path);
 
-            log.info("Arquivo salvo: {} (original: {})", path, originalFilename);
+            log.info("Arquivo salvo: {} (original: {}, sha256: {})", path, originalFilename, stored.getContentHash());
 
         } catch (IOException e) {
             log.error("Erro ao salvar arquivo: {}", path, e);
             throw new FileStorageException("Não foi possível salvar o arquivo", e);
         }
 
+        return deduplicationService.retryOnConcurrentOriginal(
+                () -> createJobFromUpload(stored, sanitizedFilename, language, maxSegmentSeconds));
+    }
+
+    /**
+     * Cria o job para um arquivo já gravado no armazenamento e o coloca na fila
+     *
+     * Usado pelo upload direto e pela finalização do upload retomável, dentro de
+     * JobDeduplicationService.retryOnConcurrentOriginal (a transação pode ser refeita
+     * se outro upload do mesmo áudio se tornar o original ao mesmo tempo).
+     * O processamento é feito pelo JobQueueWorker de qualquer nó.
+     */
+    @Transactional
+    public TranscriptionJobResponse createJobFromUpload(StoredUpload stored, String sanitizedFilename,
+                                                        String language, Integer maxSegmentSeconds) {
+
+        String contentHash = stored.getContentHash();
         String normalizedLanguage = normalizeLanguage(language);
 
         TranscriptionJob job = TranscriptionJob.builder()
                 .fileName(sanitizedFilename)
-                .filePath(path.toString())
+                .filePath(stored.getPath().toString())
                 .status(TranscriptionJob.Status.UPLOADED)
                 .language(normalizedLanguage)
-                .fileSizeBytes(file.getSize())
+                .fileSizeBytes(stored.getSizeBytes())
+                .contentHash(contentHash)
+                .maxSegmentSeconds(maxSegmentSeconds)
                 .build();
 
+        // Só lê alguns KB do cabeçalho; formatos não reconhecidos ficam sem os campos
+        Optional<AudioProbe> probe = audioHeaderProber.probe(stored.getPath());
+        if (probe.isPresent()) {
+            AudioProbe header = probe.get();
+            job.setDurationSeconds(header.getDurationSeconds());
+            job.setBitrate(header.getBitRate() > 0 ? header.getBitRate() : null);
+            job.setChannels(header.getChannels() > 0 ? header.getChannels() : null);
+        }
+
+        // Mesmo áudio já transcrito: conclui na hora, sem FFmpeg nem Whisper
+        Optional<TranscriptionJob> completedDuplicate =
+                deduplicationService.findCompletedDuplicate(contentHash, normalizedLanguage);
+
+        if (completedDuplicate.isPresent()) {
+            job.markAsCompleted();
+            job = repository.save(job);
+            transcriptionResultService.copy(completedDuplicate.get().getId(), job.getId());
+
+            log.info("Job {} concluído imediatamente: conteúdo idêntico ao job {}",
+                    job.getId(), completedDuplicate.get().getId());
+
+            return TranscriptionJobResponse.fromEntity(job,
+                    transcriptionResultService.findText(job.getId()).orElse(null));
+        }
+
+        // Mesmo áudio na fila ou em processamento: aguarda o resultado do outro job
+        Optional<TranscriptionJob> original =
+                deduplicationService.findInFlightOriginal(contentHash, normalizedLanguage);
+        if (original.isPresent()) {
+            job.setDuplicateOfJobId(original.get().getId());
+        }
+
         job = repository.save(job);
 
         log.info("Job {} criado para arquivo: {} ({} MB)",
-                job.getId(), sanitizedFilename, file.getSize() / (1024 * 1024));
+                job.getId(), sanitizedFilename, stored.getSizeBytes() / (1024 * 1024));
 
-        final Long jobId = job.getId();
-        processor.process(jobId, maxSegmentSeconds);
+        if (original.isPresent()) {
+            log.info("Job {} aguardando o job {} com conteúdo idêntico", job.getId(), original.get().getId());
+        }
 
         return TranscriptionJobResponse.fromEntity(job);
     }
 
+    /**
+     * Consulta de status: lê só as colunas da projeção, e o texto apenas de jobs concluídos
+     */
     @Transactional(readOnly = true)
     public TranscriptionJobResponse findById(Long id) {
-        TranscriptionJob job = repository.findById(id)
+        JobStatusView job = repository.findStatusById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Job de transcrição não encontrado com ID: " + id
                 ));
 
-        return TranscriptionJobResponse.fromEntity(job);
+        String text = job.getStatus() == TranscriptionJob.Status.DONE
+                ? transcriptionResultService.findText(id).orElse(null)
+                : null;
+
+        return TranscriptionJobResponse.fromView(job, text);
     }
 
     @Transactional
@@ -103,7 +172,15 @@ public class TranscriptionService {
                 ));
 
         try {
+            // Duplicados que aguardavam o job: recebem o resultado (antes de apagá-lo)
+            // ou, se ele não terminou, o mais antigo vira o novo original
+            deduplicationService.onJobFinished(job);
             repository.delete(job);
+            repository.flush();
+            deduplicationService.onOriginalDeleted(job.getId());
+
+            transcriptionResultService.delete(job.getId());
+            checkpointService.deleteByJob(job.getId());
             fileCleanupService.deleteFileAndChunks(job.getFilePath());
             log.info("Job {} deletado completamente", id);
 
@@ -113,8 +190,19 @@ public class TranscriptionService {
         }
     }
 
-    @Transactional
     public TranscriptionJobResponse retryJob(Long id, Integer maxSegmentSeconds) {
+        return deduplicationService.retryOnConcurrentOriginal(() -> requeue(id, maxSegmentSeconds));
+    }
+
+    private TranscriptionJobResponse requeue(Long id, Integer maxSegmentSeconds) {
+        // Em processamento com lease vencido: o nó responsável caiu e o job é retomado pela
+        // fila, como faria o reaper (trava a linha e confere o lease de novo)
+        Optional<TranscriptionJob> reclaimed = queueService.reclaimExpiredLease(id);
+        if (reclaimed.isPresent()) {
+            log.warn("Job {} retomado a pedido do usuário: lease vencido", id);
+            return TranscriptionJobResponse.fromEntity(reclaimed.get());
+        }
+
         TranscriptionJob job = repository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "Job de transcrição não encontrado com ID: " + id
@@ -138,45 +226,54 @@ public class TranscriptionService {
             );
         }
 
-        fileCleanupService.deleteChunksDirectory(job.getFilePath());
+        // Chunks e checkpoints são reaproveitados, a menos que o tamanho do segmento mude
+        if (maxSegmentSeconds != null && !maxSegmentSeconds.equals(job.getMaxSegmentSeconds())) {
+            checkpointService.reset(job);
+            job.setMaxSegmentSeconds(maxSegmentSeconds);
+        }
 
-        job.setStatus(TranscriptionJob.Status.UPLOADED);
-        job.setErrorMessage(null);
-        job.setTranscriptionText(null);
-        job.setCompletedAt(null);
+        job.markAsQueued();
+        transcriptionResultService.delete(id);
 
-        job = repository.save(job);
+        // Outro job com o mesmo conteúdo já na fila ou em processamento: aguarda o resultado dele
+        Optional<TranscriptionJob> original =
+                deduplicationService.findInFlightOriginal(job.getContentHash(), job.getLanguage());
+        job.setDuplicateOfJobId(original.map(TranscriptionJob::getId).orElse(null));
 
-        log.info("Reprocessando job {}", id);
+        job = repository.save(job);
 
-        final Long jobId = job.getId();
-        processor.process(jobId, maxSegmentSeconds);
+        if (original.isPresent()) {
+            log.info("Job {} aguardando o job {} com conteúdo idêntico", id, original.get().getId());
+        } else {
+            log.info("Job {} devolvido à fila para reprocessamento", id);
+        }
 
         return TranscriptionJobResponse.fromEntity(job);
     }
 
     /**
-     * Retorna estatísticas gerais do sistema
+     * Retorna estatísticas gerais do sistema, a partir dos contadores em memória
      */
-    @Transactional(readOnly = true)
     public JobStatistics getStatistics() {
-        long total = repository.count();
-        long processing = repository.countByStatus(TranscriptionJob.Status.PROCESSING);
-        long completed = repository.countByStatus(TranscriptionJob.Status.DONE);
-        long errors = repository.countByStatus(TranscriptionJob.Status.ERROR);
-
-        return JobStatistics.builder()
-                .total(total)
-                .processing(processing)
-                .completed(completed)
-                .errors(errors)
-                .build();
+        return jobStatusCounters.snapshot();
+    }
+
+    /**
+     * Retorna métricas de latência das chamadas à API Whisper
+     */
+    public Map<String, Object> getWhisperMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>(whisperClientMetrics.snapshot());
+        metrics.put("rate_limiter", whisperRateLimiter.snapshot());
+        metrics.put("hedging", hedgingPolicy.snapshot());
+        metrics.put("circuit_breaker", whisperCircuitBreaker.snapshot());
+        return metrics;
     }
 
-    private String getExtension(String filename) {
-        if (filename == null) return ".mp3";
-        int lastDot = filename.lastIndexOf('.');
-        return lastDot > 0 ? filename.substring(lastDot) : ".mp3";
+    /**
+     * Retorna acertos, falhas e ocupação do cache de transcrições
+     */
+    public Map<String, Object> getCacheStatistics() {
+        return transcriptionCache.getStatistics();
     }
 
     private String normalizeLanguage(String language) {
@@ -0,0 +1,180 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.exception.InvalidFileException;
+import com.xunim.transcriptionapi.validator.AudioFileValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Grava uploads no armazenamento em uma única passada pelo stream
+ *
+ * O conteúdo é copiado canal a canal por um buffer direto de tamanho fixo;
+ * na mesma passada são verificados os magic numbers, o tamanho máximo
+ * e calculado o SHA-256. O upload nunca é carregado inteiro no heap.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadStorageService {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final AudioFileValidator audioFileValidator;
+
+    @Value("${storage.upload-dir:uploads}")
+    private String uploadDir;
+
+    /**
+     * Gera um caminho único no diretório de uploads preservando a extensão do arquivo
+     */
+    public Path newUploadPath(String sanitizedFilename) {
+        String uniqueFilename = System.currentTimeMillis() + "_" +
+                UUID.randomUUID().toString().substring(0, 8) +
+                getExtension(sanitizedFilename);
+        return Paths.get(uploadDir, uniqueFilename);
+    }
+
+    /**
+     * Copia o stream para o destino validando e calculando o hash
+     *
+     * Em caso de arquivo inválido ou erro de I/O o arquivo parcial é removido.
+     */
+    public StoredUpload store(InputStream in, Path target) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long total = 0;
+        boolean headerValidated = false;
+
+        Files.createDirectories(target.getParent());
+
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel destination = FileChannel.open(target,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                // Garante que o primeiro bloco validado tenha o cabeçalho completo
+                if (!headerValidated && buffer.position() < AudioFileValidator.HEADER_SIZE && read > 0) {
+                    continue;
+                }
+
+                buffer.flip();
+
+                if (!headerValidated) {
+                    validateHeader(buffer);
+                    headerValidated = true;
+                }
+
+                total += buffer.remaining();
+                audioFileValidator.validateStoredSize(total);
+
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    destination.write(buffer);
+                }
+                buffer.clear();
+            }
+
+            // Arquivo menor que o cabeçalho: o que sobrou no buffer ainda não foi validado
+            if (!headerValidated) {
+                buffer.flip();
+                validateHeader(buffer);
+                total += buffer.remaining();
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    destination.write(buffer);
+                }
+            }
+
+        } catch (IOException | InvalidFileException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        return new StoredUpload(target, total, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Verifica um arquivo já gravado em disco (ex: upload retomável) antes de incorporá-lo
+     *
+     * Valida cabeçalho e tamanho e calcula o hash em uma única leitura. O arquivo
+     * não é movido: o StoredUpload já aponta para o destino, e quem chama faz o
+     * move() quando o job for criado.
+     */
+    public StoredUpload inspect(Path source, Path target) throws IOException {
+        MessageDigest digest = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(COPY_BUFFER_SIZE);
+        long total = 0;
+
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            byte[] header = new byte[AudioFileValidator.HEADER_SIZE];
+            int headerLength = 0;
+
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+
+                if (headerLength < header.length) {
+                    int length = Math.min(header.length - headerLength, buffer.remaining());
+                    buffer.duplicate().get(header, headerLength, length);
+                    headerLength += length;
+                }
+
+                total += buffer.remaining();
+                digest.update(buffer);
+                buffer.clear();
+            }
+
+            audioFileValidator.validateHeader(header, headerLength);
+            audioFileValidator.validateStoredSize(total);
+        }
+
+        return new StoredUpload(target, total, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Move um arquivo verificado por inspect() para o destino (ou de volta, para desfazer)
+     */
+    public void move(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void validateHeader(ByteBuffer buffer) {
+        byte[] header = new byte[AudioFileValidator.HEADER_SIZE];
+        int length = Math.min(header.length, buffer.remaining());
+        buffer.duplicate().get(header, 0, length);
+        audioFileValidator.validateHeader(header, length);
+    }
+
+    private String getExtension(String filename) {
+        if (filename == null) return ".mp3";
+        int lastDot = filename.lastIndexOf('.');
+        return lastDot > 0 ? filename.substring(lastDot) : ".mp3";
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível", e);
+        }
+    }
+}
@@ -59,18 +59,42 @@ public class AudioFileValidator {
             "LPT1", "LPT2", "LPT3", "LPT4", "LPT5", "LPT6", "LPT7", "LPT8", "LPT9"
     );
 
+    // Quantidade de bytes iniciais usada na verificação de magic numbers
+    public static final int HEADER_SIZE = 12;
+
     /**
      * Valida completamente um arquivo de áudio
      */
     public void validate(MultipartFile file) {
-        validateNotEmpty(file);
-        validateSize(file);
-        validateFilename(file);
-        validateExtension(file);
-        validateMimeType(file);
+        validateMetadata(file);
         validateMagicNumbers(file);
     }
 
+    /**
+     * Valida tudo que não depende do conteúdo: tamanho, nome, extensão e tipo MIME
+     *
+     * Os magic numbers podem então ser verificados com validateHeader
+     * durante a gravação do arquivo, sem uma leitura extra do upload.
+     */
+    public void validateMetadata(MultipartFile file) {
+        validateNotEmpty(file);
+        validateMetadata(file.getOriginalFilename(), file.getContentType(), file.getSize());
+    }
+
+    /**
+     * Valida os metadados de um upload informados antes do envio do conteúdo (upload retomável)
+     */
+    public void validateMetadata(String filename, String contentType, long declaredSize) {
+        if (declaredSize <= 0) {
+            throw new InvalidFileException("O arquivo está vazio");
+        }
+
+        validateSize(declaredSize);
+        validateFilename(filename);
+        validateExtension(filename);
+        validateMimeType(contentType, filename);
+    }
+
     /**
      * Valida se o arquivo não está vazio
      */
@@ -87,8 +111,8 @@ public class AudioFileValidator {
     /**
      * Valida o tamanho do arquivo
      */
-    private void validateSize(MultipartFile file) {
-        long fileSizeMb = file.getSize() / (1024 * 1024);
+    private void validateSize(long size) {
+        long fileSizeMb = size / (1024 * 1024);
 
         if (fileSizeMb > maxFileSizeMb) {
             throw new InvalidFileException(
@@ -98,17 +122,15 @@ public class AudioFileValidator {
         }
 
         // Validação adicional: arquivo muito pequeno (menos de 1KB) pode ser suspeito
-        if (file.getSize() < 1024) {
-            log.warn("Arquivo muito pequeno enviado: {} bytes", file.getSize());
+        if (size < 1024) {
+            log.warn("Arquivo muito pequeno enviado: {} bytes", size);
         }
     }
 
     /**
      * Valida o nome do arquivo
      */
-    private void validateFilename(MultipartFile file) {
-        String filename = file.getOriginalFilename();
-
+    private void validateFilename(String filename) {
         if (filename == null || filename.trim().isEmpty()) {
             throw new InvalidFileException("Nome do arquivo inválido");
         }
@@ -143,9 +165,7 @@ public class AudioFileValidator {
     /**
      * Valida a extensão do arquivo
      */
-    private void validateExtension(MultipartFile file) {
-        String filename = file.getOriginalFilename();
-
+    private void validateExtension(String filename) {
         if (filename == null) {
             throw new InvalidFileException("Nome do arquivo não pode ser nulo");
         }
@@ -163,11 +183,9 @@ public class AudioFileValidator {
     /**
      * Valida o tipo MIME
      */
-    private void validateMimeType(MultipartFile file) {
-        String mimeType = file.getContentType();
-
+    private void validateMimeType(String mimeType, String filename) {
         if (mimeType == null) {
-            log.warn("Tipo MIME não informado para arquivo: {}", file.getOriginalFilename());
+            log.warn("Tipo MIME não informado para arquivo: {}", filename);
             return; // Não falha, mas continua com outras validações
         }
 
@@ -187,33 +205,53 @@ public class AudioFileValidator {
      */
     private void validateMagicNumbers(MultipartFile file) {
         try (InputStream is = file.getInputStream()) {
-            byte[] header = new byte[12]; // Lê os primeiros 12 bytes
+            byte[] header = new byte[HEADER_SIZE]; // Lê os primeiros 12 bytes
             int bytesRead = is.read(header);
+            validateHeader(header, bytesRead);
 
-            if (bytesRead < 4) {
-                throw new InvalidFileException("Arquivo corrompido ou muito pequeno");
-            }
+        } catch (IOException e) {
+            log.error("Erro ao ler arquivo para validação", e);
+            throw new InvalidFileException("Não foi possível validar o arquivo", e);
+        }
+    }
 
-            boolean isValidAudio = false;
+    /**
+     * Valida os magic numbers a partir dos primeiros bytes já lidos do arquivo
+     */
+    public void validateHeader(byte[] header, int bytesRead) {
+        if (bytesRead < 4) {
+            throw new InvalidFileException("Arquivo corrompido ou muito pequeno");
+        }
 
-            for (Map.Entry<String, byte[]> entry : AUDIO_MAGIC_NUMBERS.entrySet()) {
-                if (matchesMagicNumber(header, entry.getValue())) {
-                    isValidAudio = true;
-                    log.debug("Arquivo identificado como: {}", entry.getKey());
-                    break;
-                }
-            }
+        boolean isValidAudio = false;
 
-            if (!isValidAudio) {
-                log.error("Magic numbers inválidos. Header: {}", bytesToHex(header));
-                throw new InvalidFileException(
-                        "O arquivo não parece ser um áudio válido. Verifique se o arquivo não está corrompido."
-                );
+        for (Map.Entry<String, byte[]> entry : AUDIO_MAGIC_NUMBERS.entrySet()) {
+            if (matchesMagicNumber(header, entry.getValue())) {
+                isValidAudio = true;
+                log.debug("Arquivo identificado como: {}", entry.getKey());
+                break;
             }
+        }
 
-        } catch (IOException e) {
-            log.error("Erro ao ler arquivo para validação", e);
-            throw new InvalidFileException("Não foi possível validar o arquivo", e);
+        if (!isValidAudio) {
+            log.error("Magic numbers inválidos. Header: {}", bytesToHex(header));
+            throw new InvalidFileException(
+                    "O arquivo não parece ser um áudio válido. Verifique se o arquivo não está corrompido."
+            );
+        }
+    }
+
+    /**
+     * Valida o tamanho real de bytes recebidos
+     */
+    public void validateStoredSize(long sizeBytes) {
+        long sizeMb = sizeBytes / (1024 * 1024);
+
+        if (sizeMb > maxFileSizeMb) {
+            throw new InvalidFileException(
+                    String.format("Arquivo muito grande. Tamanho máximo: %d MB, tamanho recebido: %d MB",
+                            maxFileSizeMb, sizeMb)
+            );
         }
     }
 
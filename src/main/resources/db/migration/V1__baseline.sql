@@ -0,0 +1,18 @@
+-- Esquema original, criado pelo ddl-auto=update antes das migrations
+--
+-- Bancos que já existiam recebem baseline na versão 1 (spring.flyway.baseline-version)
+-- e não rodam este script; bancos novos começam por ele.
+
+CREATE TABLE transcription_job (
+    id                 BIGINT NOT NULL AUTO_INCREMENT,
+    file_name          VARCHAR(255),
+    file_path          VARCHAR(255),
+    status             ENUM ('UPLOADED', 'PROCESSING', 'DONE', 'ERROR'),
+    transcription_text LONGTEXT,
+    created_at         DATETIME(6),
+    completed_at       DATETIME(6),
+    error_message      VARCHAR(1000),
+    language           VARCHAR(255),
+    file_size_bytes    BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
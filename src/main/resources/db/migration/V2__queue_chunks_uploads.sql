@@ -0,0 +1,71 @@
+-- Colunas e tabelas acrescentadas depois do esquema original (V1)
+--
+-- Bancos criados pelo ddl-auto recebem baseline na versão 1 e começam por aqui.
+-- Os textos em transcription_job.transcription_text são copiados para
+-- transcription_result pelo TranscriptionResultMigrator na inicialização.
+
+ALTER TABLE transcription_job
+    ADD COLUMN duration_seconds    FLOAT(53),
+    ADD COLUMN bitrate             BIGINT,
+    ADD COLUMN channels            INTEGER,
+    ADD COLUMN content_hash        VARCHAR(64),
+    ADD COLUMN duplicate_of_job_id BIGINT,
+    ADD COLUMN max_segment_seconds INTEGER,
+    ADD COLUMN chunk_count         INTEGER,
+    ADD COLUMN chunk_bytes         BIGINT,
+    ADD COLUMN visible_after       DATETIME(6),
+    ADD COLUMN attempts            INTEGER,
+    ADD COLUMN lease_owner         VARCHAR(100),
+    ADD COLUMN lease_expires_at    DATETIME(6),
+    ADD COLUMN heartbeat_at        DATETIME(6);
+
+UPDATE transcription_job SET attempts = 0 WHERE attempts IS NULL;
+
+CREATE INDEX idx_transcription_job_content_hash ON transcription_job (content_hash, language);
+CREATE INDEX idx_transcription_job_queue ON transcription_job (status, visible_after);
+CREATE INDEX idx_transcription_job_lease ON transcription_job (status, lease_expires_at);
+
+CREATE TABLE transcription_result (
+    job_id          BIGINT NOT NULL,
+    content         LONGBLOB,
+    codec           ENUM ('NONE', 'DEFLATE'),
+    original_length INTEGER,
+    created_at      DATETIME(6),
+    PRIMARY KEY (job_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE transcription_chunk (
+    id                 BIGINT NOT NULL AUTO_INCREMENT,
+    job_id             BIGINT NOT NULL,
+    chunk_index        INTEGER NOT NULL,
+    offset_seconds     FLOAT(53),
+    duration_seconds   FLOAT(53),
+    file_path          VARCHAR(255),
+    transcription_text LONGTEXT,
+    status             ENUM ('PENDING', 'DONE', 'ERROR'),
+    attempts           INTEGER,
+    error_message      VARCHAR(1000),
+    created_at         DATETIME(6),
+    updated_at         DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_transcription_chunk_job_index UNIQUE (job_id, chunk_index)
+) ENGINE = InnoDB;
+
+CREATE TABLE upload_session (
+    id                  VARCHAR(36) NOT NULL,
+    file_name           VARCHAR(255),
+    content_type        VARCHAR(255),
+    language            VARCHAR(255),
+    max_segment_seconds INTEGER,
+    upload_length       BIGINT,
+    upload_offset       BIGINT,
+    partial_file_path   VARCHAR(255),
+    status              ENUM ('ACTIVE', 'FINALIZED'),
+    created_at          DATETIME(6),
+    updated_at          DATETIME(6),
+    expires_at          DATETIME(6),
+    job_id              BIGINT,
+    version             BIGINT,
+    PRIMARY KEY (id),
+    INDEX idx_upload_session_status_expires (status, expires_at)
+) ENGINE = InnoDB;
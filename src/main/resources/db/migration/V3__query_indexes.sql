@@ -0,0 +1,20 @@
+-- Índices para as consultas de TranscriptionJobRepository e UploadSessionRepository
+--
+-- O InnoDB acrescenta a chave primária a todo índice secundário, então
+-- (status, created_at) também entrega o id sem ler a linha.
+
+-- findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById (páginas da limpeza por status),
+-- findByStatusAndIdGreaterThanOrderById (chunks de jobs concluídos) e countByStatus
+CREATE INDEX idx_transcription_job_status_created ON transcription_job (status, created_at);
+
+-- countByStatusAndHourSince (faixa em created_at, status lido do índice)
+CREATE INDEX idx_transcription_job_created_status ON transcription_job (created_at, status);
+
+-- countByStatusAndLanguage: GROUP BY percorre só o índice
+CREATE INDEX idx_transcription_job_status_language ON transcription_job (status, language);
+
+-- findByDuplicateOfJobIdAndStatus
+CREATE INDEX idx_transcription_job_duplicate_of ON transcription_job (duplicate_of_job_id, status);
+
+-- findByStatusAndUpdatedAtBefore (sessões finalizadas)
+CREATE INDEX idx_upload_session_status_updated ON upload_session (status, updated_at);
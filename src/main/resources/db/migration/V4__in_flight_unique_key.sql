@@ -0,0 +1,33 @@
+-- Um só job original por conteúdo e idioma na fila ou em processamento
+--
+-- in_flight_key só é preenchida para originais (sem duplicate_of_job_id) em UPLOADED ou
+-- PROCESSING; nas demais linhas é NULL, que o índice único não compara. Dois uploads
+-- simultâneos do mesmo áudio não conseguem mais criar dois originais: o segundo recebe
+-- a violação do índice e é refeito como duplicado (JobDeduplicationService).
+
+-- Originais repetidos criados antes do índice passam a aguardar o mais antigo
+UPDATE transcription_job j
+    JOIN (SELECT content_hash, language, MIN(id) AS original_id
+          FROM transcription_job
+          WHERE status IN ('UPLOADED', 'PROCESSING')
+            AND duplicate_of_job_id IS NULL
+            AND content_hash IS NOT NULL
+          GROUP BY content_hash, language
+          HAVING COUNT(*) > 1) o
+    ON o.content_hash = j.content_hash AND o.language <=> j.language
+SET j.duplicate_of_job_id = o.original_id,
+    j.status              = 'UPLOADED',
+    j.visible_after       = NULL,
+    j.lease_owner         = NULL,
+    j.lease_expires_at    = NULL
+WHERE j.id <> o.original_id
+  AND j.status IN ('UPLOADED', 'PROCESSING')
+  AND j.duplicate_of_job_id IS NULL;
+
+ALTER TABLE transcription_job
+    ADD COLUMN in_flight_key VARCHAR(320) AS (
+        IF(status IN ('UPLOADED', 'PROCESSING') AND duplicate_of_job_id IS NULL AND content_hash IS NOT NULL,
+           CONCAT(content_hash, '/', COALESCE(language, '')),
+           NULL)
+        ) STORED,
+    ADD CONSTRAINT uk_transcription_job_in_flight UNIQUE (in_flight_key);
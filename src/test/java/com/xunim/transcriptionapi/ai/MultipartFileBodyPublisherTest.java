@@ -0,0 +1,145 @@
+package com.xunim.transcriptionapi.ai;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultipartFileBodyPublisherTest {
+
+    private static final long FILE_SIZE = 200L * 1024 * 1024;
+    private static final long MAX_HEAP_GROWTH = 32L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong heapDuringUpload = new AtomicLong(-1);
+    private final byte[] receivedTail = new byte[32];
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/audio/transcriptions", exchange -> {
+            byte[] buffer = new byte[64 * 1024];
+            byte[] tail = new byte[receivedTail.length];
+            long total = 0;
+
+            try (InputStream body = exchange.getRequestBody()) {
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    total += read;
+                    keepTail(tail, buffer, read);
+
+                    // No meio do envio o arquivo inteiro estaria no heap se fosse carregado em memória
+                    if (heapDuringUpload.get() < 0 && total > FILE_SIZE / 2) {
+                        heapDuringUpload.set(usedHeapAfterGc());
+                    }
+                }
+            }
+
+            receivedBytes.set(total);
+            System.arraycopy(tail, 0, receivedTail, 0, tail.length);
+
+            byte[] response = "{\"text\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void streamsLargeFileWithFlatHeap() throws Exception {
+        Path audio = tempDir.resolve("chunk_000.m4a");
+        try (RandomAccessFile raf = new RandomAccessFile(audio.toFile(), "rw")) {
+            raf.setLength(FILE_SIZE);
+        }
+
+        byte[] header = "--b\r\nContent-Disposition: form-data; name=\"file\"\r\n\r\n"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] trailer = "\r\n--b--".getBytes(StandardCharsets.UTF_8);
+        MultipartFileBodyPublisher publisher = new MultipartFileBodyPublisher(header, audio, trailer);
+
+        long baseline = usedHeapAfterGc();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/audio/transcriptions"))
+                .header("Content-Type", "multipart/form-data; boundary=b")
+                .POST(publisher)
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertEquals(publisher.contentLength(), receivedBytes.get());
+        assertArrayEquals(trailer, Arrays.copyOfRange(receivedTail, receivedTail.length - trailer.length, receivedTail.length));
+
+        long growth = heapDuringUpload.get() - baseline;
+        assertTrue(growth < MAX_HEAP_GROWTH,
+                "Heap cresceu " + growth / (1024 * 1024) + " MB durante o envio de " + FILE_SIZE / (1024 * 1024) + " MB");
+    }
+
+    @Test
+    void canBeSubscribedMoreThanOnce() throws Exception {
+        Path audio = tempDir.resolve("small.m4a");
+        try (RandomAccessFile raf = new RandomAccessFile(audio.toFile(), "rw")) {
+            raf.setLength(100_000);
+        }
+
+        MultipartFileBodyPublisher publisher = new MultipartFileBodyPublisher(
+                new byte[]{1, 2, 3}, audio, new byte[]{4, 5}, 4096);
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/audio/transcriptions");
+
+        for (int i = 0; i < 2; i++) {
+            HttpRequest request = HttpRequest.newBuilder().uri(uri).POST(publisher).build();
+            client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(100_005, receivedBytes.get());
+        }
+    }
+
+    private static void keepTail(byte[] tail, byte[] buffer, int read) {
+        if (read >= tail.length) {
+            System.arraycopy(buffer, read - tail.length, tail, 0, tail.length);
+        } else {
+            System.arraycopy(tail, read, tail, 0, tail.length - read);
+            System.arraycopy(buffer, 0, tail, tail.length - read, read);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,64 @@
+package com.xunim.transcriptionapi.ai;
+
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhisperCircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndRejectsCalls() {
+        WhisperCircuitBreaker breaker = new WhisperCircuitBreaker(true, 3, 30);
+
+        for (int i = 0; i < 3; i++) {
+            breaker.acquirePermission();
+            breaker.onFailure();
+        }
+
+        assertTrue(breaker.isOpen());
+        DependencyUnavailableException error =
+                assertThrows(DependencyUnavailableException.class, breaker::acquirePermission);
+        assertTrue(error.getRetryAfterMillis() > 25_000, "Espera deveria ser o restante do intervalo aberto");
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        WhisperCircuitBreaker breaker = new WhisperCircuitBreaker(true, 3, 30);
+
+        for (int i = 0; i < 10; i++) {
+            breaker.acquirePermission();
+            if (i % 2 == 0) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    void halfOpenAllowsSingleProbe() {
+        WhisperCircuitBreaker breaker = new WhisperCircuitBreaker(true, 1, 30);
+        breaker.acquirePermission();
+        breaker.onFailure();
+
+        // Simula o fim do intervalo aberto
+        ReflectionTestUtils.setField(breaker, "openedAtNanos", System.nanoTime() - TimeUnit.SECONDS.toNanos(31));
+
+        assertDoesNotThrow(breaker::acquirePermission);
+        assertThrows(DependencyUnavailableException.class, breaker::acquirePermission);
+
+        breaker.onSuccess();
+        assertEquals("CLOSED", breaker.snapshot().get("state"));
+        assertDoesNotThrow(breaker::acquirePermission);
+    }
+}
@@ -0,0 +1,137 @@
+package com.xunim.transcriptionapi.ai;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xunim.transcriptionapi.cache.TranscriptionCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhisperClientHedgingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/audio/transcriptions", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+
+            // Só a primeira requisição fica presa na cauda de latência
+            String text = "rapida";
+            if (requests.incrementAndGet() == 1) {
+                text = "lenta";
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            byte[] response = ("{\"text\":\"" + text + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void slowCallIsHedgedAndFastestResponseWins() throws Exception {
+        HedgingPolicy hedging = new HedgingPolicy(true, 95, 100, 0, 5, 300);
+        // Atraso do hedge de ~1 s: a chamada primária sempre chega antes ao stub, mesmo com a máquina carregada
+        for (int i = 0; i < 5; i++) {
+            hedging.recordLatency(1000, 60);
+        }
+        WhisperRateLimiter rateLimiter = new WhisperRateLimiter(0, 0, false, 1, 4);
+
+        Path chunk = tempDir.resolve("chunk_000.m4a");
+        Files.write(chunk, new byte[4 * 1024]);
+
+        long start = System.nanoTime();
+        String text = client(hedging, rateLimiter).transcribe(chunk.toString(), null, 60);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals("rapida", text);
+        assertEquals(2, requests.get());
+        assertTrue(elapsedMillis < 4000, "Deveria usar a resposta do hedge, levou " + elapsedMillis + " ms");
+        assertEquals(1L, hedging.snapshot().get("hedge_wins"));
+
+        // A chamada cancelada também devolve a vaga do limitador
+        Thread.sleep(200);
+        assertEquals(0, rateLimiter.snapshot().get("in_flight"));
+    }
+
+    @Test
+    void hedgesAreCappedByBudget() {
+        HedgingPolicy hedging = new HedgingPolicy(true, 95, 5, 0, 1, 300);
+
+        int granted = 0;
+        for (int i = 0; i < 100; i++) {
+            hedging.onRequest();
+            if (hedging.tryAcquire()) {
+                granted++;
+            }
+        }
+
+        assertTrue(granted <= 5, "Hedges deveriam ficar em ~5% do tráfego, foram " + granted);
+    }
+
+    @Test
+    void percentileTracksRecentSamples() {
+        LatencyHistogram histogram = new LatencyHistogram(300, 10);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 10L);
+        }
+
+        assertEquals(100, histogram.count());
+        long p95 = histogram.percentile(95);
+        // Buckets de 10%: o valor devolvido é o limite superior do bucket
+        assertTrue(p95 >= 950 && p95 <= 1050, "p95 fora do esperado: " + p95);
+    }
+
+    private WhisperClient client(HedgingPolicy hedging, WhisperRateLimiter rateLimiter) {
+        TranscriptionCache cache = new TranscriptionCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        WhisperClient client = new WhisperClient(
+                HttpClient.newHttpClient(), new WhisperClientMetrics(), cache, rateLimiter, hedging,
+                new WhisperCircuitBreaker(true, 5, 30));
+        ReflectionTestUtils.setField(client, "apiKey", "test");
+        ReflectionTestUtils.setField(client, "whisperUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/audio/transcriptions");
+        ReflectionTestUtils.setField(client, "model", "whisper-1");
+        ReflectionTestUtils.setField(client, "requestTimeoutSeconds", 60L);
+        return client;
+    }
+}
@@ -0,0 +1,81 @@
+package com.xunim.transcriptionapi.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhisperRateLimiterTest {
+
+    @Test
+    void halvesConcurrencyOnOverloadAndGrowsBackOnSuccess() {
+        WhisperRateLimiter limiter = new WhisperRateLimiter(0, 0, true, 1, 8);
+
+        limiter.acquire(0);
+        limiter.release(429, -1);
+        assertEquals(4, limiter.snapshot().get("concurrency_limit"));
+
+        // Reduções dentro do intervalo de espera contam como um único evento
+        limiter.acquire(0);
+        limiter.release(503, -1);
+        assertEquals(4, limiter.snapshot().get("concurrency_limit"));
+
+        // +1 a cada ~limite sucessos
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(0);
+            limiter.release(200, -1);
+        }
+        assertEquals(5, limiter.snapshot().get("concurrency_limit"));
+    }
+
+    @Test
+    void waitsForRequestTokens() {
+        // 600 req/min = 1 token a cada 100 ms, com a cota de um minuto disponível de início
+        WhisperRateLimiter limiter = new WhisperRateLimiter(600, 0, false, 1, 1000);
+        for (int i = 0; i < 600; i++) {
+            limiter.acquire(0);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(0);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 250, "Deveria esperar a reposição dos tokens, esperou " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void pausesAllCallsForRetryAfter() {
+        WhisperRateLimiter limiter = new WhisperRateLimiter(0, 0, false, 1, 8);
+
+        limiter.acquire(0);
+        limiter.release(429, 300);
+
+        long start = System.nanoTime();
+        limiter.acquire(0);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 250, "Deveria respeitar o Retry-After, esperou " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void parsesRetryAfterHeaders() {
+        assertEquals(1500, WhisperClient.parseRetryAfter(headers(Map.of("retry-after-ms", "1500"))));
+        assertEquals(2000, WhisperClient.parseRetryAfter(headers(Map.of("Retry-After", "2"))));
+        assertEquals(-1, WhisperClient.parseRetryAfter(headers(Map.of())));
+        assertEquals(-1, WhisperClient.parseRetryAfter(headers(Map.of("Retry-After", "amanhã"))));
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        return HttpHeaders.of(
+                values.entrySet().stream().collect(Collectors.toMap(
+                        Map.Entry::getKey, entry -> List.of(entry.getValue()))),
+                (name, value) -> true);
+    }
+}
@@ -0,0 +1,94 @@
+package com.xunim.transcriptionapi.async;
+
+import com.xunim.transcriptionapi.ai.WhisperClient;
+import com.xunim.transcriptionapi.exception.WhisperApiException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkTranscriptionDispatcherTest {
+
+    private final WhisperClient whisperClient = mock(WhisperClient.class);
+    private final ExecutorService chunkExecutor = Executors.newFixedThreadPool(4);
+
+    private ChunkTranscriptionDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // Uma única chamada ao Whisper por vez na aplicação
+        dispatcher = new ChunkTranscriptionDispatcher(whisperClient, chunkExecutor, 1);
+        ReflectionTestUtils.setField(dispatcher, "perJobLimit", 1);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 1);
+        ReflectionTestUtils.setField(dispatcher, "maxThrottledAttempts", 1);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMaxMs", 2L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    @Test
+    void submitDoesNotWaitForWhisperPermits() throws InterruptedException {
+        CountDownLatch whisperSlow = new CountDownLatch(1);
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        when(whisperClient.transcribe(anyString(), any(), anyDouble())).thenAnswer(invocation -> {
+            String name = Path.of(invocation.<String>getArgument(0)).getFileName().toString();
+            if (name.equals("a.mp3")) {
+                firstStarted.countDown();
+                assertTrue(whisperSlow.await(10, TimeUnit.SECONDS));
+            }
+            return name.replace(".mp3", "");
+        });
+
+        ChunkTranscriptionDispatcher.JobTranscription transcription = dispatcher.open(1L, "pt");
+        transcription.submit(Path.of("a.mp3"));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        // Com a única vaga ocupada quem submete (a divisão do FFmpeg) segue sem esperar
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            transcription.completed("cache");
+            transcription.submit(Path.of("b.mp3"));
+            transcription.submit(Path.of("c.mp3"));
+        });
+
+        whisperSlow.countDown();
+        assertEquals(List.of("a", "cache", "b", "c"), transcription.awaitResults());
+    }
+
+    @Test
+    void chunksQueuedAfterAFailureAreNotSent() {
+        when(whisperClient.transcribe(anyString(), any(), anyDouble()))
+                .thenThrow(new WhisperApiException("Erro na API Whisper: invalid file format", 400, -1L));
+
+        ChunkTranscriptionDispatcher.JobTranscription transcription = dispatcher.open(1L, "pt");
+        transcription.submit(Path.of("a.mp3"));
+        transcription.submit(Path.of("b.mp3"));
+
+        WhisperApiException error = assertThrows(WhisperApiException.class, transcription::awaitResults);
+        assertEquals(400, error.getStatusCode());
+        verify(whisperClient, after(500).times(1)).transcribe(anyString(), any(), anyDouble());
+    }
+}
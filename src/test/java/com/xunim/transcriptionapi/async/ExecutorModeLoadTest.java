@@ -0,0 +1,226 @@
+package com.xunim.transcriptionapi.async;
+
+import com.sun.net.httpserver.HttpServer;
+import com.xunim.transcriptionapi.ai.HedgingPolicy;
+import com.xunim.transcriptionapi.ai.WhisperCircuitBreaker;
+import com.xunim.transcriptionapi.ai.WhisperClient;
+import com.xunim.transcriptionapi.ai.WhisperClientMetrics;
+import com.xunim.transcriptionapi.ai.WhisperRateLimiter;
+import com.xunim.transcriptionapi.cache.TranscriptionCache;
+import com.xunim.transcriptionapi.config.ExecutorMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara vazão e memória dos modos PLATFORM e VIRTUAL contra um Whisper local
+ *
+ * Teste de carga, desabilitado por padrão:
+ * mvn test -Dtest=ExecutorModeLoadTest -Dloadtest=true
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ExecutorModeLoadTest {
+
+    private static final int JOBS = 50;
+    private static final int CHUNKS_PER_JOB = 20;
+    // Chamadas simultâneas permitidas pela cota da API (semáforo global)
+    private static final int API_CONCURRENCY = 200;
+    private static final long STUB_LATENCY_MS = 200;
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private Path chunk;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(serverExecutor);
+        server.createContext("/v1/audio/transcriptions", exchange -> {
+            try (InputStream body = exchange.getRequestBody()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            requests.incrementAndGet();
+
+            try {
+                // Simula o tempo de processamento do Whisper
+                Thread.sleep(STUB_LATENCY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] response = "{\"text\":\"ok\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+
+        chunk = tempDir.resolve("chunk_000.m4a");
+        Files.write(chunk, new byte[16 * 1024]);
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void comparesPlatformAndVirtualThreads() throws Exception {
+        // Aquecimento (JIT, conexões) antes das medições
+        run(ExecutorMode.VIRTUAL, 2);
+        run(ExecutorMode.PLATFORM, 2);
+
+        Result platform = run(ExecutorMode.PLATFORM, JOBS);
+        Result virtual = run(ExecutorMode.VIRTUAL, JOBS);
+
+        System.out.printf("%n%-10s %12s %14s %16s %14s%n",
+                "modo", "tempo (ms)", "chunks/s", "pico threads SO", "heap (MB)");
+        for (Result result : List.of(platform, virtual)) {
+            System.out.printf("%-10s %12d %14.1f %16d %14.1f%n",
+                    result.mode, result.elapsedMillis, result.throughput(),
+                    result.peakPlatformThreads, result.heapGrowthBytes / (1024.0 * 1024.0));
+        }
+
+        // Mesmo limite de concorrência: a vazão deve ser equivalente
+        assertTrue(virtual.throughput() >= platform.throughput() * 0.8,
+                "Vazão no modo virtual muito abaixo do modo platform");
+
+        // Sem uma thread do SO por chamada bloqueada
+        assertTrue(virtual.peakPlatformThreads < platform.peakPlatformThreads,
+                "Modo virtual não deveria criar uma thread do SO por chamada");
+    }
+
+    private Result run(ExecutorMode mode, int jobs) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        Executor jobExecutor = mode.createExecutor("job-", jobs);
+        Executor chunkExecutor = mode.createExecutor("chunk-", API_CONCURRENCY);
+        ExecutorService httpExecutor = mode == ExecutorMode.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(4);
+
+        try {
+            ChunkTranscriptionDispatcher dispatcher = dispatcher(httpExecutor, chunkExecutor);
+
+            long heapBefore = usedHeapAfterGc();
+            threads.resetPeakThreadCount();
+            requests.set(0);
+
+            long start = System.nanoTime();
+
+            List<CompletableFuture<List<String>>> results = new ArrayList<>();
+            for (int job = 0; job < jobs; job++) {
+                long jobId = job;
+                results.add(CompletableFuture.supplyAsync(() -> {
+                    ChunkTranscriptionDispatcher.JobTranscription transcription = dispatcher.open(jobId, null);
+                    for (int i = 0; i < CHUNKS_PER_JOB; i++) {
+                        transcription.submit(chunk);
+                    }
+                    return transcription.awaitResults();
+                }, jobExecutor));
+            }
+
+            long heapPeak = 0;
+            for (CompletableFuture<List<String>> result : results) {
+                assertEquals(CHUNKS_PER_JOB, result.join().size());
+                heapPeak = Math.max(heapPeak, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+            }
+
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            assertEquals(jobs * CHUNKS_PER_JOB, requests.get());
+
+            return new Result(mode, jobs * CHUNKS_PER_JOB, elapsed,
+                    threads.getPeakThreadCount(), Math.max(0, heapPeak - heapBefore));
+
+        } finally {
+            close(jobExecutor);
+            close(chunkExecutor);
+            httpExecutor.shutdownNow();
+        }
+    }
+
+    private ChunkTranscriptionDispatcher dispatcher(ExecutorService httpExecutor, Executor chunkExecutor) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(httpExecutor)
+                .build();
+
+        TranscriptionCache cache = new TranscriptionCache();
+        ReflectionTestUtils.setField(cache, "enabled", false);
+
+        // Sem limite de taxa: a concorrência é limitada só pelo semáforo global
+        WhisperRateLimiter rateLimiter = new WhisperRateLimiter(0, 0, false, 1, API_CONCURRENCY);
+
+        HedgingPolicy hedging = new HedgingPolicy(false, 95, 5, 2000, 50, 300);
+
+        WhisperClient whisperClient =
+                new WhisperClient(httpClient, new WhisperClientMetrics(), cache, rateLimiter, hedging,
+                        new WhisperCircuitBreaker(false, 5, 30));
+        ReflectionTestUtils.setField(whisperClient, "apiKey", "test");
+        ReflectionTestUtils.setField(whisperClient, "whisperUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/audio/transcriptions");
+        ReflectionTestUtils.setField(whisperClient, "model", "whisper-1");
+        ReflectionTestUtils.setField(whisperClient, "requestTimeoutSeconds", 60L);
+
+        ChunkTranscriptionDispatcher dispatcher =
+                new ChunkTranscriptionDispatcher(whisperClient, chunkExecutor, API_CONCURRENCY);
+        ReflectionTestUtils.setField(dispatcher, "perJobLimit", CHUNKS_PER_JOB);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 1);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", 0L);
+        return dispatcher;
+    }
+
+    private static void close(Executor executor) throws Exception {
+        if (executor instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (executor instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private record Result(ExecutorMode mode, int calls, long elapsedMillis,
+                          int peakPlatformThreads, long heapGrowthBytes) {
+
+        double throughput() {
+            return calls * 1000.0 / Math.max(1, elapsedMillis);
+        }
+    }
+}
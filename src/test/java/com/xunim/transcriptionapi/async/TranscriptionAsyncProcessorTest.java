@@ -0,0 +1,187 @@
+package com.xunim.transcriptionapi.async;
+
+import com.xunim.transcriptionapi.ai.WhisperClient;
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import com.xunim.transcriptionapi.exception.WhisperApiException;
+import com.xunim.transcriptionapi.model.TranscriptionChunk;
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import com.xunim.transcriptionapi.service.AudioChunk;
+import com.xunim.transcriptionapi.service.AudioSplitService;
+import com.xunim.transcriptionapi.service.ChunkCheckpointService;
+import com.xunim.transcriptionapi.service.FileCleanupService;
+import com.xunim.transcriptionapi.service.JobQueueService;
+import com.xunim.transcriptionapi.service.SplitPlanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TranscriptionAsyncProcessorTest {
+
+    private static final long JOB_ID = 1L;
+
+    @TempDir
+    Path tempDir;
+
+    private final WhisperClient whisperClient = mock(WhisperClient.class);
+    private final TranscriptionJobRepository repository = mock(TranscriptionJobRepository.class);
+    private final JobQueueService queueService = mock(JobQueueService.class);
+    private final ChunkCheckpointService checkpointService = mock(ChunkCheckpointService.class);
+    private final SplitPlanner splitPlanner = mock(SplitPlanner.class);
+    private final AudioSplitService audioSplitService = mock(AudioSplitService.class);
+
+    private TranscriptionAsyncProcessor processor;
+    private TranscriptionJob job;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Chunks rodam na própria thread do teste
+        ChunkTranscriptionDispatcher dispatcher = new ChunkTranscriptionDispatcher(whisperClient, Runnable::run, 8);
+        ReflectionTestUtils.setField(dispatcher, "perJobLimit", 4);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "maxThrottledAttempts", 10);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMs", 1L);
+        ReflectionTestUtils.setField(dispatcher, "retryBackoffMaxMs", 2L);
+
+        processor = new TranscriptionAsyncProcessor(repository, dispatcher, audioSplitService,
+                mock(FileCleanupService.class), queueService, checkpointService, splitPlanner);
+
+        job = TranscriptionJob.builder()
+                .id(JOB_ID)
+                .status(TranscriptionJob.Status.PROCESSING)
+                .attempts(1)
+                .build();
+        when(repository.findById(JOB_ID)).thenReturn(Optional.of(job));
+        when(queueService.finish(any(), any())).thenReturn(true);
+
+        // Retomada de um checkpoint pendente: não passa pelo FFmpeg
+        Path chunk = Files.writeString(tempDir.resolve("audio_000.mp3"), "chunk");
+        TranscriptionChunk pending = TranscriptionChunk.builder()
+                .jobId(JOB_ID)
+                .chunkIndex(0)
+                .offsetSeconds(0.0)
+                .durationSeconds(10.0)
+                .filePath(chunk.toString())
+                .status(TranscriptionChunk.Status.PENDING)
+                .build();
+        when(checkpointService.findByJob(JOB_ID)).thenReturn(List.of(pending));
+        when(checkpointService.canSkipSplit(eq(job), any())).thenReturn(true);
+    }
+
+    @Test
+    void serverErrorsAfterAllAttemptsDeferTheJob() {
+        when(whisperClient.transcribe(anyString(), any(), anyDouble()))
+                .thenThrow(new WhisperApiException("Erro na API Whisper: bad gateway", 502, -1L));
+
+        processor.process(JOB_ID);
+
+        verify(whisperClient, times(3)).transcribe(anyString(), any(), anyDouble());
+        assertDeferred();
+    }
+
+    @Test
+    void timeoutsAfterAllAttemptsDeferTheJob() {
+        when(whisperClient.transcribe(anyString(), any(), anyDouble()))
+                .thenThrow(new WhisperApiException("Erro ao processar arquivo de áudio", 500,
+                        new HttpTimeoutException("request timed out")));
+
+        processor.process(JOB_ID);
+
+        assertDeferred();
+    }
+
+    @Test
+    void openCircuitDefersTheJobWithoutRetrying() {
+        when(whisperClient.transcribe(anyString(), any(), anyDouble()))
+                .thenThrow(new DependencyUnavailableException("Circuito aberto", 30_000));
+
+        processor.process(JOB_ID);
+
+        verify(whisperClient, times(1)).transcribe(anyString(), any(), anyDouble());
+        assertDeferred();
+        assertTrue(job.getVisibleAfter().isAfter(LocalDateTime.now().plusSeconds(20)));
+    }
+
+    @Test
+    void clientErrorFailsTheJob() {
+        when(whisperClient.transcribe(anyString(), any(), anyDouble()))
+                .thenThrow(new WhisperApiException("Erro na API Whisper: invalid file format", 400, -1L));
+
+        processor.process(JOB_ID);
+
+        verify(whisperClient, times(1)).transcribe(anyString(), any(), anyDouble());
+        assertEquals(TranscriptionJob.Status.ERROR, job.getStatus());
+        verify(queueService).finish(job, null);
+    }
+
+    @Test
+    void oversizedChunkIsResplitAfterTheSplitFinishes() throws IOException {
+        when(checkpointService.canSkipSplit(eq(job), any())).thenReturn(false);
+        when(checkpointService.findByJob(JOB_ID)).thenReturn(List.of());
+        when(splitPlanner.segmentSeconds(any(), anyInt())).thenReturn(60);
+        when(splitPlanner.getMaxChunkBytes()).thenReturn(10L);
+        when(whisperClient.transcribe(anyString(), any(), anyDouble())).thenAnswer(invocation ->
+                Path.of(invocation.<String>getArgument(0)).getFileName().toString().replace(".mp3", ""));
+
+        List<AudioChunk> chunks = List.of(
+                new AudioChunk(0, Files.writeString(tempDir.resolve("a.mp3"), "small"), 0, 60),
+                new AudioChunk(1, Files.writeString(tempDir.resolve("b.mp3"), "much larger than ten"), 60, 120),
+                new AudioChunk(2, Files.writeString(tempDir.resolve("c.mp3"), "small"), 120, 150));
+        List<AudioChunk> parts = List.of(
+                new AudioChunk(0, Files.writeString(tempDir.resolve("b1.mp3"), "part"), 0, 30),
+                new AudioChunk(1, Files.writeString(tempDir.resolve("b2.mp3"), "part"), 30, 60));
+
+        AtomicBoolean splitting = new AtomicBoolean();
+        when(audioSplitService.splitAudio(any(), eq(60), any())).thenAnswer(invocation -> {
+            Consumer<AudioChunk> onChunk = invocation.getArgument(2);
+            splitting.set(true);
+            chunks.forEach(onChunk);
+            splitting.set(false);
+            return chunks;
+        });
+        when(audioSplitService.splitOversized(eq(chunks.get(1).getPath()), eq(60.0), eq(10L))).thenAnswer(invocation -> {
+            // Nenhum FFmpeg aninhado dentro do callback da divisão do job
+            assertFalse(splitting.get());
+            return parts;
+        });
+
+        processor.process(JOB_ID);
+
+        assertEquals(TranscriptionJob.Status.DONE, job.getStatus());
+        verify(queueService).finish(job, "a\nb1 b2\nc\n");
+    }
+
+    private void assertDeferred() {
+        assertEquals(TranscriptionJob.Status.UPLOADED, job.getStatus());
+        assertEquals(0, job.getAttempts());
+        assertNotNull(job.getVisibleAfter());
+        assertTrue(job.getVisibleAfter().isAfter(LocalDateTime.now()));
+        verify(queueService).finish(eq(job), isNull());
+    }
+}
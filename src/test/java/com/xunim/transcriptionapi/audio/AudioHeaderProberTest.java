@@ -0,0 +1,181 @@
+package com.xunim.transcriptionapi.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AudioHeaderProberTest {
+
+    private final AudioHeaderProber prober = new AudioHeaderProber();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsWavFormatAndDataChunks() throws IOException {
+        // 2 s de PCM 16 bits estéreo a 44,1 kHz
+        Path file = write("a.wav", wav(44_100, 2, 2 * 44_100 * 4));
+
+        AudioProbe probe = prober.probe(file).orElseThrow();
+
+        assertEquals("wav", probe.getFormat());
+        assertEquals(2.0, probe.getDurationSeconds(), 1e-9);
+        assertEquals(1_411_200, probe.getBitRate());
+        assertEquals(2, probe.getChannels());
+        assertEquals(44_100, probe.getSampleRate());
+    }
+
+    @Test
+    void readsFlacStreamInfo() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 34 + 1000);
+        buffer.put(ascii("fLaC"));
+        buffer.put((byte) 0x80).put((byte) 0).put((byte) 0).put((byte) 34);
+        buffer.position(buffer.position() + 10);
+        // 48 kHz, 1 canal, 16 bits, 480.000 amostras (10 s)
+        int sampleRate = 48_000;
+        buffer.put((byte) (sampleRate >> 12));
+        buffer.put((byte) (sampleRate >> 4));
+        buffer.put((byte) (((sampleRate & 0x0F) << 4) | (0 << 1) | 0));
+        buffer.put((byte) (15 << 4));
+        buffer.putInt(480_000);
+
+        AudioProbe probe = prober.probe(write("a.flac", buffer.array())).orElseThrow();
+
+        assertEquals("flac", probe.getFormat());
+        assertEquals(10.0, probe.getDurationSeconds(), 1e-9);
+        assertEquals(1, probe.getChannels());
+        assertEquals(48_000, probe.getSampleRate());
+    }
+
+    @Test
+    void estimatesConstantBitRateMp3AfterId3Tag() throws IOException {
+        // MPEG-1 Layer III, 128 kb/s, 44,1 kHz, estéreo, sem padding: 417 bytes por frame
+        byte[] frame = new byte[417];
+        frame[0] = (byte) 0xFF;
+        frame[1] = (byte) 0xFB;
+        frame[2] = (byte) 0x90;
+        frame[3] = (byte) 0x00;
+
+        byte[] id3 = new byte[10 + 100];
+        System.arraycopy(ascii("ID3"), 0, id3, 0, 3);
+        id3[3] = 4;
+        id3[9] = 100;
+
+        int frames = 300;
+        ByteBuffer buffer = ByteBuffer.allocate(id3.length + frames * frame.length);
+        buffer.put(id3);
+        for (int i = 0; i < frames; i++) {
+            buffer.put(frame);
+        }
+
+        AudioProbe probe = prober.probe(write("a.mp3", buffer.array())).orElseThrow();
+
+        assertEquals("mp3", probe.getFormat());
+        assertEquals(frames * 417 * 8 / 128_000.0, probe.getDurationSeconds(), 1e-9);
+        assertEquals(128_000, probe.getBitRate());
+        assertEquals(2, probe.getChannels());
+    }
+
+    @Test
+    void readsOpusDurationFromLastPageGranule() throws IOException {
+        byte[] opusHead = new byte[19];
+        ByteBuffer head = ByteBuffer.wrap(opusHead).order(ByteOrder.LITTLE_ENDIAN);
+        head.put(ascii("OpusHead")).put((byte) 1).put((byte) 1).putShort((short) 312).putInt(16_000);
+
+        byte[] body = new byte[5000];
+        // 3 s a 48 kHz, mais o pre-skip
+        ByteBuffer file = ByteBuffer.allocate(27 + 1 + opusHead.length + body.length + 27 + 1 + 10);
+        file.put(oggPage(0, opusHead.length)).put(opusHead);
+        file.put(body);
+        file.put(oggPage(3 * 48_000 + 312, 10)).put(new byte[10]);
+
+        AudioProbe probe = prober.probe(write("a.ogg", file.array())).orElseThrow();
+
+        assertEquals("ogg", probe.getFormat());
+        assertEquals(3.0, probe.getDurationSeconds(), 1e-9);
+        assertEquals(1, probe.getChannels());
+        assertEquals(16_000, probe.getSampleRate());
+    }
+
+    @Test
+    void readsMp4MovieHeaderAfterMediaData() throws IOException {
+        byte[] ftyp = box("ftyp", ascii("M4A \0\0\0\0"));
+        byte[] mdat = box("mdat", new byte[2000]);
+
+        ByteBuffer mvhd = ByteBuffer.allocate(100);
+        mvhd.putInt(0).putInt(0).putInt(0).putInt(1000).putInt(90_500);
+
+        ByteBuffer mp4a = ByteBuffer.allocate(28);
+        mp4a.position(16);
+        mp4a.putShort((short) 2).putShort((short) 16).putInt(0).putInt(44_100 << 16);
+
+        byte[] moov = box("moov", concat(box("mvhd", mvhd.array()),
+                box("trak", box("stsd", concat(new byte[8], box("mp4a", mp4a.array()))))));
+
+        AudioProbe probe = prober.probe(write("a.m4a", concat(ftyp, mdat, moov))).orElseThrow();
+
+        assertEquals("mp4", probe.getFormat());
+        assertEquals(90.5, probe.getDurationSeconds(), 1e-9);
+        assertEquals(2, probe.getChannels());
+        assertEquals(44_100, probe.getSampleRate());
+    }
+
+    @Test
+    void unknownFormatIsEmpty() throws IOException {
+        assertTrue(prober.probe(write("a.bin", new byte[4096])).isEmpty());
+    }
+
+    /**
+     * WAV PCM 16 bits com um bloco LIST antes do data, como os gerados por editores
+     */
+    static byte[] wav(int sampleRate, int channels, int dataBytes) {
+        int byteRate = sampleRate * channels * 2;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 24 + 8 + 6 + 8 + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(ascii("RIFF")).putInt(buffer.capacity() - 8).put(ascii("WAVE"));
+        buffer.put(ascii("fmt ")).putInt(16).putShort((short) 1).putShort((short) channels)
+                .putInt(sampleRate).putInt(byteRate).putShort((short) (channels * 2)).putShort((short) 16);
+        buffer.put(ascii("LIST")).putInt(5).put(new byte[6]);
+        buffer.put(ascii("data")).putInt(dataBytes);
+        return buffer.array();
+    }
+
+    private static byte[] oggPage(long granule, int segmentLength) {
+        ByteBuffer page = ByteBuffer.allocate(28).order(ByteOrder.LITTLE_ENDIAN);
+        page.put(ascii("OggS")).put((byte) 0).put((byte) 0).putLong(granule)
+                .putInt(0x1234).putInt(0).putInt(0).put((byte) 1).put((byte) segmentLength);
+        return page.array();
+    }
+
+    private static byte[] box(String type, byte[] content) {
+        return ByteBuffer.allocate(8 + content.length).putInt(8 + content.length).put(ascii(type)).put(content).array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] part : parts) {
+            buffer.put(part);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return Files.write(dir.resolve(name), content);
+    }
+}
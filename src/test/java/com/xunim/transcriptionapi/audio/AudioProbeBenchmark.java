@@ -0,0 +1,91 @@
+package com.xunim.transcriptionapi.audio;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura do cabeçalho em Java x um processo do ffprobe por arquivo
+ *
+ * Não roda com os testes. Para executar:
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.xunim.transcriptionapi.audio.AudioProbeBenchmark
+ *
+ * O caminho do ffprobe vem de -Dffprobe.path (padrão: "ffprobe" no PATH); sem ele,
+ * o benchmark do processo falha e só o resultado em Java é útil.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioProbeBenchmark {
+
+    private final AudioHeaderProber prober = new AudioHeaderProber();
+
+    private Path file;
+
+    private String ffprobe;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // 60 s de WAV 16 kHz mono: o tamanho não muda o custo da leitura em Java
+        file = Files.createTempFile("probe-benchmark", ".wav");
+        Files.write(file, AudioHeaderProberTest.wav(16_000, 1, 60 * 16_000 * 2));
+        ffprobe = System.getProperty("ffprobe.path", "ffprobe");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Optional<AudioProbe> headerProber() {
+        return prober.probe(file);
+    }
+
+    @Benchmark
+    public byte[] ffprobeProcess() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(ffprobe, "-v", "error",
+                "-show_entries", "format=duration,bit_rate:stream=channels",
+                "-of", "csv=p=0", file.toString())
+                .redirectErrorStream(true)
+                .start();
+
+        try (InputStream output = process.getInputStream()) {
+            byte[] result = output.readAllBytes();
+            process.waitFor();
+            return result;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AudioProbeBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,93 @@
+package com.xunim.transcriptionapi.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlacSplitterTest {
+
+    private static final int BLOCK_SIZE = 4096;
+    private static final int SAMPLE_RATE = 16_000;
+    private static final int FRAME_BYTES = 300;
+
+    private final FlacSplitter splitter = new FlacSplitter();
+    private final AudioHeaderProber prober = new AudioHeaderProber();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cutsAtFirstFrameAfterEachBoundary() throws IOException {
+        // 40 frames de 4096 amostras a 16 kHz = 10,24 s
+        Path input = Files.write(dir.resolve("long.flac"), flac(40));
+        List<double[]> segments = new ArrayList<>();
+
+        int count = splitter.split(input, dir.resolve("chunks"), "long", duration -> List.of(5.0),
+                (index, path, start, end) -> segments.add(new double[]{start, end}));
+
+        // Frame 20 começa em 81.920 amostras (5,12 s), o primeiro a partir de 5 s
+        assertEquals(2, count);
+        assertEquals(20 * BLOCK_SIZE / (double) SAMPLE_RATE, segments.get(0)[1], 1e-9);
+        assertEquals(40 * BLOCK_SIZE / (double) SAMPLE_RATE, segments.get(1)[1], 1e-9);
+
+        Path second = dir.resolve("chunks").resolve("long_001.flac");
+        assertEquals(8 + 34 + 20L * FRAME_BYTES, Files.size(second));
+        assertEquals(20 * BLOCK_SIZE / (double) SAMPLE_RATE,
+                prober.probe(second).orElseThrow().getDurationSeconds(), 1e-9);
+    }
+
+    /**
+     * FLAC mono 16 bits com blocos fixos; o conteúdo dos frames é só preenchimento
+     */
+    private static byte[] flac(int frames) {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 34 + frames * FRAME_BYTES);
+        buffer.put("fLaC".getBytes(StandardCharsets.US_ASCII));
+        buffer.put((byte) 0x80).put((byte) 0).put((byte) 0).put((byte) 34);
+
+        long totalSamples = (long) frames * BLOCK_SIZE;
+        buffer.putShort((short) BLOCK_SIZE).putShort((short) BLOCK_SIZE);
+        buffer.put(new byte[6]);
+        buffer.put((byte) (SAMPLE_RATE >> 12)).put((byte) (SAMPLE_RATE >> 4));
+        buffer.put((byte) (((SAMPLE_RATE & 0x0F) << 4) | (0 << 1) | 0));
+        buffer.put((byte) ((15 << 4) | (int) ((totalSamples >> 32) & 0x0F)));
+        buffer.putInt((int) totalSamples);
+        buffer.put(new byte[16]);
+
+        for (int frame = 0; frame < frames; frame++) {
+            byte[] header = frameHeader(frame);
+            buffer.put(header);
+            buffer.put(new byte[FRAME_BYTES - header.length]);
+        }
+        return buffer.array();
+    }
+
+    private static byte[] frameHeader(int frameNumber) {
+        // Sincronismo, bloco 4096 (código 12), taxa do STREAMINFO, mono, 16 bits
+        byte[] header = frameNumber < 0x80
+                ? new byte[]{(byte) 0xFF, (byte) 0xF8, (byte) 0xC0, (byte) 0x08, (byte) frameNumber, 0}
+                : new byte[]{(byte) 0xFF, (byte) 0xF8, (byte) 0xC0, (byte) 0x08,
+                        (byte) (0xC0 | (frameNumber >> 6)), (byte) (0x80 | (frameNumber & 0x3F)), 0};
+        header[header.length - 1] = (byte) crc8(header, header.length - 1);
+        return header;
+    }
+
+    private static int crc8(byte[] bytes, int length) {
+        int crc = 0;
+        for (int i = 0; i < length; i++) {
+            crc ^= bytes[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                crc = (crc & 0x80) != 0 ? ((crc << 1) ^ 0x07) & 0xFF : (crc << 1) & 0xFF;
+            }
+        }
+        return crc;
+    }
+}
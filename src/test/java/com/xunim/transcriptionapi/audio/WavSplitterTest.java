@@ -0,0 +1,50 @@
+package com.xunim.transcriptionapi.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WavSplitterTest {
+
+    private final WavSplitter splitter = new WavSplitter();
+    private final AudioHeaderProber prober = new AudioHeaderProber();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void splitsOnFrameBoundariesWithValidHeaders() throws IOException {
+        // 10 s de PCM 16 bits estéreo a 8 kHz, com um bloco LIST antes do data
+        Path input = Files.write(dir.resolve("long.wav"), AudioHeaderProberTest.wav(8000, 2, 10 * 8000 * 4));
+        List<double[]> segments = new ArrayList<>();
+
+        int count = splitter.split(input, dir.resolve("chunks"), "long", duration -> List.of(3.0, 6.50001),
+                (index, path, start, end) -> segments.add(new double[]{index, start, end}));
+
+        assertEquals(3, count);
+        assertEquals(6.5, segments.get(1)[2], 1e-9);
+        assertEquals(10.0, segments.get(2)[2], 1e-9);
+
+        Path middle = dir.resolve("chunks").resolve("long_001.wav");
+        AudioProbe probe = prober.probe(middle).orElseThrow();
+        assertEquals(3.5, probe.getDurationSeconds(), 1e-9);
+        assertEquals(2, probe.getChannels());
+        // 44 bytes de cabeçalho + 3,5 s de áudio
+        assertEquals(44 + (long) (3.5 * 8000 * 4), Files.size(middle));
+    }
+
+    @Test
+    void rejectsNonPcmFiles() throws IOException {
+        assertFalse(splitter.supports(Files.write(dir.resolve("a.mp3"), new byte[1024])));
+        assertTrue(splitter.supports(Files.write(dir.resolve("a.wav"), AudioHeaderProberTest.wav(16000, 1, 3200))));
+    }
+}
@@ -0,0 +1,114 @@
+package com.xunim.transcriptionapi.model;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tamanho gravado x latência de leitura/gravação do texto por codec
+ *
+ * O tamanho aparece nos contadores auxiliares storedBytes/originalBytes de cada resultado.
+ * Não roda com os testes. Para executar:
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.xunim.transcriptionapi.model.TranscriptCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscriptCodecBenchmark {
+
+    private static final String[] WORDS = {
+            "então", "a", "gente", "precisa", "verificar", "o", "que", "foi", "combinado", "na", "reunião",
+            "de", "ontem", "sobre", "os", "prazos", "do", "projeto", "e", "também", "não", "sei", "se",
+            "isso", "vai", "dar", "certo", "porque", "cliente", "pediu", "mudanças", "no", "relatório",
+            "tá", "bom", "é", "exatamente", "assim", "vamos", "fechar", "semana", "que", "vem"
+    };
+
+    // Caracteres do texto: ~1 h de fala tem 50-60 mil
+    @Param({"10000", "60000", "1000000"})
+    private int length;
+
+    @Param({"NONE", "DEFLATE"})
+    private TranscriptCodec codec;
+
+    @Param({"1", "6"})
+    private int level;
+
+    private String text;
+    private byte[] content;
+    private int originalLength;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Size {
+        public long storedBytes;
+        public long originalBytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = transcript(length);
+        originalLength = text.getBytes(StandardCharsets.UTF_8).length;
+        content = codec.encode(text, level);
+    }
+
+    @Benchmark
+    public String read(Size size) {
+        size.storedBytes = content.length;
+        size.originalBytes = originalLength;
+        return codec.decode(content, originalLength);
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return codec.encode(text, level);
+    }
+
+    /**
+     * Texto com vocabulário e pontuação de fala transcrita (semente fixa)
+     */
+    static String transcript(int length) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length + 16);
+        int wordsInSentence = 0;
+        while (text.length() < length) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            if (++wordsInSentence > 8 && random.nextInt(6) == 0) {
+                text.append(random.nextInt(4) == 0 ? "?\n" : ". ");
+                wordsInSentence = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TranscriptCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
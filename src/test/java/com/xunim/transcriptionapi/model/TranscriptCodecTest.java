@@ -0,0 +1,42 @@
+package com.xunim.transcriptionapi.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranscriptCodecTest {
+
+    @Test
+    void deflateRoundTripsAndShrinksTranscripts() {
+        String text = TranscriptCodecBenchmark.transcript(200_000);
+        int originalLength = text.getBytes(StandardCharsets.UTF_8).length;
+
+        byte[] content = TranscriptCodec.DEFLATE.encode(text, 6);
+
+        assertEquals(text, TranscriptCodec.DEFLATE.decode(content, originalLength));
+        assertTrue(content.length < originalLength / 2, "Texto comprimido com " + content.length + " bytes");
+    }
+
+    @Test
+    void noneKeepsUtf8() {
+        String text = "Transcrição com acentuação";
+        byte[] content = TranscriptCodec.NONE.encode(text, 6);
+
+        assertEquals(text, new String(content, StandardCharsets.UTF_8));
+        assertEquals(text, TranscriptCodec.NONE.decode(content, content.length));
+    }
+
+    @Test
+    void detectsTruncatedContent() {
+        String text = TranscriptCodecBenchmark.transcript(10_000);
+        byte[] content = TranscriptCodec.DEFLATE.encode(text, 6);
+        byte[] truncated = java.util.Arrays.copyOf(content, content.length / 2);
+
+        assertThrows(IllegalStateException.class,
+                () -> TranscriptCodec.DEFLATE.decode(truncated, text.getBytes(StandardCharsets.UTF_8).length));
+    }
+}
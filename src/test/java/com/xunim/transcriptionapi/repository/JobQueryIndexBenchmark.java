@@ -0,0 +1,285 @@
+package com.xunim.transcriptionapi.repository;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de TranscriptionJobRepository antes (V2) e depois (V3) dos índices
+ *
+ * A fila, o reaper e a varredura de duplicados usam os índices da V2
+ * (idx_transcription_job_queue, idx_transcription_job_lease e
+ * idx_transcription_job_duplicate_of da V3): aparecem nas duas versões, e o
+ * EXPLAIN confirma que as consultas com FOR UPDATE SKIP LOCKED não varrem a tabela.
+ *
+ * Cria o esquema pelas migrations em um banco MySQL local, insere milhões de jobs e
+ * imprime o EXPLAIN de cada consulta antes de medir. O banco é apagado (flyway clean)
+ * a cada parâmetro: use um banco só para isso.
+ *
+ * Não roda com os testes. Para executar:
+ *
+ *   mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ *   java -Dbenchmark.db.url='jdbc:mysql://localhost:3306/transcription_bench?createDatabaseIfNotExist=true' \
+ *        -Dbenchmark.db.username=root -Dbenchmark.db.password=... \
+ *        -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *        com.xunim.transcriptionapi.repository.JobQueryIndexBenchmark
+ *
+ * Quantidade de linhas: -Dbenchmark.db.rows (padrão 2.000.000).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobQueryIndexBenchmark {
+
+    // Jobs criados ao longo de 90 dias; a limpeza diária pega o dia que passou da retenção
+    private static final int DAYS = 90;
+
+    private static final String[] STATUSES = {"UPLOADED", "PROCESSING", "DONE", "ERROR"};
+
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        // Primeira página da limpeza (JobPurgeService)
+        QUERIES.put("findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById",
+                "SELECT id, file_path, file_size_bytes, created_at, status, language FROM transcription_job " +
+                        "WHERE status = 'ERROR' AND created_at < ? AND id > 0 ORDER BY id LIMIT 500");
+        // Fila (JobQueueWorker.poll com 2 workers livres)
+        QUERIES.put("lockNextAvailable",
+                "SELECT * FROM transcription_job WHERE status = 'UPLOADED' AND duplicate_of_job_id IS NULL " +
+                        "AND (visible_after IS NULL OR visible_after <= ?) ORDER BY id LIMIT 2 FOR UPDATE SKIP LOCKED");
+        // Reaper de leases vencidos
+        QUERIES.put("lockExpiredLeases",
+                "SELECT * FROM transcription_job WHERE status = 'PROCESSING' " +
+                        "AND (lease_expires_at IS NULL OR lease_expires_at < ?) ORDER BY id LIMIT 100 " +
+                        "FOR UPDATE SKIP LOCKED");
+        // Varredura de duplicados parados
+        QUERIES.put("lockStrandedFollowers",
+                "SELECT f.* FROM transcription_job f WHERE f.status = 'UPLOADED' " +
+                        "AND f.duplicate_of_job_id IS NOT NULL AND NOT EXISTS (SELECT 1 FROM transcription_job o " +
+                        "WHERE o.id = f.duplicate_of_job_id AND o.status IN ('UPLOADED', 'PROCESSING')) " +
+                        "ORDER BY f.id LIMIT 100 FOR UPDATE SKIP LOCKED");
+        QUERIES.put("countByStatus",
+                "SELECT COUNT(*) FROM transcription_job WHERE status = 'PROCESSING'");
+        QUERIES.put("countByStatusAndLanguage",
+                "SELECT status, language, COUNT(*) FROM transcription_job GROUP BY status, language");
+        QUERIES.put("countByStatusAndHourSince",
+                "SELECT status, DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00') AS hour, COUNT(*) " +
+                        "FROM transcription_job WHERE created_at >= ? GROUP BY status, hour");
+        QUERIES.put("findByDuplicateOfJobIdAndStatus",
+                "SELECT * FROM transcription_job WHERE duplicate_of_job_id = ? AND status = 'UPLOADED'");
+    }
+
+    // 2 = esquema sem os índices de consulta, 3 = com os índices novos
+    @Param({"2", "3"})
+    public String schemaVersion;
+
+    private Connection connection;
+
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = System.getProperty("benchmark.db.url",
+                "jdbc:mysql://localhost:3306/transcription_bench?createDatabaseIfNotExist=true");
+        String username = System.getProperty("benchmark.db.username", "root");
+        String password = System.getProperty("benchmark.db.password", "");
+        int rows = Integer.getInteger("benchmark.db.rows", 2_000_000);
+
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .cleanDisabled(false)
+                .target(schemaVersion)
+                .load();
+        flyway.clean();
+        flyway.migrate();
+
+        connection = DriverManager.getConnection(url, username, password);
+        seed(rows);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            PreparedStatement statement = connection.prepareStatement(query.getValue());
+            switch (query.getKey()) {
+                case "findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById" ->
+                        statement.setTimestamp(1, Timestamp.valueOf(now.minusDays(DAYS - 1)));
+                case "lockNextAvailable", "lockExpiredLeases" -> statement.setTimestamp(1, Timestamp.valueOf(now));
+                case "countByStatusAndHourSince" -> statement.setTimestamp(1, Timestamp.valueOf(now.minusHours(48)));
+                case "findByDuplicateOfJobIdAndStatus" -> statement.setLong(1, rows / 2);
+                default -> {
+                }
+            }
+            statements.put(query.getKey(), statement);
+        }
+
+        printPlans();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+        connection.close();
+    }
+
+    @Benchmark
+    public long findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById() throws SQLException {
+        return run("findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById");
+    }
+
+    @Benchmark
+    public long lockNextAvailable() throws SQLException {
+        return run("lockNextAvailable");
+    }
+
+    @Benchmark
+    public long lockExpiredLeases() throws SQLException {
+        return run("lockExpiredLeases");
+    }
+
+    @Benchmark
+    public long lockStrandedFollowers() throws SQLException {
+        return run("lockStrandedFollowers");
+    }
+
+    @Benchmark
+    public long countByStatus() throws SQLException {
+        return run("countByStatus");
+    }
+
+    @Benchmark
+    public long countByStatusAndLanguage() throws SQLException {
+        return run("countByStatusAndLanguage");
+    }
+
+    @Benchmark
+    public long countByStatusAndHourSince() throws SQLException {
+        return run("countByStatusAndHourSince");
+    }
+
+    @Benchmark
+    public long findByDuplicateOfJobIdAndStatus() throws SQLException {
+        return run("findByDuplicateOfJobIdAndStatus");
+    }
+
+    // Percorre o resultado inteiro, como o Spring Data faz ao montar a lista
+    private long run(String name) throws SQLException {
+        long hash = 0;
+        try (ResultSet result = statements.get(name).executeQuery()) {
+            while (result.next()) {
+                hash = 31 * hash + result.getString(1).hashCode();
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Insere 1.000 jobs e dobra a tabela com INSERT ... SELECT até chegar em rows,
+     * sorteando status, idioma e data de novo a cada cópia
+     */
+    private void seed(int rows) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO transcription_job (file_name, file_path, status, created_at, language, file_size_bytes) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)")) {
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < 1000; i++) {
+                insert.setString(1, "audio-" + i + ".mp3");
+                insert.setString(2, "uploads/audio-" + i + ".mp3");
+                insert.setString(3, STATUSES[i % STATUSES.length]);
+                insert.setTimestamp(4, Timestamp.valueOf(now.minusMinutes(i * 129L)));
+                insert.setString(5, i % 3 == 0 ? null : (i % 3 == 1 ? "pt" : "en"));
+                insert.setLong(6, 1_000_000L + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+
+        try (Statement statement = connection.createStatement()) {
+            long count = 1000;
+            while (count < rows) {
+                count += statement.executeUpdate(
+                        "INSERT INTO transcription_job " +
+                                "(file_name, file_path, status, created_at, language, file_size_bytes, duplicate_of_job_id) " +
+                                "SELECT file_name, file_path, " +
+                                "ELT(1 + FLOOR(RAND() * 4), 'UPLOADED', 'PROCESSING', 'DONE', 'ERROR'), " +
+                                "NOW() - INTERVAL FLOOR(RAND() * " + DAYS * 24 * 60 + ") MINUTE, " +
+                                "ELT(1 + FLOOR(RAND() * 3), NULL, 'pt', 'en'), file_size_bytes, " +
+                                "IF(RAND() < 0.01, FLOOR(RAND() * " + rows + "), NULL) " +
+                                "FROM transcription_job LIMIT " + (rows - count));
+                connection.commit();
+            }
+            // Poucos leases vencidos e parte da fila adiada, como em produção
+            statement.executeUpdate("UPDATE transcription_job SET lease_expires_at = " +
+                    "IF(RAND() < 0.001, NOW() - INTERVAL 5 MINUTE, NOW() + INTERVAL 2 MINUTE) WHERE status = 'PROCESSING'");
+            statement.executeUpdate("UPDATE transcription_job SET visible_after = NOW() + INTERVAL 10 MINUTE " +
+                    "WHERE status = 'UPLOADED' AND RAND() < 0.1");
+            connection.commit();
+            statement.execute("ANALYZE TABLE transcription_job");
+        }
+        connection.setAutoCommit(true);
+
+        System.out.printf("%n%d jobs inseridos em %d s (esquema V%s)%n",
+                rows, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), schemaVersion);
+    }
+
+    private void printPlans() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, String> query : QUERIES.entrySet()) {
+            String sql = query.getValue().replace("?", switch (query.getKey()) {
+                case "countByStatusAndHourSince" -> "'" + Timestamp.valueOf(now.minusHours(48)) + "'";
+                case "findByDuplicateOfJobIdAndStatus" -> "1";
+                case "lockNextAvailable", "lockExpiredLeases" -> "'" + Timestamp.valueOf(now) + "'";
+                default -> "'" + Timestamp.valueOf(now.minusDays(DAYS - 1)) + "'";
+            });
+
+            System.out.printf("%n-- %s (V%s)%n", query.getKey(), schemaVersion);
+            try (Statement statement = connection.createStatement();
+                 ResultSet plan = statement.executeQuery("EXPLAIN FORMAT=TREE " + sql)) {
+                while (plan.next()) {
+                    System.out.println(plan.getString(1));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JobQueryIndexBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,106 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.exception.AudioProcessingException;
+import com.xunim.transcriptionapi.exception.DependencyUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Watchdog e bulkhead do FFmpeg com um executável falso (script de shell) no lugar do FFmpeg
+ */
+class AudioSplitServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AudioSplitService service;
+    private Path input;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new AudioSplitService(2, "copy", 16000, "", List.of());
+        ReflectionTestUtils.setField(service, "timeoutSeconds", 1L);
+        ReflectionTestUtils.setField(service, "bulkheadWaitSeconds", 1L);
+        input = Files.writeString(tempDir.resolve("audio.mp3"), "audio");
+    }
+
+    @Test
+    void watchdogKillsFfmpegWithoutProgress() throws IOException {
+        fakeFfmpeg("exec sleep 60");
+
+        AudioProcessingException error = assertTimeoutPreemptively(Duration.ofSeconds(15), () ->
+                assertThrows(AudioProcessingException.class,
+                        () -> service.splitAudio(input.toString(), 60, chunk -> { })));
+
+        assertTrue(error.getMessage().contains("sem progresso"), error.getMessage());
+    }
+
+    @Test
+    void progressKeepsSlowFfmpegAlive() throws IOException {
+        // Três segundos no total, mas nunca mais de meio segundo sem escrever progresso
+        fakeFfmpeg("""
+                i=0
+                while [ $i -lt 6 ]; do
+                  echo "size=$i kB time=00:00:0$i.00" >&2
+                  sleep 0.5
+                  i=$((i+1))
+                done
+                echo "audio_000.mp3,0.000000,3.000000"
+                """);
+
+        List<AudioChunk> chunks = service.splitAudio(input.toString(), 60, chunk -> { });
+
+        assertEquals(1, chunks.size());
+        assertEquals(3.0, chunks.get(0).getEndSeconds());
+    }
+
+    @Test
+    void probeOfHungFfmpegTimesOut() throws IOException {
+        fakeFfmpeg("exec sleep 60");
+
+        AudioProcessingException error = assertTimeoutPreemptively(Duration.ofSeconds(15), () ->
+                assertThrows(AudioProcessingException.class, () -> service.probe(input.toString())));
+
+        assertTrue(error.getMessage().contains("não respondeu"), error.getMessage());
+    }
+
+    @Test
+    void probeWaitsForFfmpegSlot() throws IOException {
+        service = new AudioSplitService(1, "copy", 16000, "", List.of());
+        ReflectionTestUtils.setField(service, "timeoutSeconds", 1L);
+        ReflectionTestUtils.setField(service, "bulkheadWaitSeconds", 1L);
+        fakeFfmpeg("echo '  Duration: 00:01:30.50, start: 0.000000, bitrate: 128 kb/s'; exit 1");
+
+        assertEquals(90.5, service.probe(input.toString()).getDurationSeconds());
+
+        // Com a única vaga ocupada o probe não abre outro processo
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(service, "ffmpegPermits");
+        permits.acquireUninterruptibly();
+        try {
+            assertThrows(DependencyUnavailableException.class, () -> service.probe(input.toString()));
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void fakeFfmpeg(String body) throws IOException {
+        Path script = tempDir.resolve("ffmpeg");
+        Files.writeString(script, "#!/bin/sh\n" + body + "\n");
+        assertTrue(script.toFile().setExecutable(true));
+        ReflectionTestUtils.setField(service, "ffmpegPath", script.toString());
+    }
+}
@@ -0,0 +1,55 @@
+package com.xunim.transcriptionapi.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileCleanupServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private final FileCleanupService cleanup = new FileCleanupService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cleanup, "uploadDir", uploadDir.toString());
+    }
+
+    @Test
+    void orphanCleanupKeepsChunksOfJobsInUse() throws IOException {
+        Path resumable = chunksOf("resumable.mp3");
+        Path orphan = chunksOf("orphan.mp3");
+
+        cleanup.cleanOrphanedFiles(List.of(uploadDir.resolve("resumable.mp3").toString()));
+
+        assertTrue(Files.exists(resumable.resolve("chunk_000.mp3")));
+        assertFalse(Files.exists(orphan));
+    }
+
+    @Test
+    void relativePathsMatchTheListedDirectories() throws IOException {
+        Path resumable = chunksOf("relative.mp3");
+        Path relative = Path.of("").toAbsolutePath().relativize(uploadDir.resolve("relative.mp3"));
+
+        cleanup.cleanOrphanedFiles(List.of(relative.toString()));
+
+        assertTrue(Files.exists(resumable));
+    }
+
+    private Path chunksOf(String fileName) throws IOException {
+        Files.writeString(uploadDir.resolve(fileName), "audio");
+        Path chunks = Files.createDirectories(cleanup.getChunksDirectory(uploadDir.resolve(fileName).toString()));
+        Files.writeString(chunks.resolve("chunk_000.mp3"), "chunk");
+        return chunks;
+    }
+}
@@ -0,0 +1,124 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob;
+import com.xunim.transcriptionapi.model.TranscriptionJob.Status;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobDeduplicationServiceTest {
+
+    private static final String HASH = "abc";
+
+    private final TranscriptionJobRepository repository = mock(TranscriptionJobRepository.class);
+    private final TranscriptionResultService transcriptionResultService = mock(TranscriptionResultService.class);
+
+    private JobDeduplicationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new JobDeduplicationService(repository, transcriptionResultService, mock(TransactionTemplate.class));
+        when(repository.lockInFlightByContentHashAndLanguage(HASH, "pt")).thenReturn(List.of());
+    }
+
+    @Test
+    void deletedOriginalPromotesOldestFollower() {
+        TranscriptionJob newer = follower(12L, 1L);
+        TranscriptionJob oldest = follower(11L, 1L);
+        when(repository.findByDuplicateOfJobIdAndStatus(1L, Status.UPLOADED)).thenReturn(List.of(newer, oldest));
+
+        service.onOriginalDeleted(1L);
+
+        assertNull(oldest.getDuplicateOfJobId());
+        assertEquals(Status.UPLOADED, oldest.getStatus());
+        assertEquals(11L, newer.getDuplicateOfJobId());
+        verify(repository).save(oldest);
+        verify(repository).save(newer);
+    }
+
+    @Test
+    void deletedOriginalHandsFollowersToInFlightOriginal() {
+        TranscriptionJob follower = follower(11L, 1L);
+        when(repository.findByDuplicateOfJobIdAndStatus(1L, Status.UPLOADED)).thenReturn(List.of(follower));
+        when(repository.lockInFlightByContentHashAndLanguage(HASH, "pt")).thenReturn(List.of(job(5L, Status.PROCESSING)));
+
+        service.onOriginalDeleted(1L);
+
+        // Um segundo original violaria uk_transcription_job_in_flight
+        assertEquals(5L, follower.getDuplicateOfJobId());
+    }
+
+    @Test
+    void sweepResolvesFollowersOfFinishedOriginals() {
+        TranscriptionJob done = job(1L, Status.DONE);
+        TranscriptionJob failed = job(2L, Status.ERROR);
+        failed.setErrorMessage("arquivo inválido");
+        TranscriptionJob waitingDone = follower(11L, 1L);
+        TranscriptionJob waitingFailed = follower(12L, 2L);
+        when(repository.lockStrandedFollowers(anyInt())).thenReturn(List.of(waitingDone, waitingFailed));
+        when(repository.findById(1L)).thenReturn(Optional.of(done));
+        when(repository.findById(2L)).thenReturn(Optional.of(failed));
+
+        assertEquals(2, service.releaseStrandedFollowers());
+
+        assertEquals(Status.DONE, waitingDone.getStatus());
+        verify(transcriptionResultService).copy(1L, 11L);
+        assertEquals(Status.ERROR, waitingFailed.getStatus());
+        assertTrue(waitingFailed.getErrorMessage().contains("arquivo inválido"));
+    }
+
+    @Test
+    void sweepPromotesFollowersOfMissingOriginal() {
+        TranscriptionJob first = follower(11L, 1L);
+        TranscriptionJob second = follower(12L, 1L);
+        when(repository.lockStrandedFollowers(anyInt())).thenReturn(List.of(first, second));
+        when(repository.findById(1L)).thenReturn(Optional.empty());
+
+        assertEquals(2, service.releaseStrandedFollowers());
+
+        assertNull(first.getDuplicateOfJobId());
+        assertEquals(11L, second.getDuplicateOfJobId());
+        verify(transcriptionResultService, never()).copy(any(), any());
+    }
+
+    @Test
+    void purgedOriginalPassesItsResultToFollowers() {
+        TranscriptionJob follower = follower(11L, 1L);
+        when(repository.findByDuplicateOfJobIdInAndStatus(List.of(1L, 2L), Status.UPLOADED)).thenReturn(List.of(follower));
+        when(repository.findById(1L)).thenReturn(Optional.of(job(1L, Status.DONE)));
+
+        service.onOriginalsPurged(List.of(1L, 2L));
+
+        assertEquals(Status.DONE, follower.getStatus());
+        verify(transcriptionResultService).copy(1L, 11L);
+    }
+
+    private static TranscriptionJob follower(Long id, Long originalId) {
+        TranscriptionJob job = job(id, Status.UPLOADED);
+        job.setDuplicateOfJobId(originalId);
+        return job;
+    }
+
+    private static TranscriptionJob job(Long id, Status status) {
+        return TranscriptionJob.builder()
+                .id(id)
+                .status(status)
+                .contentHash(HASH)
+                .language("pt")
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.model.TranscriptionJob.Status;
+import com.xunim.transcriptionapi.repository.JobFileView;
+import com.xunim.transcriptionapi.repository.TranscriptionChunkRepository;
+import com.xunim.transcriptionapi.repository.TranscriptionJobRepository;
+import com.xunim.transcriptionapi.repository.TranscriptionResultRepository;
+import lombok.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobPurgeServiceTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime CREATED = CUTOFF.minusDays(40);
+
+    private final TranscriptionJobRepository repository = mock(TranscriptionJobRepository.class);
+    private final TranscriptionChunkRepository chunkRepository = mock(TranscriptionChunkRepository.class);
+    private final TranscriptionResultRepository resultRepository = mock(TranscriptionResultRepository.class);
+    private final FileCleanupService fileCleanupService = mock(FileCleanupService.class);
+    private final JobStatusCounters jobStatusCounters = mock(JobStatusCounters.class);
+    private final JobDeduplicationService deduplicationService = mock(JobDeduplicationService.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private JobPurgeService purgeService;
+
+    @BeforeEach
+    void setUp() {
+        // Transação e executor "diretos": tudo roda na thread do teste, na ordem das chamadas
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        purgeService = new JobPurgeService(repository, chunkRepository, resultRepository, fileCleanupService,
+                jobStatusCounters, deduplicationService, transactionTemplate, Runnable::run, 2);
+
+        // Páginas de 2 por keyset: DONE (1, 3), (4, 5), (6) e vazia; ERROR (2) e vazia
+        pageAfter(Status.DONE, 0, row(1, Status.DONE), row(3, Status.DONE));
+        pageAfter(Status.DONE, 3, row(4, Status.DONE), row(5, Status.DONE));
+        pageAfter(Status.DONE, 5, row(6, Status.DONE));
+        pageAfter(Status.DONE, 6);
+        pageAfter(Status.ERROR, 0, row(2, Status.ERROR));
+        pageAfter(Status.ERROR, 2);
+    }
+
+    @Test
+    void pagesByIdUntilAnEmptyPage() {
+        JobPurgeService.PurgeResult result = purgeService.purgeCreatedBefore(JobPurgeService.FINISHED, CUTOFF);
+
+        assertEquals(6, result.getDeleted());
+        assertEquals(0, result.getFailed());
+        assertEquals(6 * 1000L, result.getFreedBytes());
+
+        verify(repository, times(4)).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.DONE), eq(CUTOFF), anyLong(), any());
+        verify(repository).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.DONE), eq(CUTOFF), eq(6L), any());
+        verify(repository).deleteByIds(List.of(1L, 3L));
+        verify(repository).deleteByIds(List.of(4L, 5L));
+        verify(repository).deleteByIds(List.of(6L));
+        verify(repository).deleteByIds(List.of(2L));
+    }
+
+    @Test
+    void inFlightJobsAreNeverPurged() {
+        assertThrows(IllegalArgumentException.class,
+                () -> purgeService.purgeCreatedBefore(EnumSet.of(Status.DONE, Status.UPLOADED), CUTOFF));
+        assertThrows(IllegalArgumentException.class,
+                () -> purgeService.purgeCreatedBefore(EnumSet.of(Status.PROCESSING), CUTOFF));
+
+        purgeService.purgeCreatedBefore(JobPurgeService.FINISHED, CUTOFF);
+
+        verify(repository, never()).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.UPLOADED), any(), anyLong(), any());
+        verify(repository, never()).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.PROCESSING), any(), anyLong(), any());
+    }
+
+    @Test
+    void failedPageIsSkippedAndItsFilesKept() {
+        when(repository.deleteByIds(List.of(4L, 5L))).thenThrow(new QueryTimeoutException("lock wait timeout"));
+
+        JobPurgeService.PurgeResult result = purgeService.purgeCreatedBefore(JobPurgeService.FINISHED, CUTOFF);
+
+        assertEquals(4, result.getDeleted());
+        assertEquals(2, result.getFailed());
+        assertEquals(4 * 1000L, result.getFreedBytes());
+
+        // O keyset avança depois da página que falhou, sem repeti-la
+        verify(repository).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.DONE), eq(CUTOFF), eq(5L), any());
+        verify(repository).deleteByIds(List.of(6L));
+
+        verify(fileCleanupService, never()).deleteFileAndChunks("uploads/4.mp3");
+        verify(fileCleanupService, never()).deleteFileAndChunks("uploads/5.mp3");
+        verify(fileCleanupService).deleteFileAndChunks("uploads/6.mp3");
+    }
+
+    @Test
+    void followersAreResolvedBeforeRowsAndFiles() {
+        purgeService.purgeCreatedBefore(JobPurgeService.FINISHED, CUTOFF);
+
+        InOrder order = inOrder(deduplicationService, chunkRepository, resultRepository, repository, fileCleanupService);
+        order.verify(deduplicationService).onOriginalsPurged(List.of(1L, 3L));
+        order.verify(chunkRepository).deleteByJobIds(List.of(1L, 3L));
+        order.verify(resultRepository).deleteByJobIds(List.of(1L, 3L));
+        order.verify(repository).deleteByIds(List.of(1L, 3L));
+        order.verify(fileCleanupService).deleteFileAndChunks("uploads/1.mp3");
+        order.verify(fileCleanupService).deleteFileAndChunks("uploads/3.mp3");
+        order.verify(deduplicationService).onOriginalsPurged(List.of(4L, 5L));
+        order.verify(repository).deleteByIds(List.of(4L, 5L));
+        order.verify(fileCleanupService).deleteFileAndChunks("uploads/4.mp3");
+    }
+
+    @Test
+    void bulkDeleteDecrementsStatusCounters() {
+        purgeService.purgeCreatedBefore(JobPurgeService.FINISHED, CUTOFF);
+
+        verify(jobStatusCounters, times(5)).onTransition(Status.DONE, null, "pt", CREATED);
+        verify(jobStatusCounters).onTransition(Status.ERROR, null, "pt", CREATED);
+    }
+
+    @Test
+    void statusFilterOnlyReadsThatStatus() {
+        JobPurgeService.PurgeResult result = purgeService.purgeCreatedBefore(EnumSet.of(Status.ERROR), CUTOFF);
+
+        assertEquals(1, result.getDeleted());
+        verify(repository).deleteByIds(List.of(2L));
+        verify(repository, never()).findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(
+                eq(Status.DONE), any(), anyLong(), any());
+    }
+
+    private void pageAfter(Status status, long afterId, JobFileView... rows) {
+        when(repository.findByStatusAndCreatedAtBeforeAndIdGreaterThanOrderById(eq(status), eq(CUTOFF), eq(afterId), any()))
+                .thenReturn(List.of(rows));
+    }
+
+    private static JobFileView row(long id, Status status) {
+        return new Row(id, "uploads/" + id + ".mp3", 1000L, CREATED, status, "pt");
+    }
+
+    @Value
+    private static class Row implements JobFileView {
+        Long id;
+        String filePath;
+        Long fileSizeBytes;
+        LocalDateTime createdAt;
+        Status status;
+        String language;
+    }
+}
@@ -0,0 +1,134 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.dto.JobStatistics;
+import com.xunim.transcriptionapi.model.TranscriptionJob.Status;
+import com.xunim.transcriptionapi.repository.HourlyStatusCountView;
+import com.xunim.transcriptionapi.repository.StatusCountView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JobStatusCountersTest {
+
+    private final JobStatusCounters counters = new JobStatusCounters();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(counters, "hourWindow", 48);
+    }
+
+    @Test
+    void transitionsMoveCountsBetweenStatuses() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.onTransition(null, Status.UPLOADED, "pt", now);
+        counters.onTransition(null, Status.UPLOADED, null, now);
+        counters.onTransition(Status.UPLOADED, Status.PROCESSING, "pt", now);
+        counters.onTransition(Status.PROCESSING, Status.DONE, "pt", now);
+
+        JobStatistics stats = counters.snapshot();
+
+        assertEquals(2, stats.getTotal());
+        assertEquals(1, stats.getCompleted());
+        assertEquals(1, stats.getPending());
+        assertEquals(1L, stats.getByLanguage().get("pt").get("done"));
+        assertEquals(0L, stats.getByLanguage().get("pt").get("uploaded"));
+        assertEquals(1L, stats.getByLanguage().get(JobStatusCounters.AUTO_LANGUAGE).get("uploaded"));
+        assertEquals(2L, stats.getByHour().values().iterator().next().get("total"));
+        assertNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void removalDecrementsCurrentStatus() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.onTransition(null, Status.ERROR, "en", now);
+        counters.onTransition(Status.ERROR, null, "en", now);
+
+        JobStatistics stats = counters.snapshot();
+
+        assertEquals(0, stats.getTotal());
+        assertEquals(0L, stats.getByLanguage().get("en").get("error"));
+    }
+
+    @Test
+    void reconcileReplacesCountsWithDatabaseRows() {
+        counters.onTransition(null, Status.UPLOADED, "pt", LocalDateTime.now());
+
+        String hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS)
+                .format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+        counters.reconcile(
+                List.of(row(Status.DONE, "pt", 5), row(Status.ERROR, null, 2), row(Status.DONE, "en", 3)),
+                List.of(hourRow("DONE", hour, 8), hourRow("ERROR", hour, 2)),
+                0);
+
+        JobStatistics stats = counters.snapshot();
+
+        assertEquals(10, stats.getTotal());
+        assertEquals(8, stats.getCompleted());
+        assertEquals(2, stats.getErrors());
+        assertEquals(0, stats.getPending());
+        assertEquals(5L, stats.getByLanguage().get("pt").get("done"));
+        assertEquals(2L, stats.getByLanguage().get(JobStatusCounters.AUTO_LANGUAGE).get("error"));
+        assertEquals(10L, stats.getByHour().get(hour).get("total"));
+        assertNotNull(stats.getReconciledAt());
+    }
+
+    @Test
+    void waitingDuplicatesAreNotCountedAsQueued() {
+        LocalDateTime now = LocalDateTime.now();
+        counters.onTransition(null, Status.UPLOADED, "pt", now);
+        counters.onTransition(null, Status.UPLOADED, "pt", now);
+        counters.onWaitingChanged(1);
+
+        JobStatistics stats = counters.snapshot();
+
+        assertEquals(2, stats.getTotal());
+        assertEquals(1, stats.getWaiting());
+        assertEquals(1, stats.getPending());
+
+        counters.onTransition(Status.UPLOADED, Status.DONE, "pt", now);
+        counters.onWaitingChanged(-1);
+        counters.reconcile(List.of(row(Status.UPLOADED, "pt", 3)), List.of(), 2);
+
+        stats = counters.snapshot();
+
+        assertEquals(2, stats.getWaiting());
+        assertEquals(1, stats.getPending());
+    }
+
+    @Test
+    void hoursOutsideWindowAreDropped() {
+        ReflectionTestUtils.setField(counters, "hourWindow", 2);
+        counters.onTransition(null, Status.DONE, "pt", LocalDateTime.now().minusHours(5));
+        counters.onTransition(null, Status.DONE, "pt", LocalDateTime.now());
+
+        JobStatistics stats = counters.snapshot();
+
+        assertEquals(2, stats.getTotal());
+        assertEquals(1, stats.getByHour().size());
+    }
+
+    private static StatusCountView row(Status status, String language, long total) {
+        return new StatusCountView() {
+            public Status getStatus() { return status; }
+            public String getLanguage() { return language; }
+            public long getTotal() { return total; }
+        };
+    }
+
+    private static HourlyStatusCountView hourRow(String status, String hour, long total) {
+        return new HourlyStatusCountView() {
+            public String getStatus() { return status; }
+            public String getHour() { return hour; }
+            public long getTotal() { return total; }
+        };
+    }
+}
@@ -0,0 +1,261 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.dto.TranscriptionJobResponse;
+import com.xunim.transcriptionapi.exception.FileStorageException;
+import com.xunim.transcriptionapi.exception.UploadInterruptedException;
+import com.xunim.transcriptionapi.model.UploadSession;
+import com.xunim.transcriptionapi.repository.UploadSessionRepository;
+import com.xunim.transcriptionapi.validator.AudioFileValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResumableUploadServiceTest {
+
+    private static final byte[] ID3 = {0x49, 0x44, 0x33, 0x04, 0, 0, 0, 0, 0, 0, 0, 0};
+
+    @TempDir
+    Path uploadDir;
+
+    // Sessões "no banco"
+    private final Map<String, UploadSession> sessions = new HashMap<>();
+
+    private final UploadSessionRepository repository = mock(UploadSessionRepository.class);
+    private final TranscriptionService transcriptionService = mock(TranscriptionService.class);
+    private final JobDeduplicationService deduplicationService = mock(JobDeduplicationService.class);
+
+    private ResumableUploadService service;
+    private byte[] audio;
+
+    @BeforeEach
+    void setUp() {
+        AudioFileValidator validator = new AudioFileValidator();
+        ReflectionTestUtils.setField(validator, "maxFileSizeMb", 500L);
+        UploadStorageService storage = new UploadStorageService(validator);
+        ReflectionTestUtils.setField(storage, "uploadDir", uploadDir.toString());
+
+        service = new ResumableUploadService(repository, validator, storage, transcriptionService, deduplicationService);
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "expiryHours", 24L);
+
+        when(repository.save(any(UploadSession.class))).thenAnswer(invocation -> {
+            UploadSession session = invocation.getArgument(0);
+            if (session.getCreatedAt() == null) {
+                session.prePersist();
+            }
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(repository.findById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+        when(repository.lockById(anyString())).thenAnswer(invocation ->
+                Optional.ofNullable(sessions.get(invocation.<String>getArgument(0))));
+
+        // Mesma sequência do TransactionTemplate: commit se o trabalho terminar, rollback se lançar
+        when(deduplicationService.retryOnConcurrentOriginal(any())).thenAnswer(invocation -> {
+            Supplier<?> work = invocation.getArgument(0);
+            TransactionSynchronizationManager.initSynchronization();
+            int status = TransactionSynchronization.STATUS_ROLLED_BACK;
+            try {
+                Object result = work.get();
+                status = TransactionSynchronization.STATUS_COMMITTED;
+                return result;
+            } finally {
+                for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                    synchronization.afterCompletion(status);
+                }
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        audio = new byte[200_000];
+        for (int i = 0; i < audio.length; i++) {
+            audio[i] = i < ID3.length ? ID3[i] : (byte) (i * 31);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rejectsChunkWithWrongOffset() throws IOException {
+        UploadSession session = newSession();
+        service.appendChunk(session.getId(), 0, part(0, 1000));
+
+        assertThrows(IllegalStateException.class, () -> service.appendChunk(session.getId(), 0, part(0, 1000)));
+        assertThrows(IllegalStateException.class, () -> service.appendChunk(session.getId(), 1500, part(1500, 2000)));
+
+        assertEquals(1000L, sessions.get(session.getId()).getUploadOffset());
+        assertEquals(1000L, Files.size(Path.of(session.getPartialFilePath())));
+    }
+
+    @Test
+    void resumesFromOffsetAfterClientDisconnect() throws IOException {
+        UploadSession session = newSession();
+
+        InputStream dropped = new DisconnectingStream(part(0, audio.length), 70_000);
+        UploadInterruptedException interrupted = assertThrows(UploadInterruptedException.class,
+                () -> service.appendChunk(session.getId(), 0, dropped));
+
+        long offset = sessions.get(session.getId()).getUploadOffset();
+        assertTrue(offset > 0 && offset <= 70_000, "offset " + offset);
+        assertTrue(interrupted.getMessage().contains(String.valueOf(offset)));
+
+        UploadSession resumed = service.appendChunk(session.getId(), offset, part((int) offset, audio.length));
+
+        assertTrue(resumed.isComplete());
+        assertArrayEquals(audio, Files.readAllBytes(Path.of(session.getPartialFilePath())));
+    }
+
+    @Test
+    void writeFailureIsStorageErrorAndKeepsOffset() throws IOException {
+        UploadSession session = newSession();
+        service.appendChunk(session.getId(), 0, part(0, 1000));
+
+        // Arquivo parcial inacessível para gravação
+        Path partial = Path.of(session.getPartialFilePath());
+        Files.delete(partial);
+        Files.createDirectory(partial);
+
+        assertThrows(FileStorageException.class, () -> service.appendChunk(session.getId(), 1000, part(1000, 2000)));
+        assertEquals(1000L, sessions.get(session.getId()).getUploadOffset());
+    }
+
+    @Test
+    void finalizeCreatesJobAndMovesFileToStorage() throws Exception {
+        UploadSession session = uploadedSession();
+        when(transcriptionService.createJobFromUpload(any(), anyString(), any(), any()))
+                .thenReturn(TranscriptionJobResponse.builder().id(42L).build());
+
+        TranscriptionJobResponse job = service.finalizeSession(session.getId(), null);
+
+        ArgumentCaptor<StoredUpload> stored = ArgumentCaptor.forClass(StoredUpload.class);
+        verify(transcriptionService).createJobFromUpload(stored.capture(), eq("audio.mp3"), eq("pt"), any());
+
+        assertEquals(42L, job.getId());
+        assertEquals(sha256(audio), stored.getValue().getContentHash());
+        assertArrayEquals(audio, Files.readAllBytes(stored.getValue().getPath()));
+        assertFalse(Files.exists(Path.of(session.getPartialFilePath())));
+
+        UploadSession finalized = sessions.get(session.getId());
+        assertFalse(finalized.isActive());
+        assertEquals(42L, finalized.getJobId());
+    }
+
+    @Test
+    void failedFinalizeReturnsFileToSession() throws IOException {
+        UploadSession session = uploadedSession();
+        ArgumentCaptor<StoredUpload> stored = ArgumentCaptor.forClass(StoredUpload.class);
+        when(transcriptionService.createJobFromUpload(stored.capture(), anyString(), any(), any()))
+                .thenThrow(new IllegalStateException("banco indisponível"));
+
+        assertThrows(IllegalStateException.class, () -> service.finalizeSession(session.getId(), null));
+
+        assertTrue(sessions.get(session.getId()).isActive());
+        assertFalse(Files.exists(stored.getValue().getPath()));
+        assertArrayEquals(audio, Files.readAllBytes(Path.of(session.getPartialFilePath())));
+    }
+
+    @Test
+    void concurrentFinalizeFindsSessionAlreadyFinalized() throws IOException {
+        UploadSession session = uploadedSession();
+
+        // A outra finalização fez commit enquanto esta esperava a trava da sessão
+        UploadSession locked = UploadSession.builder()
+                .id(session.getId())
+                .partialFilePath(session.getPartialFilePath())
+                .status(UploadSession.Status.FINALIZED)
+                .jobId(7L)
+                .build();
+        when(repository.lockById(session.getId())).thenReturn(Optional.of(locked));
+
+        assertThrows(IllegalStateException.class, () -> service.finalizeSession(session.getId(), null));
+
+        verify(transcriptionService, never()).createJobFromUpload(any(), anyString(), any(), any());
+        assertTrue(Files.exists(Path.of(session.getPartialFilePath())));
+    }
+
+    private UploadSession newSession() {
+        return service.createSession("audio.mp3", "audio/mpeg", audio.length, "pt", null);
+    }
+
+    private UploadSession uploadedSession() {
+        UploadSession session = newSession();
+        service.appendChunk(session.getId(), 0, part(0, audio.length));
+        return session;
+    }
+
+    private InputStream part(int from, int to) {
+        return new ByteArrayInputStream(Arrays.copyOfRange(audio, from, to));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    /**
+     * Entrega até failAfter bytes e depois simula a queda da conexão do cliente
+     */
+    private static final class DisconnectingStream extends InputStream {
+
+        private final InputStream delegate;
+        private final int failAfter;
+        private int position;
+
+        private DisconnectingStream(InputStream delegate, int failAfter) {
+            this.delegate = delegate;
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= failAfter) {
+                throw new IOException("Connection reset");
+            }
+            int count = delegate.read(buffer, offset, Math.min(length, failAfter - position));
+            position += Math.max(count, 0);
+            return count;
+        }
+    }
+}
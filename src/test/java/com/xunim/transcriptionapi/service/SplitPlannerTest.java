@@ -0,0 +1,73 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.audio.AudioProbe;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SplitPlannerTest {
+
+    @Test
+    void cutsAtSilenceNearestToTarget() {
+        SilenceReport report = new SilenceReport(250, List.of(
+                silence(50, 51),
+                silence(88, 89),     // dentro da janela antes de 100 s
+                silence(170, 171)));
+
+        SplitPlan plan = planner().plan(report, 100);
+
+        assertEquals(List.of(88.5, 170.5), plan.getBoundaries());
+    }
+
+    @Test
+    void fallsBackToTargetWithoutNearbySilence() {
+        SplitPlan plan = planner().plan(new SilenceReport(250, List.of(silence(10, 11))), 100);
+
+        assertEquals(List.of(100.0, 200.0), plan.getBoundaries());
+    }
+
+    @Test
+    void isolatesDeadAirAndMarksItSilent() {
+        SplitPlan plan = planner().plan(new SilenceReport(90, List.of(silence(30, 60))), 100);
+
+        assertEquals(List.of(30.2, 59.8), plan.getBoundaries());
+        assertTrue(plan.isSilent(new AudioChunk(1, Path.of("c1"), 30.2, 59.8)));
+        assertFalse(plan.isSilent(new AudioChunk(0, Path.of("c0"), 0, 30.2)));
+    }
+
+    @Test
+    void segmentLengthFitsByteBudgetAndFillsParallelism() {
+        SplitPlanner planner = planner();
+
+        // WAV 16 bits estéreo: 176.400 bytes/s -> 24 MB cabem em ~122 s
+        assertEquals(122, planner.segmentSeconds(new AudioProbe("ffmpeg", 3600, 1_411_200, 0, 0), 176_400, 600));
+
+        // MP3 de 64 kb/s com 20 min: 4 vagas por job -> 300 s por chunk
+        assertEquals(300, planner.segmentSeconds(new AudioProbe("ffmpeg", 1200, 64_000, 0, 0), 8_000, 600));
+
+        // Arquivo curto: não gera chunks menores que o mínimo
+        assertEquals(60, planner.segmentSeconds(new AudioProbe("ffmpeg", 100, 64_000, 0, 0), 8_000, 600));
+    }
+
+    private static SplitPlanner planner() {
+        SplitPlanner planner = new SplitPlanner(null, null);
+        ReflectionTestUtils.setField(planner, "boundaryWindowSeconds", 30.0);
+        ReflectionTestUtils.setField(planner, "deadAirMinSeconds", 5.0);
+        ReflectionTestUtils.setField(planner, "minSpeechRatio", 0.05);
+        ReflectionTestUtils.setField(planner, "maxChunkBytes", 24_000_000L);
+        ReflectionTestUtils.setField(planner, "minSegmentSeconds", 60);
+        ReflectionTestUtils.setField(planner, "fillParallelism", true);
+        ReflectionTestUtils.setField(planner, "perJobLimit", 4);
+        return planner;
+    }
+
+    private static SilenceReport.Silence silence(double start, double end) {
+        return new SilenceReport.Silence(start, end);
+    }
+}
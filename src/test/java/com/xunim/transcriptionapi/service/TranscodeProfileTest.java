@@ -0,0 +1,31 @@
+package com.xunim.transcriptionapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TranscodeProfileTest {
+
+    @Test
+    void copyKeepsOriginalCodec() {
+        assertEquals(TranscodeProfile.COPY, TranscodeProfile.from(""));
+        assertEquals(List.of("-c", "copy"), TranscodeProfile.COPY.codecArguments(16000, ""));
+    }
+
+    @Test
+    void opusDownmixesToMonoWithDefaultBitrate() {
+        List<String> arguments = TranscodeProfile.from("Opus").codecArguments(16000, "");
+
+        assertEquals("ogg", TranscodeProfile.OPUS.getExtension());
+        assertTrue(String.join(" ", arguments).contains("-ac 1 -ar 16000 -c:a libopus -b:a 24k"));
+    }
+
+    @Test
+    void rejectsUnknownProfile() {
+        assertThrows(IllegalArgumentException.class, () -> TranscodeProfile.from("aac"));
+    }
+}
@@ -0,0 +1,131 @@
+package com.xunim.transcriptionapi.service;
+
+import com.xunim.transcriptionapi.exception.InvalidFileException;
+import com.xunim.transcriptionapi.validator.AudioFileValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UploadStorageServiceTest {
+
+    private static final long MB = 1024 * 1024;
+    private static final long MAX_HEAP_GROWTH = 32 * MB;
+
+    @TempDir
+    Path tempDir;
+
+    private AudioFileValidator validator;
+    private UploadStorageService storage;
+
+    @BeforeEach
+    void setUp() {
+        validator = new AudioFileValidator();
+        ReflectionTestUtils.setField(validator, "maxFileSizeMb", 500L);
+        storage = new UploadStorageService(validator);
+    }
+
+    @Test
+    void stores500MbUploadWithFlatHeap() throws Exception {
+        long baseline = usedHeapAfterGc();
+
+        SyntheticMp3Stream upload = new SyntheticMp3Stream(500 * MB);
+        Path target = tempDir.resolve("upload.mp3");
+
+        StoredUpload stored = storage.store(upload, target);
+
+        assertEquals(500 * MB, stored.getSizeBytes());
+        assertEquals(500 * MB, Files.size(target));
+        assertEquals(upload.expectedHash(), stored.getContentHash());
+
+        long growth = upload.heapAtMidpoint - baseline;
+        assertTrue(growth < MAX_HEAP_GROWTH,
+                "Heap cresceu " + growth / MB + " MB durante a gravação de 500 MB");
+    }
+
+    @Test
+    void rejectsInvalidHeaderAndRemovesPartialFile() {
+        Path target = tempDir.resolve("fake.mp3");
+        InputStream notAudio = new ByteArrayInputStream("not an audio file at all".getBytes());
+
+        assertThrows(InvalidFileException.class, () -> storage.store(notAudio, target));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void rejectsOversizedUploadDuringCopy() {
+        ReflectionTestUtils.setField(validator, "maxFileSizeMb", 1L);
+        Path target = tempDir.resolve("big.mp3");
+
+        assertThrows(InvalidFileException.class, () -> storage.store(new SyntheticMp3Stream(3 * MB), target));
+        assertFalse(Files.exists(target));
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Stream de tamanho arbitrário que começa com um cabeçalho ID3 e não mantém nada em memória
+     */
+    private static final class SyntheticMp3Stream extends InputStream {
+
+        private static final byte[] ID3 = {0x49, 0x44, 0x33, 0x04, 0, 0, 0, 0, 0, 0, 0, 0};
+
+        private final long size;
+        private final MessageDigest digest;
+        private long position;
+        private long heapAtMidpoint = Long.MAX_VALUE;
+
+        private SyntheticMp3Stream(long size) throws Exception {
+            this.size = size;
+            this.digest = MessageDigest.getInstance("SHA-256");
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= size) {
+                return -1;
+            }
+
+            int count = (int) Math.min(length, size - position);
+            for (int i = 0; i < count; i++) {
+                long p = position + i;
+                buffer[offset + i] = p < ID3.length ? ID3[(int) p] : (byte) (p * 31);
+            }
+            digest.update(buffer, offset, count);
+
+            if (position < size / 2 && position + count >= size / 2) {
+                heapAtMidpoint = usedHeapAfterGc();
+            }
+
+            position += count;
+            return count;
+        }
+
+        private String expectedHash() {
+            return HexFormat.of().formatHex(digest.digest());
+        }
+    }
+}